@@ -13,6 +13,16 @@ import basic.service.Service;
 @Retention(RetentionPolicy.CLASS)
 public @interface Endpoint {
 
+    /**
+     * 安全修饰符：所有参数都是安全的，本地调用时不需要拷贝参数
+     */
+    int PARAM_SAFE = 0b01;
+
+    /**
+     * 安全修饰符：返回结果是安全的，本地调用时不需要拷贝结果
+     */
+    int RESULT_SAFE = 0b10;
+
     /**
      * 标记所有参数都是安全的<br/>
      * 原生类型及其包装类型等不可变类型一定是安全的
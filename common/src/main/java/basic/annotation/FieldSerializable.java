@@ -0,0 +1,18 @@
+package basic.annotation;
+
+import basic.serialize.FieldSerializer;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 用于标记{@link java.io.Serializable}的实现类，序列化时使用运行时生成的{@link FieldSerializer}代替对象流<br/>
+ * 字段按位置读写，两端的类定义不一致时读取方会报错，不能像对象流那样兼容增删字段，需要跨版本兼容的类不要标记<br/>
+ * 只对被标记的类本身生效，子类需要单独标记，没有标记的类仍然使用对象流序列化
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface FieldSerializable {
+}
@@ -0,0 +1,26 @@
+package basic.annotation;
+
+import basic.serialize.Transferable;
+import basic.serialize.TransferableRegistry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 用于标记{@link Transferable}的实现类，编译时会生成[类名+Transfer]的序列化器<br/>
+ * 序列化器逐个字段读写，原生类型的字段直接读写，不需要类型标记也不需要装箱，其他字段按普通对象读写<br/>
+ * 被标记的类需要有无参构造方法，参与序列化的字段不能是private和final的，static和transient字段会被忽略<br/>
+ * 实现{@link Transferable}的方法时直接调用生成的序列化器，生成的序列化器可以通过{@link TransferableRegistry#registerGenerated()}自动注册
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface Transfer {
+
+    /**
+     * 在{@link TransferableRegistry}中注册的ID
+     */
+    int id();
+
+}
@@ -0,0 +1,20 @@
+package basic.exception;
+
+/**
+ * 读数据时发现数据不完整或者格式错误
+ *
+ * @see basic.message.CodedBuffer#readTrusted(java.util.function.Function)
+ */
+public class MalformedFrameException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public MalformedFrameException(String message) {
+        super(message);
+    }
+
+    public MalformedFrameException(Throwable cause) {
+        super("数据格式错误", cause);
+    }
+
+}
@@ -2,11 +2,16 @@ package basic.gen;
 
 import basic.Promise;
 import basic.annotation.Endpoint;
+import basic.annotation.Transfer;
 import basic.gen.handle.ServiceClass;
 import basic.gen.handle.ServiceMethod;
+import basic.gen.handle.TransferClass;
+import basic.gen.handle.TransferField;
 import com.google.auto.service.AutoService;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
+import basic.serialize.Transferable;
+import basic.serialize.TransferableRegistry;
 import basic.service.Service;
 import util.CommonUtils;
 import util.ConstantUtils;
@@ -18,10 +23,13 @@ import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.PrimitiveType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
+import javax.tools.FileObject;
 import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -29,7 +37,7 @@ import java.util.*;
 import java.util.regex.Pattern;
 
 
-@SupportedAnnotationTypes("basic.annotation.Endpoint")
+@SupportedAnnotationTypes({"basic.annotation.Endpoint", "basic.annotation.Transfer"})
 @SupportedSourceVersion(SourceVersion.RELEASE_8)
 @AutoService(Processor.class)
 public class Generator extends AbstractProcessor {
@@ -46,6 +54,8 @@ public class Generator extends AbstractProcessor {
 
     private TypeMirror promiseType;
 
+    private TypeMirror transferableType;
+
     /**
      * 自定义代理类的生成路径
      */
@@ -55,6 +65,13 @@ public class Generator extends AbstractProcessor {
 
     private Template proxyTemplate;
 
+    private Template transferTemplate;
+
+    /**
+     * 已经生成的序列化器，所有轮次处理完之后写入服务配置文件
+     */
+    private Set<String> transfers = new TreeSet<>();
+
 //    private Template callerTemplate;
 
     @Override
@@ -66,12 +83,14 @@ public class Generator extends AbstractProcessor {
         elementUtils = processingEnv.getElementUtils();
         serviceType = elementUtils.getTypeElement(Service.class.getName()).asType();
         promiseType = typeUtils.erasure(elementUtils.getTypeElement(Promise.class.getName()).asType());
+        transferableType = elementUtils.getTypeElement(Transferable.class.getName()).asType();
         proxyPath = processingEnv.getOptions().get("rpcProxyPath");
         try {
             Configuration freemarkerCfg = new Configuration(Configuration.VERSION_2_3_23);
             freemarkerCfg.setClassForTemplateLoading(getClass(), "/template");
             freemarkerCfg.setDefaultEncoding("UTF-8");
             proxyTemplate = freemarkerCfg.getTemplate("proxy.ftl");
+            transferTemplate = freemarkerCfg.getTemplate("transfer.ftl");
 //            callerTemplate = freemarkerCfg.getTemplate("caller.ftl");
         } catch (IOException e) {
             error(e);
@@ -93,8 +112,11 @@ public class Generator extends AbstractProcessor {
 
         for (TypeElement annotation : annotations) {
             boolean endpoint = annotation.getQualifiedName().contentEquals(Endpoint.class.getName());
+            boolean transfer = annotation.getQualifiedName().contentEquals(Transfer.class.getName());
             for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
-                if (endpoint) {
+                if (transfer) {
+                    processTransferClass((TypeElement) element);
+                } else if (endpoint) {
                     ExecutableElement executableElement = (ExecutableElement) element;
                     TypeElement typeElement = (TypeElement) executableElement.getEnclosingElement();
                     elements.computeIfAbsent(typeElement, k -> new ArrayList<>()).add(executableElement);
@@ -118,6 +140,10 @@ public class Generator extends AbstractProcessor {
             processServiceClass(typeElement, elements.get(typeElement));
         }
 
+        if (roundEnv.processingOver()) {
+            generateTransferServices();
+        }
+
         return true;
     }
 
@@ -197,6 +223,61 @@ public class Generator extends AbstractProcessor {
         }
     }
 
+    private void processTransferClass(TypeElement typeElement) {
+        if (!typeUtils.isSubtype(typeElement.asType(), transferableType)) {
+            error(typeElement + " cannot declare a Transfer annotation, because it is not a subtype of " + transferableType);
+            return;
+        }
+
+        if (typeElement.getNestingKind().isNested()) {
+            error(typeElement + " cannot declare a Transfer annotation, because it is nested kind");
+            return;
+        }
+
+        if (typeElement.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(typeElement + " cannot declare a Transfer annotation, because it is abstract");
+            return;
+        }
+
+        TransferClass transferClass = new TransferClass(typeElement.getQualifiedName().toString(), typeElement.getAnnotation(Transfer.class).id());
+        PackageElement packageElement = elementUtils.getPackageOf(typeElement);
+
+        //父类的字段在前
+        List<TypeElement> typeElements = new ArrayList<>();
+        for (TypeElement superElement = typeElement; superElement != null; ) {
+            typeElements.add(0, superElement);
+            TypeMirror superclass = superElement.getSuperclass();
+            superElement = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) typeUtils.asElement(superclass) : null;
+        }
+
+        boolean valid = true;
+        for (TypeElement superElement : typeElements) {
+            for (VariableElement fieldElement : ElementFilter.fieldsIn(superElement.getEnclosedElements())) {
+                Set<Modifier> modifiers = fieldElement.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL)
+                        || !modifiers.contains(Modifier.PUBLIC) && !elementUtils.getPackageOf(superElement).equals(packageElement)) {
+                    error(superElement + "." + fieldElement + " cannot be transferred, because it is private, final or inaccessible");
+                    valid = false;
+                    continue;
+                }
+                transferClass.getFields().add(new TransferField(fieldElement.getSimpleName().toString(), fieldElement.asType().getKind()));
+            }
+        }
+
+        if (!valid) {
+            return;
+        }
+
+        try {
+            generateTransfer(transferClass);
+        } catch (IOException e) {
+            error(e);
+        }
+    }
+
     private LinkedHashMap<String, List<String>> processTypeParameters(List<? extends TypeParameterElement> typeParameterElements) {
         LinkedHashMap<String, List<String>> typeParameters = new LinkedHashMap<>();
 
@@ -223,6 +304,7 @@ public class Generator extends AbstractProcessor {
         for (VariableElement parameter : executableElement.getParameters()) {
             TypeMirror parameterType = parameter.asType();
             serviceMethod.addParameter(parameter.getSimpleName(), parameterType.toString());
+            serviceMethod.addParamDescriptor(paramDescriptor(parameterType));
             if (!CommonUtils.isConstantType(parameterType)) {
                 paramSafe = false;
             }
@@ -255,6 +337,34 @@ public class Generator extends AbstractProcessor {
         return serviceMethod;
     }
 
+    /**
+     * 参数类型对应的格式描述符
+     *
+     * @see basic.protocol.ParamSchema
+     */
+    private char paramDescriptor(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return 'Z';
+            case BYTE:
+                return 'B';
+            case SHORT:
+                return 'S';
+            case CHAR:
+                return 'C';
+            case INT:
+                return 'I';
+            case LONG:
+                return 'J';
+            case FLOAT:
+                return 'F';
+            case DOUBLE:
+                return 'D';
+            default:
+                return 'L';
+        }
+    }
+
     /**
      * 自定义递归创建目录，因为使用gradle编译时，File.mkdirs的路径不对
      */
@@ -294,6 +404,56 @@ public class Generator extends AbstractProcessor {
 
     }
 
+    private void generateTransfer(TransferClass transferClass) throws IOException {
+        JavaFileObject transferFile = filer.createSourceFile(transferClass.getFullName() + "Transfer");
+
+        try (Writer transferWriter = transferFile.openWriter()) {
+            transferTemplate.process(transferClass, transferWriter);
+            transfers.add(transferClass.getFullName() + "Transfer");
+        } catch (Exception e) {
+            error(e);
+        }
+    }
+
+    /**
+     * 生成服务配置文件，{@link TransferableRegistry#registerGenerated()}通过它找到所有序列化器<br/>
+     * 增量编译时只会处理修改过的类，所以要合并上次生成的配置，原始类已经删除的序列化器不再保留
+     */
+    private void generateTransferServices() {
+        if (transfers.isEmpty()) {
+            return;
+        }
+
+        String resourceName = "META-INF/services/" + TransferableRegistry.Registrar.class.getName();
+        Set<String> allTransfers = new TreeSet<>(transfers);
+        try {
+            FileObject oldServicesFile = filer.getResource(StandardLocation.CLASS_OUTPUT, "", resourceName);
+            try (BufferedReader servicesReader = new BufferedReader(new InputStreamReader(oldServicesFile.openInputStream(), StandardCharsets.UTF_8))) {
+                String transfer;
+                while ((transfer = servicesReader.readLine()) != null) {
+                    transfer = transfer.trim();
+                    if (transfer.endsWith("Transfer") && elementUtils.getTypeElement(transfer.substring(0, transfer.length() - 8)) != null) {
+                        allTransfers.add(transfer);
+                    }
+                }
+            }
+        } catch (IOException ignored) {
+            //全量编译时还没有配置文件
+        }
+
+        try {
+            FileObject servicesFile = filer.createResource(StandardLocation.CLASS_OUTPUT, "", resourceName);
+            try (Writer servicesWriter = new OutputStreamWriter(servicesFile.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String transfer : allTransfers) {
+                    servicesWriter.write(transfer);
+                    servicesWriter.write("\n");
+                }
+            }
+        } catch (IOException e) {
+            error(e);
+        }
+    }
+
 //    private void generateCaller(ServiceClass serviceClass) throws IOException {
 //        serviceClass.setCustomPath(false);
 //        serviceClass.optimizeImport4Caller();
@@ -0,0 +1,274 @@
+package basic.gen;
+
+import basic.gen.handle.MessageClass;
+import basic.gen.handle.MessageField;
+import basic.gen.handle.MessageType;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import util.CommonUtils;
+
+import javax.lang.model.SourceVersion;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 根据消息定义文件(*.msg)生成{@link basic.message.Message}和{@link basic.message.Bean}的子类，定义格式：
+ * <pre>
+ * package game.message;
+ *
+ * //玩家信息
+ * bean Role {
+ *     long id = 1;
+ *     string name = 2;
+ *     list&lt;Item&gt; items = 3;
+ *     map&lt;int,long&gt; attrs = 4;
+ * }
+ *
+ * message ResLogin(1001) {
+ *     Role role = 1; //登录的角色
+ * }
+ * </pre>
+ * 内置类型：bool、byte、short、int、long、float、double、string、bytes，集合类型：list&lt;T&gt;、set&lt;T&gt;、map&lt;K,V&gt;，集合不能嵌套<br/>
+ * 其他类型是Bean，同一个包中的Bean使用简单类名，否则使用全类名<br/>
+ * 字段ID取值范围1~63，和数据格式一起组成1个字节的标签，新版本只能增加字段，不能修改已有字段的ID和类型
+ */
+public class MessageGenerator {
+
+    private static final Pattern packagePattern = Pattern.compile("package\\s+([\\w.]+)\\s*;");
+
+    private static final Pattern classPattern = Pattern.compile("(bean|message)\\s+(\\w+)\\s*(?:\\(\\s*(\\d+)\\s*\\))?\\s*\\{");
+
+    private static final Pattern fieldPattern = Pattern.compile("([\\w.]+(?:\\s*<[\\w.\\s,]+>)?)\\s+(\\w+)\\s*=\\s*(\\d+)\\s*;");
+
+    private static final Pattern collectionPattern = Pattern.compile("(list|set|map)\\s*<([\\w.\\s,]+)>");
+
+    private final Template template;
+
+    /**
+     * 所有定义文件中的类，按全类名索引
+     */
+    private final Map<String, MessageClass> classes = new LinkedHashMap<>();
+
+    /**
+     * 类型还没有解析的字段
+     */
+    private final List<UnresolvedField> unresolvedFields = new ArrayList<>();
+
+    private final Map<Integer, MessageClass> messageIds = new HashMap<>();
+
+    public MessageGenerator() {
+        try {
+            Configuration freemarkerCfg = new Configuration(Configuration.VERSION_2_3_23);
+            freemarkerCfg.setClassForTemplateLoading(getClass(), "/template");
+            freemarkerCfg.setDefaultEncoding("UTF-8");
+            template = freemarkerCfg.getTemplate("message.ftl");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @param args 定义文件或者所在目录，生成代码的目录
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: MessageGenerator <定义文件或目录> <输出目录>");
+            return;
+        }
+        new MessageGenerator().generate(new File(args[0]), new File(args[1]));
+    }
+
+    public void generate(File definitionPath, File outputPath) throws IOException {
+        List<File> files = new ArrayList<>(CommonUtils.listFiles(definitionPath, "msg"));
+        Collections.sort(files);
+        for (File file : files) {
+            parse(file);
+        }
+        resolveTypes();
+
+        for (MessageClass messageClass : classes.values()) {
+            File file = new File(outputPath, messageClass.getFullName().replace('.', File.separatorChar) + ".java");
+            File parent = file.getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("创建目录失败:" + parent);
+            }
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+                template.process(messageClass, writer);
+            } catch (Exception e) {
+                throw new IOException("生成代码出错:" + messageClass.getFullName(), e);
+            }
+        }
+    }
+
+    private void parse(File file) throws IOException {
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        String packageName = null;
+        MessageClass messageClass = null;
+        Set<Integer> fieldIds = new HashSet<>();
+        Set<String> fieldNames = new HashSet<>();
+        StringBuilder comment = new StringBuilder();
+
+        for (int i = 0; i < lines.size(); i++) {
+            String position = file.getPath() + ":" + (i + 1);
+            String line = lines.get(i).trim();
+            String lineComment = null;
+            int commentIndex = line.indexOf("//");
+            if (commentIndex >= 0) {
+                lineComment = line.substring(commentIndex + 2).trim();
+                line = line.substring(0, commentIndex).trim();
+            }
+
+            if (line.isEmpty()) {
+                //单独一行的注释属于下一个类或者字段
+                if (lineComment != null && !lineComment.isEmpty()) {
+                    if (comment.length() > 0) {
+                        comment.append("<br/>");
+                    }
+                    comment.append(lineComment);
+                }
+                continue;
+            }
+            if (lineComment != null && !lineComment.isEmpty()) {
+                if (comment.length() > 0) {
+                    comment.append("<br/>");
+                }
+                comment.append(lineComment);
+            }
+
+            Matcher matcher;
+            if (messageClass == null && (matcher = packagePattern.matcher(line)).matches()) {
+                packageName = matcher.group(1);
+            } else if (messageClass == null && (matcher = classPattern.matcher(line)).matches()) {
+                boolean message = matcher.group(1).equals("message");
+                if (message != (matcher.group(3) != null)) {
+                    throw new IllegalArgumentException(position + " 消息必须定义ID，Bean不能定义ID");
+                }
+                int id = message ? Integer.parseInt(matcher.group(3)) : 0;
+                if (message && id <= 0) {
+                    throw new IllegalArgumentException(position + " 消息ID必须大于0");
+                }
+                messageClass = new MessageClass(packageName, matcher.group(2), id);
+                if (comment.length() > 0) {
+                    messageClass.setComment(comment.toString());
+                }
+                if (classes.putIfAbsent(messageClass.getFullName(), messageClass) != null) {
+                    throw new IllegalArgumentException(position + " 重复定义的类:" + messageClass.getFullName());
+                }
+                if (message) {
+                    MessageClass oldClass = messageIds.putIfAbsent(id, messageClass);
+                    if (oldClass != null) {
+                        throw new IllegalArgumentException(position + " 消息ID重复:" + id + "," + oldClass.getFullName());
+                    }
+                }
+                fieldIds.clear();
+                fieldNames.clear();
+            } else if (messageClass != null && line.equals("}")) {
+                messageClass = null;
+            } else if (messageClass != null && (matcher = fieldPattern.matcher(line)).matches()) {
+                String name = matcher.group(2);
+                int id = Integer.parseInt(matcher.group(3));
+                if (id < 1 || id > 63) {
+                    throw new IllegalArgumentException(position + " 字段ID取值范围是1~63:" + id);
+                }
+                if (!fieldIds.add(id)) {
+                    throw new IllegalArgumentException(position + " 字段ID重复:" + id);
+                }
+                if (!SourceVersion.isName(name) || name.contains("$") || !fieldNames.add(name)) {
+                    throw new IllegalArgumentException(position + " 字段名不合法或者重复:" + name);
+                }
+                unresolvedFields.add(new UnresolvedField(messageClass, name, id, matcher.group(1).replaceAll("\\s", ""), comment.toString(), position));
+            } else {
+                throw new IllegalArgumentException(position + " 无法解析:" + line);
+            }
+            comment.setLength(0);
+        }
+
+        if (messageClass != null) {
+            throw new IllegalArgumentException(file.getPath() + " 缺少}:" + messageClass.getName());
+        }
+    }
+
+    private void resolveTypes() {
+        for (UnresolvedField unresolvedField : unresolvedFields) {
+            MessageType type = resolveType(unresolvedField.messageClass, unresolvedField.type, unresolvedField.position, true);
+            MessageField field = new MessageField(unresolvedField.name, unresolvedField.id, type);
+            if (!unresolvedField.comment.isEmpty()) {
+                field.setComment(unresolvedField.comment);
+            }
+            unresolvedField.messageClass.getFields().add(field);
+        }
+        unresolvedFields.clear();
+    }
+
+    private MessageType resolveType(MessageClass owner, String typeName, String position, boolean collectionAllowed) {
+        MessageType type = MessageType.builtin(typeName);
+        if (type != null) {
+            return type;
+        }
+
+        Matcher matcher = collectionPattern.matcher(typeName);
+        if (matcher.matches()) {
+            if (!collectionAllowed) {
+                throw new IllegalArgumentException(position + " 集合不能嵌套:" + typeName);
+            }
+            String[] elementTypes = matcher.group(2).split(",");
+            boolean map = matcher.group(1).equals("map");
+            if (elementTypes.length != (map ? 2 : 1)) {
+                throw new IllegalArgumentException(position + " 集合类型参数错误:" + typeName);
+            }
+            MessageType elementType = resolveType(owner, elementTypes[elementTypes.length - 1], position, false);
+            if (map) {
+                MessageType keyType = resolveType(owner, elementTypes[0], position, false);
+                if (keyType.isBean()) {
+                    throw new IllegalArgumentException(position + " Map的key不能是Bean:" + typeName);
+                }
+                return MessageType.map(keyType, elementType);
+            }
+            return matcher.group(1).equals("list") ? MessageType.list(elementType) : MessageType.set(elementType);
+        }
+
+        //Bean类型，简单类名在同一个包中查找
+        MessageClass beanClass = classes.get(typeName);
+        String javaType = typeName;
+        if (beanClass == null && owner.getPackageName() != null && !typeName.contains(".")) {
+            beanClass = classes.get(owner.getPackageName() + "." + typeName);
+        }
+        if (beanClass == null || beanClass.isMessage()) {
+            throw new IllegalArgumentException(position + " 找不到Bean类型:" + typeName);
+        }
+        if (Objects.equals(beanClass.getPackageName(), owner.getPackageName())) {
+            javaType = beanClass.getName();
+        }
+        return MessageType.bean(typeName, javaType);
+    }
+
+    private static class UnresolvedField {
+
+        private final MessageClass messageClass;
+
+        private final String name;
+
+        private final int id;
+
+        private final String type;
+
+        private final String comment;
+
+        private final String position;
+
+        UnresolvedField(MessageClass messageClass, String name, int id, String type, String comment, String position) {
+            this.messageClass = messageClass;
+            this.name = name;
+            this.id = id;
+            this.type = type;
+            this.comment = comment;
+            this.position = position;
+        }
+
+    }
+
+}
@@ -0,0 +1,92 @@
+package basic.gen.handle;
+
+import basic.gen.MessageGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 消息定义中的Bean或者消息
+ */
+public class MessageClass {
+
+    private String fullName;
+
+    private String packageName;
+
+    private String name;
+
+    /**
+     * 消息ID，Bean为0
+     */
+    private int id;
+
+    private String comment;
+
+    private List<MessageField> fields = new ArrayList<>();
+
+    public MessageClass(String packageName, String name, int id) {
+        this.packageName = packageName;
+        this.name = name;
+        this.id = id;
+        this.fullName = packageName == null ? name : packageName + "." + name;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public boolean isMessage() {
+        return id > 0;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    public List<MessageField> getFields() {
+        return fields;
+    }
+
+    /**
+     * 是否需要导入java.util包，集合字段和非空检查需要用到
+     */
+    public boolean isUtilUsed() {
+        for (MessageField field : fields) {
+            if (field.getType().isNonNull()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getGeneratorName() {
+        return MessageGenerator.class.getName();
+    }
+
+    @Override
+    public String toString() {
+        return "MessageClass{" +
+                "fullName='" + fullName + '\'' +
+                ", id=" + id +
+                ", fields=" + fields +
+                '}';
+    }
+
+}
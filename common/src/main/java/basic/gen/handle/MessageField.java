@@ -0,0 +1,76 @@
+package basic.gen.handle;
+
+/**
+ * 消息定义中的字段
+ */
+public class MessageField {
+
+    private final String name;
+
+    /**
+     * 字段ID，取值范围1~63，和数据格式一起组成1个字节的标签
+     */
+    private final int id;
+
+    private final MessageType type;
+
+    private String comment;
+
+    public MessageField(String name, int id, MessageType type) {
+        this.name = name;
+        this.id = id;
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public MessageType getType() {
+        return type;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    public int getTag() {
+        return id << 2 | type.getWireType();
+    }
+
+    /**
+     * 字段在存在标记和部分解码掩码中对应的常量名，例如roleId对应FIELD_ROLE_ID
+     */
+    public String getMaskName() {
+        return "FIELD_" + name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+    }
+
+    public String getCapitalName() {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * 判断字段值不是默认值的表达式，默认值不会被编码
+     */
+    public String getNonDefault() {
+        return type.nonDefault("this." + name);
+    }
+
+    @Override
+    public String toString() {
+        return "MessageField{" +
+                "name='" + name + '\'' +
+                ", id=" + id +
+                ", type=" + type +
+                '}';
+    }
+
+}
@@ -0,0 +1,217 @@
+package basic.gen.handle;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 消息定义中的字段类型，包含内置类型、Bean类型和集合类型
+ */
+public class MessageType {
+
+    /**
+     * 标签中的数据格式，和{@link basic.message.Bean#skipField(int, basic.message.CodedBuffer)}一致
+     */
+    public static final int VAR_INT = 0;
+
+    public static final int FLOAT = 1;
+
+    public static final int DOUBLE = 2;
+
+    public static final int LENGTH_DELIMITED = 3;
+
+    private static final Map<String, MessageType> builtinTypes = new HashMap<>();
+
+    static {
+        builtinTypes.put("bool", new MessageType("bool", "boolean", "Boolean", "Bool", VAR_INT, "false", "%s"));
+        builtinTypes.put("byte", new MessageType("byte", "byte", "Byte", "Int", VAR_INT, "0", "%s != 0"));
+        builtinTypes.put("short", new MessageType("short", "short", "Short", "Short", VAR_INT, "0", "%s != 0"));
+        builtinTypes.put("int", new MessageType("int", "int", "Integer", "Int", VAR_INT, "0", "%s != 0"));
+        builtinTypes.put("long", new MessageType("long", "long", "Long", "Long", VAR_INT, "0", "%s != 0"));
+        builtinTypes.put("float", new MessageType("float", "float", "Float", "Float", FLOAT, "0", "Float.floatToRawIntBits(%s) != 0"));
+        builtinTypes.put("double", new MessageType("double", "double", "Double", "Double", DOUBLE, "0", "Double.doubleToRawLongBits(%s) != 0"));
+        builtinTypes.put("string", new MessageType("string", "String", "String", "String", LENGTH_DELIMITED, "\"\"", "!%s.isEmpty()"));
+        builtinTypes.put("bytes", new MessageType("bytes", "byte[]", "byte[]", "Bytes", LENGTH_DELIMITED, "null", "%1$s != null && %1$s.length > 0"));
+    }
+
+    private final String name;
+
+    private final String javaType;
+
+    private final String boxedType;
+
+    /**
+     * 在{@link basic.message.CodedBuffer}中对应的读写方法名后缀，Bean和集合类型为空
+     */
+    private final String bufferMethod;
+
+    private final int wireType;
+
+    private final String defaultValue;
+
+    /**
+     * 判断字段值不是默认值的表达式格式
+     */
+    private final String nonDefaultFormat;
+
+    /**
+     * 集合的元素类型，Map的value类型
+     */
+    private MessageType elementType;
+
+    /**
+     * Map的key类型
+     */
+    private MessageType keyType;
+
+    /**
+     * 集合和Map解码时创建的实现类
+     */
+    private String implType;
+
+    private MessageType(String name, String javaType, String boxedType, String bufferMethod, int wireType, String defaultValue, String nonDefaultFormat) {
+        this.name = name;
+        this.javaType = javaType;
+        this.boxedType = boxedType;
+        this.bufferMethod = bufferMethod;
+        this.wireType = wireType;
+        this.defaultValue = defaultValue;
+        this.nonDefaultFormat = nonDefaultFormat;
+    }
+
+    public static MessageType builtin(String name) {
+        return builtinTypes.get(name);
+    }
+
+    /**
+     * @param javaType Bean的类名，同一个包中的类是简单类名，否则是全类名
+     */
+    public static MessageType bean(String name, String javaType) {
+        return new MessageType(name, javaType, javaType, null, LENGTH_DELIMITED, "null", "%s != null");
+    }
+
+    public static MessageType list(MessageType elementType) {
+        MessageType type = new MessageType("list", "List<" + elementType.boxedType + ">", null, null, LENGTH_DELIMITED, "new ArrayList<>()", "!%s.isEmpty()");
+        type.implType = "ArrayList";
+        type.elementType = elementType;
+        return type;
+    }
+
+    public static MessageType set(MessageType elementType) {
+        MessageType type = new MessageType("set", "Set<" + elementType.boxedType + ">", null, null, LENGTH_DELIMITED, "new HashSet<>()", "!%s.isEmpty()");
+        type.implType = "HashSet";
+        type.elementType = elementType;
+        return type;
+    }
+
+    public static MessageType map(MessageType keyType, MessageType valueType) {
+        MessageType type = new MessageType("map", "Map<" + keyType.boxedType + ", " + valueType.boxedType + ">", null, null, LENGTH_DELIMITED, "new HashMap<>()", "!%s.isEmpty()");
+        type.implType = "HashMap";
+        type.keyType = keyType;
+        type.elementType = valueType;
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getJavaType() {
+        return javaType;
+    }
+
+    public String getBoxedType() {
+        return boxedType;
+    }
+
+    public String getImplType() {
+        return implType;
+    }
+
+    public String getBufferMethod() {
+        return bufferMethod;
+    }
+
+    public int getWireType() {
+        return wireType;
+    }
+
+    public String getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * 字段声明时的初始值，和Java默认值一样时为空
+     */
+    public String getInitialValue() {
+        switch (defaultValue) {
+            case "0":
+            case "false":
+            case "null":
+                return null;
+            default:
+                return defaultValue;
+        }
+    }
+
+    /**
+     * 设置字段时是否不能为空，字符串和集合类型的默认值不是null
+     */
+    public boolean isNonNull() {
+        return getInitialValue() != null;
+    }
+
+    /**
+     * 默认值对应的JSON，可以为空的类型没有
+     */
+    public String getJsonDefault() {
+        if (isCollection()) {
+            return "[]";
+        } else if (isMap()) {
+            return "{}";
+        } else if (defaultValue.equals("null")) {
+            return null;
+        } else if (wireType == FLOAT || wireType == DOUBLE) {
+            //和JsonWriter写入浮点数的格式一致
+            return "0.0";
+        } else {
+            return defaultValue;
+        }
+    }
+
+    public String nonDefault(String value) {
+        return String.format(nonDefaultFormat, value);
+    }
+
+    public boolean isBean() {
+        return bufferMethod == null && !isCollection() && !isMap();
+    }
+
+    public boolean isCollection() {
+        return name.equals("list") || name.equals("set");
+    }
+
+    public boolean isMap() {
+        return name.equals("map");
+    }
+
+    /**
+     * 读取时需要强制类型转换，byte按int读写
+     */
+    public boolean isByte() {
+        return name.equals("byte");
+    }
+
+    public MessageType getElementType() {
+        return elementType;
+    }
+
+    public MessageType getKeyType() {
+        return keyType;
+    }
+
+    @Override
+    public String toString() {
+        return javaType;
+    }
+
+}
@@ -173,6 +173,7 @@ public class ServiceClass extends ServiceElement {
         imports.put("Promise", "basic.Promise");
 //        imports.put("Worker", "quan.rpc.Worker");
         imports.put("Proxy", "basic.proxy.Proxy");
+        imports.put("ParamSchema", "basic.protocol.ParamSchema");
         imports.put("Object", "-java.lang.Object");
         imports.put(name, "-" + fullName);
         imports.put(name + "Proxy", "-" + fullName + "Proxy");
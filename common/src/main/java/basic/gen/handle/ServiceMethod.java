@@ -1,5 +1,7 @@
 package basic.gen.handle;
 
+import basic.annotation.Endpoint;
+
 import java.util.LinkedHashMap;
 import java.util.List;
 
@@ -19,19 +21,22 @@ public class ServiceMethod extends ServiceElement {
     //参数名:优化导入后的参数类型
     private LinkedHashMap<String, String> optimizedParameters = new LinkedHashMap<>();
 
+    //参数格式描述符，每个参数一个字符
+    private StringBuilder paramDescriptor = new StringBuilder();
+
     public ServiceMethod(CharSequence name) {
         this.name = name.toString();
     }
 
     public void setParamSafe(boolean paramSafe) {
         if (paramSafe) {
-            securityModifier |= 0b01;
+            securityModifier |= Endpoint.PARAM_SAFE;
         }
     }
 
     public void setResultSafe(boolean resultSafe) {
         if (resultSafe) {
-            securityModifier |= 0b10;
+            securityModifier |= Endpoint.RESULT_SAFE;
         }
     }
 
@@ -83,6 +88,17 @@ public class ServiceMethod extends ServiceElement {
         }
     }
 
+    /**
+     * @see basic.protocol.ParamSchema
+     */
+    public void addParamDescriptor(char descriptor) {
+        paramDescriptor.append(descriptor);
+    }
+
+    public String getParamDescriptor() {
+        return paramDescriptor.toString();
+    }
+
     public LinkedHashMap<String, String> getOriginalParameters() {
         return originalParameters;
     }
@@ -0,0 +1,68 @@
+package basic.gen.handle;
+
+import basic.gen.Generator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 被{@link basic.annotation.Transfer}标记的类
+ */
+public class TransferClass {
+
+    private String fullName;
+
+    private String packageName;
+
+    private String name;
+
+    private int id;
+
+    private List<TransferField> fields = new ArrayList<>();
+
+    public TransferClass(String fullName, int id) {
+        this.fullName = fullName;
+        this.id = id;
+        int index = fullName.lastIndexOf(".");
+        if (index > 0) {
+            this.packageName = fullName.substring(0, index);
+            this.name = fullName.substring(index + 1);
+        } else {
+            this.name = fullName;
+        }
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public List<TransferField> getFields() {
+        return fields;
+    }
+
+    public String getGeneratorName() {
+        return Generator.class.getName();
+    }
+
+    @Override
+    public String toString() {
+        return "TransferClass{" +
+                "fullName='" + fullName + '\'' +
+                ", id=" + id +
+                ", fields=" + fields +
+                '}';
+    }
+
+}
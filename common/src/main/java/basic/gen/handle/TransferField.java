@@ -0,0 +1,59 @@
+package basic.gen.handle;
+
+import javax.lang.model.type.TypeKind;
+
+/**
+ * 参与序列化的字段
+ */
+public class TransferField {
+
+    private String name;
+
+    private TypeKind kind;
+
+    public TransferField(String name, TypeKind kind) {
+        this.name = name;
+        this.kind = kind;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 原生类型字段在{@link basic.message.CodedBuffer}中对应的读写方法名后缀，其他类型返回null
+     */
+    public String getPrimitiveType() {
+        switch (kind) {
+            case BOOLEAN:
+                return "Bool";
+            case BYTE:
+                return "Byte";
+            case SHORT:
+                return "Short";
+            case INT:
+                return "Int";
+            case LONG:
+                return "Long";
+            case FLOAT:
+                return "Float";
+            case DOUBLE:
+                return "Double";
+            default:
+                return null;
+        }
+    }
+
+    public boolean isChar() {
+        return kind == TypeKind.CHAR;
+    }
+
+    @Override
+    public String toString() {
+        return "TransferField{" +
+                "name='" + name + '\'' +
+                ", kind=" + kind +
+                '}';
+    }
+
+}
@@ -3,12 +3,19 @@ package basic.message;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.serializer.SerializerFeature;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 public abstract class Bean {
 
     public final byte[] encode() {
-        CodedBuffer buffer = new DefaultCodedBuffer();
-        encode(buffer);
-        return buffer.remainingBytes();
+        CodedBuffer buffer = CodedBufferPool.lease();
+        try {
+            encode(buffer);
+            return buffer.remainingBytes();
+        } finally {
+            CodedBufferPool.recycle(buffer);
+        }
     }
 
     public final void decode(byte[] bytes) {
@@ -21,7 +28,74 @@ public abstract class Bean {
     public void decode(CodedBuffer buffer) {
     }
 
+    /**
+     * 计算编码之后的字节数，不会真正写入数据
+     */
+    public int computeSize() {
+        SizeCodedBuffer buffer = new SizeCodedBuffer();
+        encode(buffer);
+        return buffer.size();
+    }
+
+    /**
+     * 最外层的嵌套Bean计算字节数时记录下来的所有内层Bean的字节数，编码内层Bean时直接使用，不需要每一层都重新计算
+     */
+    private static final ThreadLocal<Map<Bean, Integer>> nestedSizes = new ThreadLocal<>();
+
+    /**
+     * 写入带长度前缀的嵌套Bean，和通过{@link CodedBuffer#getTemp()}写入的格式一致<br/>
+     * 先计算字节数再直接编码到当前缓冲区，不需要临时缓冲区和额外的复制<br/>
+     * 只有最外层的嵌套Bean需要计算一次字节数，计算的同时记录内层Bean的字节数，所以总的开销和嵌套深度无关
+     */
+    protected static void writeBean(CodedBuffer buffer, Bean bean) {
+        Map<Bean, Integer> sizes = nestedSizes.get();
+        if (buffer instanceof SizeCodedBuffer) {
+            SizeCodedBuffer sizeBuffer = (SizeCodedBuffer) buffer;
+            int start = sizeBuffer.size();
+            bean.encode(sizeBuffer);
+            int size = sizeBuffer.size() - start;
+            sizeBuffer.writeInt(size);
+            if (sizes != null) {
+                sizes.put(bean, size);
+            }
+            return;
+        }
+
+        Integer size = sizes == null ? null : sizes.get(bean);
+        if (size != null) {
+            buffer.writeInt(size);
+            bean.encode(buffer);
+            return;
+        }
+
+        boolean outermost = sizes == null;
+        if (outermost) {
+            nestedSizes.set(new IdentityHashMap<>());
+        }
+        try {
+            buffer.writeInt(bean.computeSize());
+            bean.encode(buffer);
+        } finally {
+            if (outermost) {
+                nestedSizes.remove();
+            }
+        }
+    }
+
+    /**
+     * 读取通过{@link #writeBean(CodedBuffer, Bean)}写入的嵌套Bean，长度前缀只用于跳过，Bean的解码必须正好读完自己的数据
+     */
+    protected static <B extends Bean> B readBean(CodedBuffer buffer, B bean) {
+        buffer.readInt();
+        bean.decode(buffer);
+        return bean;
+    }
+
+    /**
+     * 标签和结束标记都是单个字节，写入前先保证容量，不依赖具体缓冲区的writeByte是否检查
+     */
     protected static void writeTag(CodedBuffer buffer, int tag) {
+        buffer.onWrite(1);
         buffer.writeByte((byte) tag);
     }
 
@@ -47,7 +121,20 @@ public abstract class Bean {
     }
 
     public String toJson() {
-        return JSON.toJSONString(this, SerializerFeature.DisableCircularReferenceDetect);
+        JsonWriter writer = JsonWriter.lease();
+        try {
+            writeJson(writer);
+            return writer.toString();
+        } finally {
+            JsonWriter.recycle(writer);
+        }
+    }
+
+    /**
+     * 把对象写成JSON，生成的Bean会覆盖这个方法直接写入各个字段，默认通过反射转换
+     */
+    public void writeJson(JsonWriter writer) {
+        writer.rawValue(JSON.toJSONString(this, SerializerFeature.DisableCircularReferenceDetect));
     }
 
 }
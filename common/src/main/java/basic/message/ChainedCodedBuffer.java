@@ -0,0 +1,339 @@
+package basic.message;
+
+import basic.exception.MalformedFrameException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 由多个固定大小的字节数组块串联实现的{@link CodedBuffer}<br/>
+ * 扩容时只追加新的块，不会复制已经写入的数据，适合写入很大的数据，写完之后可以通过{@link #toByteBuf()}或者{@link #toByteBuffers()}聚集写出
+ */
+public class ChainedCodedBuffer extends CodedBuffer {
+
+    /**
+     * 块大小的位数
+     */
+    private final int chunkShift;
+
+    private final int chunkMask;
+
+    private final List<byte[]> chunks = new ArrayList<>();
+
+    /**
+     * 下一个读的位置,该位置的数据还未读
+     */
+    private int readIndex;
+
+    /**
+     * 下一个写的位置,该位置还未写数据
+     */
+    private int writeIndex;
+
+    /**
+     * 标记的读位置
+     */
+    private int markedIndex;
+
+    public ChainedCodedBuffer() {
+        this(4 * 1024);
+    }
+
+    /**
+     * @param chunkSize 每一块的大小，会被调整为不小于该值的2的幂
+     */
+    public ChainedCodedBuffer(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("块大小必须是正整数");
+        }
+        chunkShift = 32 - Integer.numberOfLeadingZeros(Math.max(chunkSize, 16) - 1);
+        chunkMask = (1 << chunkShift) - 1;
+        chunks.add(new byte[1 << chunkShift]);
+    }
+
+    private int chunkSize() {
+        return chunkMask + 1;
+    }
+
+    @Override
+    public int capacity() {
+        return chunks.size() << chunkShift;
+    }
+
+    @Override
+    public void mark() {
+        markedIndex = readIndex;
+    }
+
+    @Override
+    public void reset() {
+        readIndex = markedIndex;
+    }
+
+    @Override
+    public void clear() {
+        readIndex = 0;
+        writeIndex = 0;
+    }
+
+    @Override
+    public int readableCount() {
+        return writeIndex - readIndex;
+    }
+
+    @Override
+    public byte[] remainingBytes() {
+        byte[] remainingBytes = new byte[readableCount()];
+        readBytes(remainingBytes, 0, remainingBytes.length);
+        return remainingBytes;
+    }
+
+    @Override
+    public void remainingBytes(byte[] bytes, int startPos) {
+        readBytes(bytes, startPos, readableCount());
+    }
+
+    /**
+     * 丢弃已经读完的块，这些块会被移到末尾重复使用，不会复制数据
+     */
+    @Override
+    public void discardReadBytes() {
+        int count = readIndex >>> chunkShift;
+        if (count == 0) {
+            return;
+        }
+
+        List<byte[]> readChunks = chunks.subList(0, count);
+        List<byte[]> discardedChunks = new ArrayList<>(readChunks);
+        readChunks.clear();
+        chunks.addAll(discardedChunks);
+
+        int discardedCount = count << chunkShift;
+        readIndex -= discardedCount;
+        writeIndex -= discardedCount;
+        markedIndex = Math.max(markedIndex - discardedCount, 0);
+    }
+
+    /**
+     * 把剩余的数据组合成{@link ByteBuf}交给Netty，不会复制数据，交出去的数据视为已读<br/>
+     * 返回的{@link ByteBuf}和当前缓冲区共享内存，在其发送完成之前不能继续写入当前缓冲区
+     */
+    public ByteBuf toByteBuf() {
+        return Unpooled.wrappedBuffer(toByteBuffers());
+    }
+
+    /**
+     * 获取剩余数据的各个分段，可用于{@link java.nio.channels.GatheringByteChannel}聚集写出，获取之后视为已读
+     */
+    public ByteBuffer[] toByteBuffers() {
+        int first = readIndex >>> chunkShift;
+        int last = (writeIndex - 1) >>> chunkShift;
+        if (readableCount() == 0) {
+            return new ByteBuffer[0];
+        }
+
+        ByteBuffer[] buffers = new ByteBuffer[last - first + 1];
+        for (int i = first; i <= last; i++) {
+            int start = i == first ? readIndex & chunkMask : 0;
+            int end = i == last ? ((writeIndex - 1) & chunkMask) + 1 : chunkSize();
+            buffers[i - first] = ByteBuffer.wrap(chunks.get(i), start, end - start).slice();
+        }
+
+        readIndex = writeIndex;
+        return buffers;
+    }
+
+    @Override
+    public byte readByte() {
+        if (readIndex >= writeIndex) {
+            throw readError(1, 0);
+        }
+        int index = readIndex++;
+        return chunks.get(index >>> chunkShift)[index & chunkMask];
+    }
+
+    /**
+     * 整个变长整数都在同一块中时直接在数组上解码，跨块时逐个字节读取
+     */
+    @Override
+    protected long readVarInt(int maxCount) {
+        final int offset = readIndex & chunkMask;
+        if (offset + maxCount > chunkSize() || readIndex + maxCount > writeIndex) {
+            return super.readVarInt(maxCount);
+        }
+
+        final byte[] chunk = chunks.get(readIndex >>> chunkShift);
+        final int limit = offset + maxCount;
+        int index = offset;
+        long temp = 0;
+        int shift = 0;
+
+        while (index < limit) {
+            final byte b = chunk[index++];
+            temp |= (b & 0x7FL) << shift;
+            if (b >= 0) {
+                readIndex += index - offset;
+                //ZigZag解码
+                return (temp >>> 1) ^ -(temp & 1);
+            }
+            shift += 7;
+        }
+
+        throw new MalformedFrameException("读数据出错");
+    }
+
+    @Override
+    public float readFloat() {
+        onRead(4);
+        int offset = readIndex & chunkMask;
+        if (offset + 4 > chunkSize()) {
+            return Float.intBitsToFloat((int) readFixed(4));
+        }
+        float n = Float.intBitsToFloat(DefaultCodedBuffer.getIntLE(chunks.get(readIndex >>> chunkShift), offset));
+        readIndex += 4;
+        return n;
+    }
+
+    @Override
+    public double readDouble() {
+        onRead(8);
+        int offset = readIndex & chunkMask;
+        if (offset + 8 > chunkSize()) {
+            return Double.longBitsToDouble(readFixed(8));
+        }
+        double n = Double.longBitsToDouble(DefaultCodedBuffer.getLongLE(chunks.get(readIndex >>> chunkShift), offset));
+        readIndex += 8;
+        return n;
+    }
+
+    @Override
+    protected byte[] readBytes(int length) {
+        byte[] bytes = new byte[length];
+        readBytes(bytes, 0, length);
+        return bytes;
+    }
+
+    @Override
+    protected void readBytes(byte[] bytes, int startPos, int length) {
+        while (length > 0) {
+            int offset = readIndex & chunkMask;
+            int count = Math.min(length, chunkSize() - offset);
+            System.arraycopy(chunks.get(readIndex >>> chunkShift), offset, bytes, startPos, count);
+            readIndex += count;
+            startPos += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    protected void skipBytes(int length) {
+        readIndex += length;
+    }
+
+    /**
+     * 字符串在同一块中时直接在数组上解码
+     */
+    @Override
+    public String readString() {
+        int length = readLength();
+        int offset = readIndex & chunkMask;
+        if (offset + length > chunkSize()) {
+            return decodeString(readBytes(length), 0, length);
+        }
+        String s = decodeString(chunks.get(readIndex >>> chunkShift), offset, length);
+        readIndex += length;
+        return s;
+    }
+
+    /**
+     * 容量不够时追加新的块，已经写入的数据不会被复制
+     */
+    @Override
+    protected void onWrite(int minCount) {
+        while (capacity() <= writeIndex + minCount) {
+            chunks.add(new byte[chunkSize()]);
+        }
+    }
+
+    @Override
+    public void writeByte(byte b) {
+        onWrite(1);
+        int index = writeIndex++;
+        chunks.get(index >>> chunkShift)[index & chunkMask] = b;
+    }
+
+    @Override
+    protected void writeVarInt(long n) {
+        onWrite(10);
+        int offset = writeIndex & chunkMask;
+        if (offset + 10 > chunkSize()) {
+            super.writeVarInt(n);
+            return;
+        }
+        writeIndex += DefaultCodedBuffer.putVarInt(chunks.get(writeIndex >>> chunkShift), offset, n) - offset;
+    }
+
+    @Override
+    public void writeFloat(float n) {
+        onWrite(4);
+        int offset = writeIndex & chunkMask;
+        if (offset + 4 > chunkSize()) {
+            writeFixed(Float.floatToIntBits(n), 4);
+            return;
+        }
+        DefaultCodedBuffer.putIntLE(chunks.get(writeIndex >>> chunkShift), offset, Float.floatToIntBits(n));
+        writeIndex += 4;
+    }
+
+    @Override
+    public void writeDouble(double n) {
+        onWrite(8);
+        int offset = writeIndex & chunkMask;
+        if (offset + 8 > chunkSize()) {
+            writeFixed(Double.doubleToLongBits(n), 8);
+            return;
+        }
+        DefaultCodedBuffer.putLongLE(chunks.get(writeIndex >>> chunkShift), offset, Double.doubleToLongBits(n));
+        writeIndex += 8;
+    }
+
+    /**
+     * 把字节数组的一段复制到当前写位置，可能会跨越多个块
+     */
+    private void put(byte[] bytes, int startPos, int length) {
+        onWrite(length);
+        while (length > 0) {
+            int offset = writeIndex & chunkMask;
+            int count = Math.min(length, chunkSize() - offset);
+            System.arraycopy(bytes, startPos, chunks.get(writeIndex >>> chunkShift), offset, count);
+            writeIndex += count;
+            startPos += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes) {
+        writeInt(bytes.length);
+        put(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void writeBuffer(CodedBuffer buffer) {
+        if (!(buffer instanceof ChainedCodedBuffer)) {
+            super.writeBuffer(buffer);
+            return;
+        }
+
+        ChainedCodedBuffer _buffer = (ChainedCodedBuffer) buffer;
+        writeInt(_buffer.readableCount());
+        for (ByteBuffer byteBuffer : _buffer.toByteBuffers()) {
+            put(byteBuffer.array(), byteBuffer.arrayOffset(), byteBuffer.remaining());
+        }
+    }
+
+}
@@ -1,7 +1,10 @@
 package basic.message;
 
+import basic.exception.MalformedFrameException;
+
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
 
 /**
  * 采用VarInt和ZigZag编码的字节缓冲区，字节顺序采用小端模式
@@ -80,7 +83,21 @@ public abstract class CodedBuffer {
             }
         }
 
-        throw new RuntimeException("读数据出错");
+        throw new MalformedFrameException("读数据出错");
+    }
+
+    /**
+     * 在信任模式下读取一整帧数据，调用方需要保证整帧数据都已经在缓冲区中并且长度已经校验过<br/>
+     * 子类可以在信任模式下省略逐个值的边界检查，数据格式错误时统一抛出{@link MalformedFrameException}
+     *
+     * @param reader 读取整帧数据的函数
+     */
+    public <T> T readTrusted(Function<? super CodedBuffer, T> reader) {
+        try {
+            return reader.apply(this);
+        } catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new MalformedFrameException(e);
+        }
     }
 
     /**
@@ -90,11 +107,18 @@ public abstract class CodedBuffer {
      */
     protected void onRead(int minCount) {
         int readableCount = readableCount();
-        if (readableCount() < minCount) {
-            throw new RuntimeException(String.format("读数据出错，希望读取%d字节,实际剩余%d字节", minCount, readableCount));
+        if (readableCount < minCount) {
+            throw readError(minCount, readableCount);
         }
     }
 
+    /**
+     * 可读字节数不足时抛出的异常
+     */
+    protected static MalformedFrameException readError(int minCount, int readableCount) {
+        return new MalformedFrameException(String.format("读数据出错，希望读取%d字节,实际剩余%d字节", minCount, readableCount));
+    }
+
     /**
      * 实际读一个字节
      */
@@ -162,26 +186,41 @@ public abstract class CodedBuffer {
         }
     }
 
-    public byte[] readBytes() {
+    /**
+     * 读取字节数组或字符串的长度，并检查剩余可读的字节数是否足够
+     */
+    protected int readLength() {
+        return readLength(1);
+    }
+
+    /**
+     * 读取数组的长度，并检查剩余可读的字节数是否足够
+     *
+     * @param unitSize 每个元素最少占用的字节数
+     */
+    protected int readLength(int unitSize) {
         int length = readInt();
-        onRead(length);
-        return readBytes(length);
+        long minCount = (long) length * unitSize;
+        if (length < 0 || readableCount() < minCount) {
+            throw readError((int) Math.min(minCount, Integer.MAX_VALUE), readableCount());
+        }
+        return length;
+    }
+
+    public byte[] readBytes() {
+        return readBytes(readLength());
     }
 
     protected abstract byte[] readBytes(int length);
 
     public void readBytes(byte[] bytes, int startPos) {
-        int length = readInt();
-        onRead(length);
-        readBytes(bytes, startPos, length);
+        readBytes(bytes, startPos, readLength());
     }
 
     protected abstract void readBytes(byte[] bytes, int startPos, int length);
 
     public void skipBytes() {
-        int length = readInt();
-        onRead(length);
-        skipBytes(length);
+        skipBytes(readLength());
     }
 
     protected abstract void skipBytes(int length);
@@ -190,6 +229,31 @@ public abstract class CodedBuffer {
         return new String(readBytes(), StandardCharsets.UTF_8);
     }
 
+    /**
+     * 读取通过{@link #writeAscii(String)}写入的字符串，长度由调用方提供
+     */
+    public String readAscii(int length) {
+        onRead(length);
+        return decodeString(readBytes(length), 0, length);
+    }
+
+    /**
+     * 把UTF-8字节解码为字符串，纯ASCII字节直接按单字节解码
+     */
+    protected static String decodeString(byte[] bytes, int index, int length) {
+        for (int i = index, end = index + length; i < end; i++) {
+            if (bytes[i] < 0) {
+                return new String(bytes, index, length, StandardCharsets.UTF_8);
+            }
+        }
+
+        if (StringCache.isEnabled()) {
+            return StringCache.get(bytes, index, length);
+        } else {
+            return new String(bytes, index, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+
     public String readString(String charset) {
         try {
             return new String(readBytes(), charset);
@@ -198,6 +262,124 @@ public abstract class CodedBuffer {
         }
     }
 
+    /**
+     * 读取定长的小端整数
+     */
+    protected long readFixed(int size) {
+        long temp = 0;
+        for (int shift = 0; shift < size * 8; shift += 8) {
+            temp |= (readByte() & 0xFFL) << shift;
+        }
+        return temp;
+    }
+
+    /**
+     * 读取按位压缩的boolean数组的长度，并检查剩余可读的字节数是否足够
+     */
+    protected int readBitsLength() {
+        int length = readInt();
+        if (length < 0 || readableCount() < (length + 7) >>> 3) {
+            throw readError((length + 7) >>> 3, readableCount());
+        }
+        return length;
+    }
+
+    /**
+     * 读取按位压缩的boolean数组，每个元素占1位
+     */
+    public boolean[] readBools() {
+        boolean[] array = new boolean[readBitsLength()];
+        for (int i = 0; i < array.length; i += 8) {
+            int b = readByte();
+            for (int j = i, end = Math.min(i + 8, array.length); j < end; j++) {
+                array[j] = (b & 1 << (j - i)) != 0;
+            }
+        }
+        return array;
+    }
+
+    /**
+     * 读取元素采用变长编码的short数组
+     */
+    public short[] readShorts() {
+        short[] array = new short[readLength(1)];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = readShort();
+        }
+        return array;
+    }
+
+    /**
+     * 读取每个元素固定占2个字节的short数组
+     */
+    public short[] readFixedShorts() {
+        short[] array = new short[readLength(2)];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = (short) readFixed(2);
+        }
+        return array;
+    }
+
+    /**
+     * 读取元素采用变长编码的int数组
+     */
+    public int[] readInts() {
+        int[] array = new int[readLength(1)];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = readInt();
+        }
+        return array;
+    }
+
+    /**
+     * 读取每个元素固定占4个字节的int数组
+     */
+    public int[] readFixedInts() {
+        int[] array = new int[readLength(4)];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = (int) readFixed(4);
+        }
+        return array;
+    }
+
+    /**
+     * 读取元素采用变长编码的long数组
+     */
+    public long[] readLongs() {
+        long[] array = new long[readLength(1)];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = readLong();
+        }
+        return array;
+    }
+
+    /**
+     * 读取每个元素固定占8个字节的long数组
+     */
+    public long[] readFixedLongs() {
+        long[] array = new long[readLength(8)];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = readFixed(8);
+        }
+        return array;
+    }
+
+    public float[] readFloats() {
+        float[] array = new float[readLength(4)];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = Float.intBitsToFloat((int) readFixed(4));
+        }
+        return array;
+    }
+
+    public double[] readDoubles() {
+        double[] array = new double[readLength(8)];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = Double.longBitsToDouble(readFixed(8));
+        }
+        return array;
+    }
+
     protected void writeVarInt(long n) {
         onWrite(10);
 
@@ -305,6 +487,84 @@ public abstract class CodedBuffer {
         writeBytes(s.getBytes(StandardCharsets.UTF_8));
     }
 
+    /**
+     * 写入只包含ASCII字符的字符串，每个字符占1个字节，不写入长度，调用方需要保证字符串中没有非ASCII字符
+     */
+    public void writeAscii(String s) {
+        int length = s.length();
+        onWrite(length);
+        for (int i = 0; i < length; i++) {
+            writeByte((byte) s.charAt(i));
+        }
+    }
+
+    /**
+     * 计算字符串按UTF-8编码后的字节数，不成对的代理字符按'?'计算
+     */
+    protected static int utf8Length(String s) {
+        int length = s.length();
+        int count = length;
+
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                count += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                count += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                count += 2;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * 把字符串按UTF-8编码写入字节数组，调用前需要确保字节数组的容量足够
+     *
+     * @return 写完之后的下一个位置
+     */
+    protected static int encodeUtf8(String s, byte[] bytes, int index) {
+        int length = s.length();
+        int i = 0;
+
+        //ASCII字符是最常见的情况
+        for (char c; i < length && (c = s.charAt(i)) < 0x80; i++) {
+            bytes[index++] = (byte) c;
+        }
+
+        for (; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                bytes[index++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[index++] = (byte) (0xC0 | c >> 6);
+                bytes[index++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                    bytes[index++] = (byte) (0xF0 | codePoint >> 18);
+                    bytes[index++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    bytes[index++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    bytes[index++] = (byte) (0x80 | codePoint & 0x3F);
+                } else {
+                    //和String.getBytes一样，不成对的代理字符替换为'?'
+                    bytes[index++] = '?';
+                }
+            } else {
+                bytes[index++] = (byte) (0xE0 | c >> 12);
+                bytes[index++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[index++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+
+        return index;
+    }
+
     public void writeString(String s, String charset) {
         try {
             writeBytes(s.getBytes(charset));
@@ -313,16 +573,149 @@ public abstract class CodedBuffer {
         }
     }
 
+    /**
+     * 写入定长的小端整数
+     */
+    protected void writeFixed(long n, int size) {
+        for (int shift = 0; shift < size * 8; shift += 8) {
+            writeByte((byte) (n >>> shift));
+        }
+    }
+
+    /**
+     * 写入按位压缩的boolean数组，每个元素占1位，每个字节的低位在前
+     */
+    public void writeBools(boolean[] array) {
+        onWrite(5 + (array.length + 7) / 8);
+        writeInt(array.length);
+        for (int i = 0; i < array.length; i += 8) {
+            int b = 0;
+            for (int j = i, end = Math.min(i + 8, array.length); j < end; j++) {
+                if (array[j]) {
+                    b |= 1 << (j - i);
+                }
+            }
+            writeByte((byte) b);
+        }
+    }
+
+    /**
+     * 写入short数组，每个元素采用变长编码
+     */
+    public void writeShorts(short[] array) {
+        onWrite(5 + array.length * 3);
+        writeInt(array.length);
+        for (short v : array) {
+            writeShort(v);
+        }
+    }
+
+    /**
+     * 写入short数组，每个元素固定占2个字节
+     */
+    public void writeFixedShorts(short[] array) {
+        onWrite(5 + array.length * 2);
+        writeInt(array.length);
+        for (short v : array) {
+            writeFixed(v, 2);
+        }
+    }
+
+    /**
+     * 写入int数组，每个元素采用变长编码
+     */
+    public void writeInts(int[] array) {
+        onWrite(5 + array.length * 5);
+        writeInt(array.length);
+        for (int v : array) {
+            writeInt(v);
+        }
+    }
+
+    /**
+     * 写入int数组，每个元素固定占4个字节
+     */
+    public void writeFixedInts(int[] array) {
+        onWrite(5 + array.length * 4);
+        writeInt(array.length);
+        for (int v : array) {
+            writeFixed(v, 4);
+        }
+    }
+
+    /**
+     * 写入long数组，每个元素采用变长编码
+     */
+    public void writeLongs(long[] array) {
+        onWrite(5 + array.length * 10);
+        writeInt(array.length);
+        for (long v : array) {
+            writeLong(v);
+        }
+    }
+
+    /**
+     * 写入long数组，每个元素固定占8个字节
+     */
+    public void writeFixedLongs(long[] array) {
+        onWrite(5 + array.length * 8);
+        writeInt(array.length);
+        for (long v : array) {
+            writeFixed(v, 8);
+        }
+    }
+
+    /**
+     * 写入float数组，每个元素固定占4个字节，和{@link #writeFloat(float)}的编码一致
+     */
+    public void writeFloats(float[] array) {
+        onWrite(5 + array.length * 4);
+        writeInt(array.length);
+        for (float v : array) {
+            writeFixed(Float.floatToIntBits(v), 4);
+        }
+    }
+
+    /**
+     * 写入double数组，每个元素固定占8个字节，和{@link #writeDouble(double)}的编码一致
+     */
+    public void writeDoubles(double[] array) {
+        onWrite(5 + array.length * 8);
+        writeInt(array.length);
+        for (double v : array) {
+            writeFixed(Double.doubleToLongBits(v), 8);
+        }
+    }
+
+    /**
+     * 计算整数采用ZigZag和VarInt编码之后的字节数
+     */
+    public static int varIntSize(long n) {
+        n = (n << 1) ^ (n >> 63);
+        return (63 - Long.numberOfLeadingZeros(n | 1)) / 7 + 1;
+    }
+
+    /**
+     * 获取临时缓冲区，写完之后需要调用{@link #writeTemp()}
+     */
     public CodedBuffer getTemp() {
         if (temp == null) {
-            temp = new DefaultCodedBuffer();
+            temp = CodedBufferPool.lease();
         }
         return temp;
     }
 
+    /**
+     * 把临时缓冲区的数据写入当前缓冲区，从缓冲池租用的临时缓冲区会被归还，子类自己创建的临时缓冲区清空之后留着复用
+     */
     public void writeTemp() {
         writeBuffer(temp);
-        temp.clear();
+        if (CodedBufferPool.isPooled(temp)) {
+            CodedBufferPool.recycle(temp);
+            temp = null;
+        } else {
+            temp.clear();
+        }
     }
 
 }
@@ -0,0 +1,147 @@
+package basic.message;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程本地的{@link CodedBuffer}缓冲池，按容量分级缓存{@link DefaultCodedBuffer}<br/>
+ * 通过{@link #lease(int)}租用的缓冲区用完之后必须通过{@link #recycle(CodedBuffer)}显式归还，归还之后不能再使用
+ */
+public class CodedBufferPool {
+
+    /**
+     * 各级缓冲区的容量
+     */
+    private static final int[] capacities = {128, 1024, 8 * 1024, 64 * 1024};
+
+    /**
+     * 每一级最多缓存的缓冲区数量
+     */
+    private static final int maxCount = 8;
+
+    private static final ThreadLocal<CodedBufferPool> threadLocal = ThreadLocal.withInitial(CodedBufferPool::new);
+
+    private static final LongAdder hitCount = new LongAdder();
+
+    private static final LongAdder missCount = new LongAdder();
+
+    private final ArrayDeque<PooledBuffer>[] buffers;
+
+    @SuppressWarnings("unchecked")
+    private CodedBufferPool() {
+        buffers = (ArrayDeque<PooledBuffer>[]) new ArrayDeque<?>[capacities.length];
+        for (int i = 0; i < capacities.length; i++) {
+            buffers[i] = new ArrayDeque<>(maxCount);
+        }
+    }
+
+    /**
+     * 租用一个最小级别的缓冲区
+     */
+    public static DefaultCodedBuffer lease() {
+        return lease(capacities[0]);
+    }
+
+    /**
+     * 租用一个容量不小于指定值的缓冲区，超过最大级别容量时不会被缓存
+     */
+    public static DefaultCodedBuffer lease(int capacity) {
+        int level = 0;
+        while (level < capacities.length && capacities[level] < capacity) {
+            level++;
+        }
+
+        if (level == capacities.length) {
+            missCount.increment();
+            return new DefaultCodedBuffer(capacity);
+        }
+
+        PooledBuffer buffer = threadLocal.get().buffers[level].pollLast();
+        if (buffer == null) {
+            missCount.increment();
+            buffer = new PooledBuffer(capacities[level]);
+        } else {
+            hitCount.increment();
+        }
+
+        buffer.leased = true;
+        return buffer;
+    }
+
+    /**
+     * 归还缓冲区，非缓冲池创建的缓冲区会被直接释放
+     */
+    public static void recycle(CodedBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+
+        if (buffer.temp != null) {
+            recycle(buffer.temp);
+            buffer.temp = null;
+        }
+
+        if (!(buffer instanceof PooledBuffer)) {
+            buffer.release();
+            return;
+        }
+
+        PooledBuffer pooledBuffer = (PooledBuffer) buffer;
+        if (!pooledBuffer.leased) {
+            //重复归还
+            return;
+        }
+        pooledBuffer.leased = false;
+
+        //扩容过的缓冲区按实际容量降级缓存，超过最大级别容量的直接丢弃
+        int capacity = pooledBuffer.capacity();
+        int level = capacities.length - 1;
+        if (capacity > capacities[level]) {
+            return;
+        }
+        while (level >= 0 && capacities[level] > capacity) {
+            level--;
+        }
+        if (level < 0) {
+            return;
+        }
+
+        ArrayDeque<PooledBuffer> levelBuffers = threadLocal.get().buffers[level];
+        if (levelBuffers.size() < maxCount) {
+            pooledBuffer.clear();
+            levelBuffers.offerLast(pooledBuffer);
+        }
+    }
+
+    /**
+     * 是否是从缓冲池租用的缓冲区
+     */
+    static boolean isPooled(CodedBuffer buffer) {
+        return buffer instanceof PooledBuffer;
+    }
+
+    /**
+     * 租用时直接从缓冲池中取到缓冲区的次数
+     */
+    public static long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 租用时需要新建缓冲区的次数
+     */
+    public static long getMissCount() {
+        return missCount.sum();
+    }
+
+    private static class PooledBuffer extends DefaultCodedBuffer {
+
+        private boolean leased;
+
+        PooledBuffer(int capacity) {
+            super(capacity);
+        }
+
+    }
+
+}
@@ -1,6 +1,10 @@
 package basic.message;
 
+import basic.exception.MalformedFrameException;
+
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.Function;
 
 /**
  * 直接使用字节数组实现的{@link CodedBuffer}
@@ -24,6 +28,11 @@ public class DefaultCodedBuffer extends CodedBuffer {
      */
     private int markedIndex;
 
+    /**
+     * 是否处于信任模式，参考{@link #readTrusted(Function)}
+     */
+    private boolean trusted;
+
     public DefaultCodedBuffer() {
         this(128);
     }
@@ -85,11 +94,12 @@ public class DefaultCodedBuffer extends CodedBuffer {
         readIndex += readableCount;
     }
 
+    /**
+     * 在原有数组上移动未读的数据，不会重新分配数组
+     */
     @Override
     public void discardReadBytes() {
-        byte[] newBytes = new byte[capacity() - readIndex];
-        System.arraycopy(bytes, readIndex, newBytes, 0, newBytes.length);
-        bytes = newBytes;
+        System.arraycopy(bytes, readIndex, bytes, 0, writeIndex - readIndex);
         writeIndex -= readIndex;
         readIndex = 0;
     }
@@ -99,6 +109,128 @@ public class DefaultCodedBuffer extends CodedBuffer {
         return bytes[readIndex++];
     }
 
+    /**
+     * 直接在字节数组上解码，边界只在开始时确定一次
+     */
+    @Override
+    protected long readVarInt(int maxCount) {
+        if (trusted) {
+            return readTrustedVarInt(maxCount);
+        }
+
+        final byte[] bytes = this.bytes;
+        int index = readIndex;
+
+        //单字节是最常见的情况
+        if (index < writeIndex) {
+            final byte b = bytes[index];
+            if (b >= 0) {
+                readIndex = index + 1;
+                return (b >>> 1) ^ -(b & 1);
+            }
+        }
+
+        final int limit = Math.min(writeIndex, index + maxCount);
+        long temp = 0;
+        int shift = 0;
+
+        while (index < limit) {
+            final byte b = bytes[index++];
+            temp |= (b & 0x7FL) << shift;
+            if (b >= 0) {
+                readIndex = index;
+                //ZigZag解码
+                return (temp >>> 1) ^ -(temp & 1);
+            }
+            shift += 7;
+        }
+
+        if (index - readIndex < maxCount) {
+            throw readError(index - readIndex + 1, readableCount());
+        }
+        throw new MalformedFrameException("读数据出错");
+    }
+
+    /**
+     * 信任模式下解码，只受数组本身的边界约束
+     */
+    private long readTrustedVarInt(int maxCount) {
+        final byte[] bytes = this.bytes;
+        final int start = readIndex;
+        int index = start;
+        long temp = 0;
+        int shift = 0;
+
+        do {
+            final byte b = bytes[index++];
+            temp |= (b & 0x7FL) << shift;
+            if (b >= 0) {
+                readIndex = index;
+                //ZigZag解码
+                return (temp >>> 1) ^ -(temp & 1);
+            }
+            shift += 7;
+        } while (index - start < maxCount);
+
+        throw new MalformedFrameException("读数据出错");
+    }
+
+    /**
+     * 信任模式下读数据时不再逐个检查写位置，只在整帧读完之后检查一次有没有越过写位置
+     */
+    @Override
+    public <T> T readTrusted(Function<? super CodedBuffer, T> reader) {
+        if (trusted) {
+            return reader.apply(this);
+        }
+
+        trusted = true;
+        try {
+            T result = super.readTrusted(reader);
+            if (readIndex > writeIndex) {
+                throw readError(readIndex - writeIndex, 0);
+            }
+            return result;
+        } finally {
+            trusted = false;
+        }
+    }
+
+    /**
+     * 信任模式下长度只和数组本身的边界比较，不再检查写位置，保证不会按错误的长度分配过大的数组
+     */
+    @Override
+    protected int readLength(int unitSize) {
+        if (!trusted) {
+            return super.readLength(unitSize);
+        }
+        int length = readInt();
+        if (length < 0 || (long) length * unitSize > bytes.length - readIndex) {
+            throw readError((int) Math.min((long) length * unitSize, Integer.MAX_VALUE), readableCount());
+        }
+        return length;
+    }
+
+    @Override
+    public float readFloat() {
+        int index = readIndex;
+        if (!trusted && writeIndex - index < 4) {
+            throw readError(4, readableCount());
+        }
+        readIndex = index + 4;
+        return Float.intBitsToFloat(getIntLE(bytes, index));
+    }
+
+    @Override
+    public double readDouble() {
+        int index = readIndex;
+        if (!trusted && writeIndex - index < 8) {
+            throw readError(8, readableCount());
+        }
+        readIndex = index + 8;
+        return Double.longBitsToDouble(getLongLE(bytes, index));
+    }
+
     @Override
     protected byte[] readBytes(int length) {
         byte[] bytes = new byte[length];
@@ -118,6 +250,25 @@ public class DefaultCodedBuffer extends CodedBuffer {
         readIndex += length;
     }
 
+    /**
+     * 直接在字节数组上解码，不需要先复制出字节数组
+     */
+    @Override
+    public String readString() {
+        int length = readLength();
+        int index = readIndex;
+        readIndex = index + length;
+        return decodeString(bytes, index, length);
+    }
+
+    @Override
+    public String readAscii(int length) {
+        onRead(length);
+        int index = readIndex;
+        readIndex = index + length;
+        return decodeString(bytes, index, length);
+    }
+
     @Override
     protected void onWrite(int minCount) {
         if (writeIndex + minCount < capacity()) {
@@ -138,11 +289,76 @@ public class DefaultCodedBuffer extends CodedBuffer {
         this.bytes = newBytes;
     }
 
+    /**
+     * 单字节写入也需要检查容量，紧凑格式的头字节、标签等都是逐个字节写入的
+     */
     @Override
     public void writeByte(byte b) {
+        onWrite(1);
         bytes[writeIndex++] = b;
     }
 
+    @Override
+    protected void writeVarInt(long n) {
+        onWrite(10);
+        writeIndex = putVarInt(bytes, writeIndex, n);
+    }
+
+    /**
+     * 把整数编码写入字节数组，调用前需要确保字节数组的容量足够
+     *
+     * @return 写完之后的下一个位置
+     */
+    static int putVarInt(byte[] bytes, int index, long n) {
+        //ZigZag编码
+        n = (n << 1) ^ (n >> 63);
+
+        while ((n & ~0x7FL) != 0) {
+            bytes[index++] = (byte) (n & 0x7F | 0x80);
+            n >>>= 7;
+        }
+        bytes[index++] = (byte) n;
+
+        return index;
+    }
+
+    @Override
+    public void writeFloat(float n) {
+        onWrite(4);
+        putIntLE(bytes, writeIndex, Float.floatToIntBits(n));
+        writeIndex += 4;
+    }
+
+    @Override
+    public void writeDouble(double n) {
+        onWrite(8);
+        putLongLE(bytes, writeIndex, Double.doubleToLongBits(n));
+        writeIndex += 8;
+    }
+
+    static int getIntLE(byte[] bytes, int index) {
+        return bytes[index] & 0xFF
+                | (bytes[index + 1] & 0xFF) << 8
+                | (bytes[index + 2] & 0xFF) << 16
+                | (bytes[index + 3] & 0xFF) << 24;
+    }
+
+    static long getLongLE(byte[] bytes, int index) {
+        return getIntLE(bytes, index) & 0xFFFFFFFFL | (long) getIntLE(bytes, index + 4) << 32;
+    }
+
+    static void putIntLE(byte[] bytes, int index, int n) {
+        bytes[index] = (byte) n;
+        bytes[index + 1] = (byte) (n >>> 8);
+        bytes[index + 2] = (byte) (n >>> 16);
+        bytes[index + 3] = (byte) (n >>> 24);
+    }
+
+    static void putLongLE(byte[] bytes, int index, long n) {
+        putIntLE(bytes, index, (int) n);
+        putIntLE(bytes, index + 4, (int) (n >>> 32));
+    }
+
     @Override
     public void writeBytes(byte[] bytes) {
         onWrite(10 + bytes.length);
@@ -151,6 +367,208 @@ public class DefaultCodedBuffer extends CodedBuffer {
         writeIndex += bytes.length;
     }
 
+    /**
+     * 直接编码到字节数组中，不需要中间的字节数组
+     */
+    @Override
+    public void writeString(String s) {
+        int length = utf8Length(s);
+        onWrite(10 + length);
+        writeInt(length);
+        writeIndex = encodeUtf8(s, bytes, writeIndex);
+    }
+
+    @Override
+    public void writeAscii(String s) {
+        int length = s.length();
+        onWrite(length);
+        final byte[] bytes = this.bytes;
+        int index = writeIndex;
+        for (int i = 0; i < length; i++) {
+            bytes[index++] = (byte) s.charAt(i);
+        }
+        writeIndex = index;
+    }
+
+    /**
+     * 以小端模式包装字节数组中的一段，用于整块复制原生类型数组
+     */
+    private ByteBuffer view(int index, int length) {
+        return ByteBuffer.wrap(bytes, index, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public boolean[] readBools() {
+        boolean[] array = new boolean[readBitsLength()];
+        final byte[] bytes = this.bytes;
+        int index = readIndex;
+        int i = 0;
+
+        //每次处理完整的一个字节
+        for (int end = array.length & ~7; i < end; i += 8) {
+            int b = bytes[index++];
+            array[i] = (b & 1) != 0;
+            array[i + 1] = (b & 2) != 0;
+            array[i + 2] = (b & 4) != 0;
+            array[i + 3] = (b & 8) != 0;
+            array[i + 4] = (b & 16) != 0;
+            array[i + 5] = (b & 32) != 0;
+            array[i + 6] = (b & 64) != 0;
+            array[i + 7] = (b & 128) != 0;
+        }
+
+        if (i < array.length) {
+            int b = bytes[index++];
+            for (int j = i; j < array.length; j++) {
+                array[j] = (b & 1 << (j - i)) != 0;
+            }
+        }
+
+        readIndex = index;
+        return array;
+    }
+
+    @Override
+    public short[] readFixedShorts() {
+        short[] array = new short[readLength(2)];
+        view(readIndex, array.length * 2).asShortBuffer().get(array);
+        readIndex += array.length * 2;
+        return array;
+    }
+
+    @Override
+    public int[] readFixedInts() {
+        int[] array = new int[readLength(4)];
+        view(readIndex, array.length * 4).asIntBuffer().get(array);
+        readIndex += array.length * 4;
+        return array;
+    }
+
+    @Override
+    public long[] readFixedLongs() {
+        long[] array = new long[readLength(8)];
+        view(readIndex, array.length * 8).asLongBuffer().get(array);
+        readIndex += array.length * 8;
+        return array;
+    }
+
+    @Override
+    public float[] readFloats() {
+        float[] array = new float[readLength(4)];
+        view(readIndex, array.length * 4).asFloatBuffer().get(array);
+        readIndex += array.length * 4;
+        return array;
+    }
+
+    @Override
+    public double[] readDoubles() {
+        double[] array = new double[readLength(8)];
+        view(readIndex, array.length * 8).asDoubleBuffer().get(array);
+        readIndex += array.length * 8;
+        return array;
+    }
+
+    @Override
+    public void writeBools(boolean[] array) {
+        onWrite(5 + (array.length + 7) / 8);
+        final byte[] bytes = this.bytes;
+        int index = putVarInt(bytes, writeIndex, array.length);
+        int i = 0;
+
+        for (int end = array.length & ~7; i < end; i += 8) {
+            bytes[index++] = (byte) ((array[i] ? 1 : 0)
+                    | (array[i + 1] ? 2 : 0)
+                    | (array[i + 2] ? 4 : 0)
+                    | (array[i + 3] ? 8 : 0)
+                    | (array[i + 4] ? 16 : 0)
+                    | (array[i + 5] ? 32 : 0)
+                    | (array[i + 6] ? 64 : 0)
+                    | (array[i + 7] ? 128 : 0));
+        }
+
+        if (i < array.length) {
+            int b = 0;
+            for (int j = i; j < array.length; j++) {
+                if (array[j]) {
+                    b |= 1 << (j - i);
+                }
+            }
+            bytes[index++] = (byte) b;
+        }
+
+        writeIndex = index;
+    }
+
+    @Override
+    public void writeShorts(short[] array) {
+        onWrite(5 + array.length * 3);
+        int index = putVarInt(bytes, writeIndex, array.length);
+        for (short v : array) {
+            index = putVarInt(bytes, index, v);
+        }
+        writeIndex = index;
+    }
+
+    @Override
+    public void writeFixedShorts(short[] array) {
+        onWrite(5 + array.length * 2);
+        writeInt(array.length);
+        view(writeIndex, array.length * 2).asShortBuffer().put(array);
+        writeIndex += array.length * 2;
+    }
+
+    @Override
+    public void writeInts(int[] array) {
+        onWrite(5 + array.length * 5);
+        int index = putVarInt(bytes, writeIndex, array.length);
+        for (int v : array) {
+            index = putVarInt(bytes, index, v);
+        }
+        writeIndex = index;
+    }
+
+    @Override
+    public void writeFixedInts(int[] array) {
+        onWrite(5 + array.length * 4);
+        writeInt(array.length);
+        view(writeIndex, array.length * 4).asIntBuffer().put(array);
+        writeIndex += array.length * 4;
+    }
+
+    @Override
+    public void writeLongs(long[] array) {
+        onWrite(5 + array.length * 10);
+        int index = putVarInt(bytes, writeIndex, array.length);
+        for (long v : array) {
+            index = putVarInt(bytes, index, v);
+        }
+        writeIndex = index;
+    }
+
+    @Override
+    public void writeFixedLongs(long[] array) {
+        onWrite(5 + array.length * 8);
+        writeInt(array.length);
+        view(writeIndex, array.length * 8).asLongBuffer().put(array);
+        writeIndex += array.length * 8;
+    }
+
+    @Override
+    public void writeFloats(float[] array) {
+        onWrite(5 + array.length * 4);
+        writeInt(array.length);
+        view(writeIndex, array.length * 4).asFloatBuffer().put(array);
+        writeIndex += array.length * 4;
+    }
+
+    @Override
+    public void writeDoubles(double[] array) {
+        onWrite(5 + array.length * 8);
+        writeInt(array.length);
+        view(writeIndex, array.length * 8).asDoubleBuffer().put(array);
+        writeIndex += array.length * 8;
+    }
+
     @Override
     public void writeBuffer(CodedBuffer buffer) {
         if (!(buffer instanceof DefaultCodedBuffer)) {
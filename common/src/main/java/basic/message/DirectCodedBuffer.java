@@ -0,0 +1,409 @@
+package basic.message;
+
+import basic.exception.MalformedFrameException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.internal.PlatformDependent;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 使用堆外内存实现的{@link CodedBuffer}，适合很大的数据，用完之后必须调用{@link #release()}释放内存<br/>
+ * 通过{@link #toByteBuf()}可以不经复制直接交给Netty发送<br/>
+ * 这是独立使用的工具类，协议和消息的发送路径不会用到它：编解码器直接编码到通道分配的{@link ByteBuf}中，那里通常已经是池化的堆外内存。
+ * 适合在编解码器之外预先编码好、需要多次发送或者长期持有的大块数据
+ */
+public class DirectCodedBuffer extends CodedBuffer {
+
+    private ByteBuffer buffer;
+
+    /**
+     * 下一个读的位置,该位置的数据还未读
+     */
+    private int readIndex;
+
+    /**
+     * 下一个写的位置,该位置还未写数据
+     */
+    private int writeIndex;
+
+    /**
+     * 标记的读位置
+     */
+    private int markedIndex;
+
+    public DirectCodedBuffer() {
+        this(8 * 1024);
+    }
+
+    /**
+     * @param capacity 初始容量，扩容时按倍数增长，所以必须是正整数
+     */
+    public DirectCodedBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("容量必须是正整数");
+        }
+        this.buffer = allocate(capacity);
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * 设置读写范围，转换为{@link Buffer}再调用是为了兼容高版本JDK编译的字节码
+     */
+    private static ByteBuffer range(ByteBuffer buffer, int position, int limit) {
+        ((Buffer) buffer).limit(limit);
+        ((Buffer) buffer).position(position);
+        return buffer;
+    }
+
+    private ByteBuffer buffer() {
+        if (buffer == null) {
+            throw new IllegalStateException("缓冲区已经被释放");
+        }
+        return buffer;
+    }
+
+    @Override
+    public int capacity() {
+        return buffer().capacity();
+    }
+
+    @Override
+    public void mark() {
+        markedIndex = readIndex;
+    }
+
+    @Override
+    public void reset() {
+        readIndex = markedIndex;
+    }
+
+    @Override
+    public void clear() {
+        readIndex = 0;
+        writeIndex = 0;
+    }
+
+    /**
+     * 立即释放堆外内存，重复调用不会有影响
+     */
+    @Override
+    public void release() {
+        if (temp != null) {
+            CodedBufferPool.recycle(temp);
+            temp = null;
+        }
+        if (buffer != null) {
+            PlatformDependent.freeDirectBuffer(buffer);
+            buffer = null;
+        }
+    }
+
+    @Override
+    public int readableCount() {
+        return writeIndex - readIndex;
+    }
+
+    @Override
+    public byte[] remainingBytes() {
+        byte[] remainingBytes = new byte[readableCount()];
+        readBytes(remainingBytes, 0, remainingBytes.length);
+        return remainingBytes;
+    }
+
+    @Override
+    public void remainingBytes(byte[] bytes, int startPos) {
+        readBytes(bytes, startPos, readableCount());
+    }
+
+    /**
+     * 在原有内存上移动未读的数据，不会重新分配内存
+     */
+    @Override
+    public void discardReadBytes() {
+        ByteBuffer buffer = buffer();
+        range(buffer, readIndex, writeIndex).compact();
+        range(buffer, 0, buffer.capacity());
+        writeIndex -= readIndex;
+        markedIndex = Math.max(markedIndex - readIndex, 0);
+        readIndex = 0;
+    }
+
+    /**
+     * 把剩余的数据交给Netty，不会复制数据，交出去的数据视为已读<br/>
+     * 返回的{@link ByteBuf}和当前缓冲区共享内存，在其发送完成之前不能释放或者继续写入当前缓冲区，例如：<br/>
+     * {@code channel.writeAndFlush(buffer.toByteBuf()).addListener(f -> buffer.release());}
+     */
+    public ByteBuf toByteBuf() {
+        return Unpooled.wrappedBuffer(readableBuffer());
+    }
+
+    /**
+     * 获取剩余数据的视图，获取之后视为已读
+     */
+    ByteBuffer readableBuffer() {
+        ByteBuffer buffer = buffer();
+        ByteBuffer readableBuffer = range(buffer, readIndex, writeIndex).slice().order(ByteOrder.LITTLE_ENDIAN);
+        range(buffer, 0, buffer.capacity());
+        readIndex = writeIndex;
+        return readableBuffer;
+    }
+
+    /**
+     * 获取指定位置的数据视图，用于整块复制原生类型数组
+     */
+    private ByteBuffer view(int index, int length) {
+        ByteBuffer buffer = buffer();
+        ByteBuffer view = range(buffer, index, index + length).slice().order(ByteOrder.LITTLE_ENDIAN);
+        range(buffer, 0, buffer.capacity());
+        return view;
+    }
+
+    @Override
+    public byte readByte() {
+        if (readIndex >= writeIndex) {
+            throw readError(1, 0);
+        }
+        return buffer().get(readIndex++);
+    }
+
+    /**
+     * 直接在堆外内存上解码，边界只在开始时确定一次
+     */
+    @Override
+    protected long readVarInt(int maxCount) {
+        final ByteBuffer buffer = buffer();
+        final int limit = Math.min(writeIndex, readIndex + maxCount);
+
+        int index = readIndex;
+        long temp = 0;
+        int shift = 0;
+
+        while (index < limit) {
+            final byte b = buffer.get(index++);
+            temp |= (b & 0x7FL) << shift;
+            if (b >= 0) {
+                readIndex = index;
+                //ZigZag解码
+                return (temp >>> 1) ^ -(temp & 1);
+            }
+            shift += 7;
+        }
+
+        if (index - readIndex < maxCount) {
+            throw readError(index - readIndex + 1, readableCount());
+        }
+        throw new MalformedFrameException("读数据出错");
+    }
+
+    @Override
+    public float readFloat() {
+        onRead(4);
+        float n = buffer().getFloat(readIndex);
+        readIndex += 4;
+        return n;
+    }
+
+    @Override
+    public double readDouble() {
+        onRead(8);
+        double n = buffer().getDouble(readIndex);
+        readIndex += 8;
+        return n;
+    }
+
+    @Override
+    protected byte[] readBytes(int length) {
+        byte[] bytes = new byte[length];
+        readBytes(bytes, 0, length);
+        return bytes;
+    }
+
+    @Override
+    protected void readBytes(byte[] bytes, int startPos, int length) {
+        ByteBuffer buffer = buffer();
+        range(buffer, readIndex, writeIndex).get(bytes, startPos, length);
+        range(buffer, 0, buffer.capacity());
+        readIndex += length;
+    }
+
+    @Override
+    protected void skipBytes(int length) {
+        readIndex += length;
+    }
+
+    @Override
+    public short[] readFixedShorts() {
+        short[] array = new short[readLength(2)];
+        view(readIndex, array.length * 2).asShortBuffer().get(array);
+        readIndex += array.length * 2;
+        return array;
+    }
+
+    @Override
+    public int[] readFixedInts() {
+        int[] array = new int[readLength(4)];
+        view(readIndex, array.length * 4).asIntBuffer().get(array);
+        readIndex += array.length * 4;
+        return array;
+    }
+
+    @Override
+    public long[] readFixedLongs() {
+        long[] array = new long[readLength(8)];
+        view(readIndex, array.length * 8).asLongBuffer().get(array);
+        readIndex += array.length * 8;
+        return array;
+    }
+
+    @Override
+    public float[] readFloats() {
+        float[] array = new float[readLength(4)];
+        view(readIndex, array.length * 4).asFloatBuffer().get(array);
+        readIndex += array.length * 4;
+        return array;
+    }
+
+    @Override
+    public double[] readDoubles() {
+        double[] array = new double[readLength(8)];
+        view(readIndex, array.length * 8).asDoubleBuffer().get(array);
+        readIndex += array.length * 8;
+        return array;
+    }
+
+    /**
+     * 容量不够时按倍数扩容，旧的堆外内存会被立即释放
+     */
+    @Override
+    protected void onWrite(int minCount) {
+        ByteBuffer buffer = buffer();
+        int capacity = buffer.capacity();
+        if (writeIndex + minCount < capacity) {
+            return;
+        }
+
+        int newCapacity = capacity;
+        while (writeIndex + minCount >= newCapacity) {
+            newCapacity <<= 1;
+        }
+
+        ByteBuffer newBuffer = allocate(newCapacity);
+        newBuffer.put(range(buffer, 0, writeIndex));
+        range(newBuffer, 0, newCapacity);
+
+        PlatformDependent.freeDirectBuffer(buffer);
+        this.buffer = newBuffer;
+    }
+
+    @Override
+    public void writeByte(byte b) {
+        onWrite(1);
+        buffer.put(writeIndex++, b);
+    }
+
+    @Override
+    protected void writeVarInt(long n) {
+        onWrite(10);
+
+        final ByteBuffer buffer = this.buffer;
+        int index = writeIndex;
+
+        //ZigZag编码
+        n = (n << 1) ^ (n >> 63);
+
+        while ((n & ~0x7FL) != 0) {
+            buffer.put(index++, (byte) (n & 0x7F | 0x80));
+            n >>>= 7;
+        }
+        buffer.put(index++, (byte) n);
+
+        writeIndex = index;
+    }
+
+    @Override
+    public void writeFloat(float n) {
+        onWrite(4);
+        buffer.putFloat(writeIndex, n);
+        writeIndex += 4;
+    }
+
+    @Override
+    public void writeDouble(double n) {
+        onWrite(8);
+        buffer.putDouble(writeIndex, n);
+        writeIndex += 8;
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes) {
+        onWrite(10 + bytes.length);
+        writeInt(bytes.length);
+        range(buffer, writeIndex, buffer.capacity()).put(bytes);
+        range(buffer, 0, buffer.capacity());
+        writeIndex += bytes.length;
+    }
+
+    @Override
+    public void writeBuffer(CodedBuffer buffer) {
+        if (!(buffer instanceof DirectCodedBuffer)) {
+            super.writeBuffer(buffer);
+            return;
+        }
+
+        int readableCount = buffer.readableCount();
+        onWrite(10 + readableCount);
+        writeInt(readableCount);
+
+        range(this.buffer, writeIndex, this.buffer.capacity()).put(((DirectCodedBuffer) buffer).readableBuffer());
+        range(this.buffer, 0, this.buffer.capacity());
+        writeIndex += readableCount;
+    }
+
+    @Override
+    public void writeFixedShorts(short[] array) {
+        onWrite(5 + array.length * 2);
+        writeInt(array.length);
+        view(writeIndex, array.length * 2).asShortBuffer().put(array);
+        writeIndex += array.length * 2;
+    }
+
+    @Override
+    public void writeFixedInts(int[] array) {
+        onWrite(5 + array.length * 4);
+        writeInt(array.length);
+        view(writeIndex, array.length * 4).asIntBuffer().put(array);
+        writeIndex += array.length * 4;
+    }
+
+    @Override
+    public void writeFixedLongs(long[] array) {
+        onWrite(5 + array.length * 8);
+        writeInt(array.length);
+        view(writeIndex, array.length * 8).asLongBuffer().put(array);
+        writeIndex += array.length * 8;
+    }
+
+    @Override
+    public void writeFloats(float[] array) {
+        onWrite(5 + array.length * 4);
+        writeInt(array.length);
+        view(writeIndex, array.length * 4).asFloatBuffer().put(array);
+        writeIndex += array.length * 4;
+    }
+
+    @Override
+    public void writeDoubles(double[] array) {
+        onWrite(5 + array.length * 8);
+        writeInt(array.length);
+        view(writeIndex, array.length * 8).asDoubleBuffer().put(array);
+        writeIndex += array.length * 8;
+    }
+
+}
@@ -0,0 +1,38 @@
+package basic.message;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 在后台线程把编码后的消息转成JSON，用于审计日志和调试网关等不在业务线程上输出JSON的场景<br/>
+ * 提交时先把数据复制出来，提交之后原来的缓冲区可以立即回收
+ *
+ * @see MessageRegistry#toJson(CodedBuffer)
+ */
+public class JsonTranscoder {
+
+    private final MessageRegistry registry;
+
+    private final Executor executor;
+
+    public JsonTranscoder(MessageRegistry registry, Executor executor) {
+        this.registry = Objects.requireNonNull(registry, "参数[registry]不能为空");
+        this.executor = Objects.requireNonNull(executor, "参数[executor]不能为空");
+    }
+
+    /**
+     * 复制缓冲区中剩余的数据并在后台转换，缓冲区的数据会被读完
+     */
+    public CompletableFuture<String> transcode(CodedBuffer buffer) {
+        return transcode(buffer.remainingBytes());
+    }
+
+    /**
+     * 在后台转换，提交之后不能再修改字节数组
+     */
+    public CompletableFuture<String> transcode(byte[] bytes) {
+        return CompletableFuture.supplyAsync(() -> registry.toJson(new DefaultCodedBuffer(bytes)), executor);
+    }
+
+}
@@ -0,0 +1,226 @@
+package basic.message;
+
+import java.util.Base64;
+
+/**
+ * 流式写入JSON，不使用反射，逗号由写入器自动处理<br/>
+ * 通过{@link #lease()}租用线程本地复用的写入器，用完之后必须通过{@link #recycle(JsonWriter)}归还
+ */
+public class JsonWriter {
+
+    /**
+     * 归还时保留的最大容量，超过时丢弃内部的StringBuilder，避免偶尔的大消息长期占用内存
+     */
+    private static final int maxRetainedCapacity = 64 * 1024;
+
+    private static final ThreadLocal<JsonWriter> threadLocal = ThreadLocal.withInitial(JsonWriter::new);
+
+    private static final char[] hexDigits = "0123456789abcdef".toCharArray();
+
+    private StringBuilder builder = new StringBuilder(256);
+
+    /**
+     * 下一个名字或者值之前是否需要写入逗号
+     */
+    private boolean comma;
+
+    /**
+     * 线程本地的写入器是否正在使用，嵌套调用时创建新的写入器
+     */
+    private boolean leased;
+
+    public static JsonWriter lease() {
+        JsonWriter writer = threadLocal.get();
+        if (writer.leased) {
+            return new JsonWriter();
+        }
+        writer.leased = true;
+        return writer;
+    }
+
+    public static void recycle(JsonWriter writer) {
+        if (!writer.leased) {
+            return;
+        }
+        writer.leased = false;
+        writer.comma = false;
+        if (writer.builder.capacity() > maxRetainedCapacity) {
+            writer.builder = new StringBuilder(256);
+        } else {
+            writer.builder.setLength(0);
+        }
+    }
+
+    private void separate() {
+        if (comma) {
+            builder.append(',');
+        }
+        comma = true;
+    }
+
+    public JsonWriter beginObject() {
+        separate();
+        builder.append('{');
+        comma = false;
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        builder.append('}');
+        comma = true;
+        return this;
+    }
+
+    public JsonWriter beginArray() {
+        separate();
+        builder.append('[');
+        comma = false;
+        return this;
+    }
+
+    public JsonWriter endArray() {
+        builder.append(']');
+        comma = true;
+        return this;
+    }
+
+    /**
+     * 写入对象的字段名，后面必须紧跟一个值
+     */
+    public JsonWriter name(String name) {
+        separate();
+        appendString(name);
+        builder.append(':');
+        comma = false;
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        separate();
+        builder.append(value);
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        separate();
+        builder.append(value);
+        return this;
+    }
+
+    /**
+     * float按自身的精度转成字符串，不提升成double，否则1.1会写成1.100000023841858<br/>
+     * NaN和无穷大不是合法的JSON数字，写入null
+     */
+    public JsonWriter value(float value) {
+        separate();
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            builder.append("null");
+        } else {
+            builder.append(Float.toString(value));
+        }
+        return this;
+    }
+
+    /**
+     * NaN和无穷大不是合法的JSON数字，写入null
+     */
+    public JsonWriter value(double value) {
+        separate();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            builder.append("null");
+        } else {
+            builder.append(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(String value) {
+        separate();
+        if (value == null) {
+            builder.append("null");
+        } else {
+            appendString(value);
+        }
+        return this;
+    }
+
+    /**
+     * 字节数组写成Base64字符串
+     */
+    public JsonWriter value(byte[] value) {
+        separate();
+        if (value == null) {
+            builder.append("null");
+        } else {
+            builder.append('"').append(Base64.getEncoder().encodeToString(value)).append('"');
+        }
+        return this;
+    }
+
+    public JsonWriter value(Bean value) {
+        if (value == null) {
+            return nullValue();
+        }
+        value.writeJson(this);
+        return this;
+    }
+
+    public JsonWriter nullValue() {
+        separate();
+        builder.append("null");
+        return this;
+    }
+
+    /**
+     * 直接写入已经是JSON格式的值
+     */
+    public JsonWriter rawValue(String json) {
+        separate();
+        builder.append(json);
+        return this;
+    }
+
+    private void appendString(String s) {
+        builder.append('"');
+        int start = 0;
+        for (int i = 0, length = s.length(); i < length; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            builder.append(s, start, i);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    builder.append("\\u00").append(hexDigits[c >> 4]).append(hexDigits[c & 0xF]);
+            }
+        }
+        builder.append(s, start, s.length());
+        builder.append('"');
+    }
+
+    public int length() {
+        return builder.length();
+    }
+
+    @Override
+    public String toString() {
+        return builder.toString();
+    }
+
+}
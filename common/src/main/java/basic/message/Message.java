@@ -22,10 +22,25 @@ public abstract class Message extends Bean {
 
     @Override
     public void decode(CodedBuffer buffer) {
+        checkId(buffer, getId());
+    }
+
+    protected static int checkId(CodedBuffer buffer, int id) {
         int msgId = buffer.readInt();
-        if (msgId != getId()) {
-            throw new RuntimeException(String.format("消息ID不匹配,期望值[%s],实际值[%s]", getId(), msgId));
+        if (msgId != id) {
+            throw new RuntimeException(String.format("消息ID不匹配,期望值[%s],实际值[%s]", id, msgId));
         }
+        return msgId;
+    }
+
+    /**
+     * 把编码后的消息转成JSON，生成的消息会覆盖这个方法，不创建消息对象直接转换，默认先解码再转换<br/>
+     * 不依赖对象的状态，通过注册的消息原型调用
+     */
+    public void writeJson(CodedBuffer buffer, JsonWriter writer) {
+        Message message = create();
+        message.decode(buffer);
+        message.writeJson(writer);
     }
 
 }
@@ -67,4 +67,25 @@ public class MessageRegistry {
         return message.create();
     }
 
+    /**
+     * 不创建消息对象，把编码后的消息直接转成JSON，注册完成之后可以在任意线程调用
+     */
+    public String toJson(CodedBuffer buffer) {
+        buffer.mark();
+        int msgId = buffer.readInt();
+        buffer.reset();
+        Message message = id2Messages.get(msgId);
+        if (message == null) {
+            throw new IllegalArgumentException("消息ID[" + msgId + "]不存在");
+        }
+
+        JsonWriter writer = JsonWriter.lease();
+        try {
+            message.writeJson(buffer, writer);
+            return writer.toString();
+        } finally {
+            JsonWriter.recycle(writer);
+        }
+    }
+
 }
@@ -1,12 +1,24 @@
 package basic.message;
 
+import basic.exception.MalformedFrameException;
+
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 
 /**
  * 使用Netty的{@link ByteBuf}实现的{@link CodedBuffer}
  */
 public class NettyCodedBuffer extends CodedBuffer {
 
+    /**
+     * 临时缓冲区每一块的大小
+     */
+    private static final int TEMP_CHUNK_SIZE = 1024;
+
     private final ByteBuf buf;
 
     public NettyCodedBuffer(ByteBuf buf) {
@@ -72,6 +84,62 @@ public class NettyCodedBuffer extends CodedBuffer {
         return buf.readByte();
     }
 
+    /**
+     * 有字节数组时直接在数组上解码，否则按索引读取，边界只在开始时确定一次
+     */
+    @Override
+    protected long readVarInt(int maxCount) {
+        final ByteBuf buf = this.buf;
+        final int readerIndex = buf.readerIndex();
+        final int limit = Math.min(buf.writerIndex(), readerIndex + maxCount);
+
+        int index = readerIndex;
+        long temp = 0;
+        int shift = 0;
+
+        if (buf.hasArray()) {
+            final byte[] array = buf.array();
+            final int offset = buf.arrayOffset();
+            while (index < limit) {
+                final byte b = array[offset + index++];
+                temp |= (b & 0x7FL) << shift;
+                if (b >= 0) {
+                    buf.readerIndex(index);
+                    //ZigZag解码
+                    return (temp >>> 1) ^ -(temp & 1);
+                }
+                shift += 7;
+            }
+        } else {
+            while (index < limit) {
+                final byte b = buf.getByte(index++);
+                temp |= (b & 0x7FL) << shift;
+                if (b >= 0) {
+                    buf.readerIndex(index);
+                    return (temp >>> 1) ^ -(temp & 1);
+                }
+                shift += 7;
+            }
+        }
+
+        if (index - readerIndex < maxCount) {
+            throw readError(index - readerIndex + 1, readableCount());
+        }
+        throw new MalformedFrameException("读数据出错");
+    }
+
+    @Override
+    public float readFloat() {
+        onRead(4);
+        return Float.intBitsToFloat(buf.readIntLE());
+    }
+
+    @Override
+    public double readDouble() {
+        onRead(8);
+        return Double.longBitsToDouble(buf.readLongLE());
+    }
+
     @Override
     protected byte[] readBytes(int length) {
         byte[] bytes = new byte[length];
@@ -89,19 +157,274 @@ public class NettyCodedBuffer extends CodedBuffer {
         buf.skipBytes(length);
     }
 
+    /**
+     * 有字节数组时直接在数组上解码，否则由{@link ByteBuf}解码，都不需要先复制出字节数组
+     */
+    @Override
+    public String readString() {
+        int length = readLength();
+        final ByteBuf buf = this.buf;
+        final int index = buf.readerIndex();
+
+        String s;
+        if (buf.hasArray()) {
+            s = decodeString(buf.array(), buf.arrayOffset() + index, length);
+        } else {
+            s = buf.toString(index, length, StandardCharsets.UTF_8);
+        }
+
+        buf.readerIndex(index + length);
+        return s;
+    }
+
     @Override
     public void writeByte(byte b) {
         buf.writeByte(b);
     }
 
+    @Override
+    protected void writeVarInt(long n) {
+        final ByteBuf buf = this.buf;
+        buf.ensureWritable(10);
+        int index = buf.writerIndex();
+
+        //ZigZag编码
+        n = (n << 1) ^ (n >> 63);
+
+        if (buf.hasArray()) {
+            final byte[] array = buf.array();
+            final int offset = buf.arrayOffset();
+            while ((n & ~0x7FL) != 0) {
+                array[offset + index++] = (byte) (n & 0x7F | 0x80);
+                n >>>= 7;
+            }
+            array[offset + index++] = (byte) n;
+        } else {
+            while ((n & ~0x7FL) != 0) {
+                buf.setByte(index++, (int) (n & 0x7F | 0x80));
+                n >>>= 7;
+            }
+            buf.setByte(index++, (int) n);
+        }
+
+        buf.writerIndex(index);
+    }
+
+    @Override
+    public void writeFloat(float n) {
+        buf.writeIntLE(Float.floatToIntBits(n));
+    }
+
+    @Override
+    public void writeDouble(double n) {
+        buf.writeLongLE(Double.doubleToLongBits(n));
+    }
+
     @Override
     public void writeBytes(byte[] bytes) {
         writeInt(bytes.length);
         buf.writeBytes(bytes);
     }
 
+    /**
+     * 直接编码到{@link ByteBuf}中，不需要中间的字节数组
+     */
+    @Override
+    public void writeString(String s) {
+        int length = utf8Length(s);
+        writeInt(length);
+
+        final ByteBuf buf = this.buf;
+        if (buf.hasArray()) {
+            buf.ensureWritable(length);
+            int index = buf.writerIndex();
+            int offset = buf.arrayOffset();
+            buf.writerIndex(encodeUtf8(s, buf.array(), offset + index) - offset);
+        } else {
+            ByteBufUtil.reserveAndWriteUtf8(buf, s, length);
+        }
+    }
+
+    /**
+     * 以小端模式获取和{@link ByteBuf}共享内存的{@link ByteBuffer}，用于整块复制原生类型数组，不能共享时返回null<br/>
+     * {@link ByteBuf#nioBuffer(int, int)}不保证共享内存，写入的数据可能丢失，所以只在只有一个底层缓冲区时使用{@link ByteBuf#internalNioBuffer(int, int)}
+     */
+    private ByteBuffer view(int index, int length) {
+        if (buf.nioBufferCount() != 1 || buf.isReadOnly()) {
+            return null;
+        }
+        try {
+            //复制一份再修改字节顺序，不影响ByteBuf内部使用的对象
+            return buf.internalNioBuffer(index, length).duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public short[] readFixedShorts() {
+        short[] array = new short[readLength(2)];
+        ByteBuffer view = view(buf.readerIndex(), array.length * 2);
+        if (view != null) {
+            view.asShortBuffer().get(array);
+            buf.skipBytes(array.length * 2);
+        } else {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = buf.readShortLE();
+            }
+        }
+        return array;
+    }
+
+    @Override
+    public int[] readFixedInts() {
+        int[] array = new int[readLength(4)];
+        ByteBuffer view = view(buf.readerIndex(), array.length * 4);
+        if (view != null) {
+            view.asIntBuffer().get(array);
+            buf.skipBytes(array.length * 4);
+        } else {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = buf.readIntLE();
+            }
+        }
+        return array;
+    }
+
+    @Override
+    public long[] readFixedLongs() {
+        long[] array = new long[readLength(8)];
+        ByteBuffer view = view(buf.readerIndex(), array.length * 8);
+        if (view != null) {
+            view.asLongBuffer().get(array);
+            buf.skipBytes(array.length * 8);
+        } else {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = buf.readLongLE();
+            }
+        }
+        return array;
+    }
+
+    @Override
+    public float[] readFloats() {
+        float[] array = new float[readLength(4)];
+        ByteBuffer view = view(buf.readerIndex(), array.length * 4);
+        if (view != null) {
+            view.asFloatBuffer().get(array);
+            buf.skipBytes(array.length * 4);
+        } else {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = Float.intBitsToFloat(buf.readIntLE());
+            }
+        }
+        return array;
+    }
+
+    @Override
+    public double[] readDoubles() {
+        double[] array = new double[readLength(8)];
+        ByteBuffer view = view(buf.readerIndex(), array.length * 8);
+        if (view != null) {
+            view.asDoubleBuffer().get(array);
+            buf.skipBytes(array.length * 8);
+        } else {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = Double.longBitsToDouble(buf.readLongLE());
+            }
+        }
+        return array;
+    }
+
+    @Override
+    public void writeFixedShorts(short[] array) {
+        writeInt(array.length);
+        buf.ensureWritable(array.length * 2);
+        ByteBuffer view = view(buf.writerIndex(), array.length * 2);
+        if (view != null) {
+            view.asShortBuffer().put(array);
+            buf.writerIndex(buf.writerIndex() + array.length * 2);
+        } else {
+            for (short v : array) {
+                buf.writeShortLE(v);
+            }
+        }
+    }
+
+    @Override
+    public void writeFixedInts(int[] array) {
+        writeInt(array.length);
+        buf.ensureWritable(array.length * 4);
+        ByteBuffer view = view(buf.writerIndex(), array.length * 4);
+        if (view != null) {
+            view.asIntBuffer().put(array);
+            buf.writerIndex(buf.writerIndex() + array.length * 4);
+        } else {
+            for (int v : array) {
+                buf.writeIntLE(v);
+            }
+        }
+    }
+
+    @Override
+    public void writeFixedLongs(long[] array) {
+        writeInt(array.length);
+        buf.ensureWritable(array.length * 8);
+        ByteBuffer view = view(buf.writerIndex(), array.length * 8);
+        if (view != null) {
+            view.asLongBuffer().put(array);
+            buf.writerIndex(buf.writerIndex() + array.length * 8);
+        } else {
+            for (long v : array) {
+                buf.writeLongLE(v);
+            }
+        }
+    }
+
+    @Override
+    public void writeFloats(float[] array) {
+        writeInt(array.length);
+        buf.ensureWritable(array.length * 4);
+        ByteBuffer view = view(buf.writerIndex(), array.length * 4);
+        if (view != null) {
+            view.asFloatBuffer().put(array);
+            buf.writerIndex(buf.writerIndex() + array.length * 4);
+        } else {
+            for (float v : array) {
+                buf.writeIntLE(Float.floatToIntBits(v));
+            }
+        }
+    }
+
+    @Override
+    public void writeDoubles(double[] array) {
+        writeInt(array.length);
+        buf.ensureWritable(array.length * 8);
+        ByteBuffer view = view(buf.writerIndex(), array.length * 8);
+        if (view != null) {
+            view.asDoubleBuffer().put(array);
+            buf.writerIndex(buf.writerIndex() + array.length * 8);
+        } else {
+            for (double v : array) {
+                buf.writeLongLE(Double.doubleToLongBits(v));
+            }
+        }
+    }
+
     @Override
     public void writeBuffer(CodedBuffer buffer) {
+        if (buffer instanceof DirectCodedBuffer) {
+            writeInt(buffer.readableCount());
+            buf.writeBytes(((DirectCodedBuffer) buffer).readableBuffer());
+            return;
+        }
+        if (buffer instanceof ChainedCodedBuffer) {
+            writeInt(buffer.readableCount());
+            for (ByteBuffer byteBuffer : ((ChainedCodedBuffer) buffer).toByteBuffers()) {
+                buf.writeBytes(byteBuffer);
+            }
+            return;
+        }
         if (!(buffer instanceof NettyCodedBuffer)) {
             super.writeBuffer(buffer);
             return;
@@ -114,10 +437,13 @@ public class NettyCodedBuffer extends CodedBuffer {
         buf.writeBytes(_buffer.buf, readableCount);
     }
 
+    /**
+     * 临时缓冲区使用{@link ChainedCodedBuffer}，嵌套数据很大时扩容不需要复制，写回时按块聚集写入{@link ByteBuf}
+     */
     @Override
     public CodedBuffer getTemp() {
         if (temp == null) {
-            temp = new NettyCodedBuffer(buf.alloc().buffer());
+            temp = new ChainedCodedBuffer(TEMP_CHUNK_SIZE);
         }
         return temp;
     }
@@ -0,0 +1,173 @@
+package basic.message;
+
+/**
+ * 只计算字节数的{@link CodedBuffer}，不保存任何数据，也不能读数据<br/>
+ * 用于在真正编码之前计算编码之后的字节数，计算结果和实际写入其他缓冲区的字节数完全一致
+ */
+public class SizeCodedBuffer extends CodedBuffer {
+
+    /**
+     * 已经写入的字节数
+     */
+    private int size;
+
+    /**
+     * 已经写入的字节数
+     */
+    public int size() {
+        return size;
+    }
+
+    private static UnsupportedOperationException readUnsupported() {
+        return new UnsupportedOperationException(SizeCodedBuffer.class.getSimpleName() + "不支持读数据");
+    }
+
+    @Override
+    public int capacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void mark() {
+    }
+
+    @Override
+    public void reset() {
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * 返回已经写入的字节数，便于作为{@link #writeBuffer(CodedBuffer)}的参数
+     */
+    @Override
+    public int readableCount() {
+        return size;
+    }
+
+    @Override
+    public byte[] remainingBytes() {
+        throw readUnsupported();
+    }
+
+    @Override
+    public void remainingBytes(byte[] bytes, int startPos) {
+        throw readUnsupported();
+    }
+
+    @Override
+    public void discardReadBytes() {
+    }
+
+    @Override
+    public byte readByte() {
+        throw readUnsupported();
+    }
+
+    @Override
+    protected byte[] readBytes(int length) {
+        throw readUnsupported();
+    }
+
+    @Override
+    protected void readBytes(byte[] bytes, int startPos, int length) {
+        throw readUnsupported();
+    }
+
+    @Override
+    protected void skipBytes(int length) {
+        throw readUnsupported();
+    }
+
+    @Override
+    public void writeByte(byte b) {
+        size++;
+    }
+
+    @Override
+    protected void writeVarInt(long n) {
+        size += varIntSize(n);
+    }
+
+    @Override
+    protected void writeFixed(long n, int size) {
+        this.size += size;
+    }
+
+    @Override
+    public void writeFloat(float n) {
+        size += 4;
+    }
+
+    @Override
+    public void writeDouble(double n) {
+        size += 8;
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes) {
+        size += varIntSize(bytes.length) + bytes.length;
+    }
+
+    @Override
+    public void writeBuffer(CodedBuffer buffer) {
+        int readableCount = buffer.readableCount();
+        size += varIntSize(readableCount) + readableCount;
+        if (buffer instanceof SizeCodedBuffer) {
+            ((SizeCodedBuffer) buffer).size = 0;
+        } else {
+            buffer.skipBytes(readableCount);
+        }
+    }
+
+    @Override
+    public void writeString(String s) {
+        int length = utf8Length(s);
+        size += varIntSize(length) + length;
+    }
+
+    @Override
+    public void writeAscii(String s) {
+        size += s.length();
+    }
+
+    @Override
+    public void writeFixedShorts(short[] array) {
+        size += varIntSize(array.length) + array.length * 2;
+    }
+
+    @Override
+    public void writeFixedInts(int[] array) {
+        size += varIntSize(array.length) + array.length * 4;
+    }
+
+    @Override
+    public void writeFixedLongs(long[] array) {
+        size += varIntSize(array.length) + array.length * 8;
+    }
+
+    @Override
+    public void writeFloats(float[] array) {
+        size += varIntSize(array.length) + array.length * 4;
+    }
+
+    @Override
+    public void writeDoubles(double[] array) {
+        size += varIntSize(array.length) + array.length * 8;
+    }
+
+    /**
+     * 临时缓冲区也只计算字节数
+     */
+    @Override
+    public CodedBuffer getTemp() {
+        if (temp == null) {
+            temp = new SizeCodedBuffer();
+        }
+        return temp;
+    }
+
+}
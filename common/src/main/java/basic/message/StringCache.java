@@ -0,0 +1,80 @@
+package basic.message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 线程本地的短字符串缓存，用于复用每次调用都会重复出现的字符串，例如服务ID、枚举类名等<br/>
+ * 只缓存ASCII编码的短字符串，按哈希值直接映射到槽位，冲突时覆盖旧的字符串，默认不开启
+ */
+public class StringCache {
+
+    /**
+     * 缓存槽位数量，必须是2的幂
+     */
+    private static final int size = 512;
+
+    /**
+     * 能被缓存的字符串最大字节数
+     */
+    private static final int maxLength = 64;
+
+    private static volatile boolean enabled;
+
+    private static final ThreadLocal<StringCache> threadLocal = ThreadLocal.withInitial(StringCache::new);
+
+    private final byte[][] keys = new byte[size][];
+
+    private final String[] values = new String[size];
+
+    private StringCache() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        StringCache.enabled = enabled;
+    }
+
+    /**
+     * 获取ASCII字节对应的字符串，缓存中不存在时创建并缓存
+     */
+    static String get(byte[] bytes, int index, int length) {
+        if (length > maxLength) {
+            return new String(bytes, index, length, StandardCharsets.ISO_8859_1);
+        }
+
+        int hash = 1;
+        for (int i = index, end = index + length; i < end; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+
+        StringCache cache = threadLocal.get();
+        int slot = (hash ^ hash >>> 16) & (size - 1);
+
+        byte[] key = cache.keys[slot];
+        if (key != null && equals(key, bytes, index, length)) {
+            return cache.values[slot];
+        }
+
+        String value = new String(bytes, index, length, StandardCharsets.ISO_8859_1);
+        cache.keys[slot] = Arrays.copyOfRange(bytes, index, index + length);
+        cache.values[slot] = value;
+        return value;
+    }
+
+    private static boolean equals(byte[] key, byte[] bytes, int index, int length) {
+        if (key.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key[i] != bytes[index + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -1,6 +1,6 @@
 package basic.protocol;
 
-
+import basic.message.CodedBuffer;
 import basic.serialize.ObjectReader;
 import basic.serialize.ObjectWriter;
 
@@ -13,11 +13,36 @@ import java.util.Arrays;
  */
 public class Handshake extends Protocol {
 
+    /**
+     * 连接选项：启用引用表，参考{@link basic.serialize.ObjectWriter#setReferenceEnabled(boolean)}
+     */
+    public static final int OPTION_REFERENCE = 0b1;
+
+    /**
+     * 连接选项：使用头字节编码格式，参考{@link basic.serialize.ObjectWriter#setFormat(int)}
+     */
+    public static final int OPTION_COMPACT = 0b10;
+
+    /**
+     * 连接选项：压缩达到阈值的协议，参考{@link ProtocolCompressor}
+     */
+    public static final int OPTION_COMPRESS = 0b100;
+
+    /**
+     * 握手协议的格式版本，写在参数后面，1:增加了连接选项，以后增加字段时递增，读取方按版本判断后面有哪些字段
+     */
+    private static final int VERSION = 1;
+
     /**
      * 不同的连接器实现的握手参数可能不一样
      */
     private Object[] params;
 
+    /**
+     * 发送方支持的连接选项，双方都支持的选项才会在连接上启用
+     */
+    private int options;
+
     protected Handshake() {
     }
 
@@ -35,22 +60,57 @@ public class Handshake extends Protocol {
         return (T) params[index];
     }
 
+    public int getOptions() {
+        return options;
+    }
+
+    public void setOptions(int options) {
+        this.options = options;
+    }
+
+    /**
+     * 协商连接选项
+     *
+     * @param localOptions 本地支持的连接选项
+     * @return 双方都支持的连接选项
+     */
+    public int negotiateOptions(int localOptions) {
+        return options & localOptions;
+    }
+
+    /**
+     * 判断协商之后的连接选项中是否包含指定的选项
+     */
+    public static boolean hasOption(int options, int option) {
+        return (options & option) == option;
+    }
+
     @Override
     public void transferTo(ObjectWriter writer) {
         super.transferTo(writer);
         writer.write(params);
+        CodedBuffer buffer = writer.getBuffer();
+        buffer.writeInt(VERSION);
+        buffer.writeInt(options);
     }
 
+    /**
+     * 是否有连接选项由版本决定，不依赖握手协议后面是否还有数据
+     */
     @Override
     public void transferFrom(ObjectReader reader) {
         super.transferFrom(reader);
         params = reader.read();
+        CodedBuffer buffer = reader.getBuffer();
+        int version = buffer.readInt();
+        options = version >= 1 ? buffer.readInt() : 0;
     }
 
     @Override
     public String toString() {
         return "Handshake{" +
                 "params=" + Arrays.toString(params) +
+                ", options=" + options +
                 '}';
     }
 }
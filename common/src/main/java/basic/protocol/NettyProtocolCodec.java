@@ -0,0 +1,83 @@
+package basic.protocol;
+
+import basic.exception.MalformedFrameException;
+import basic.message.DefaultCodedBuffer;
+import basic.message.NettyCodedBuffer;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageCodec;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 集成Netty的协议编解码器，每一帧前面是4个字节的长度，帧的内容参考{@link ProtocolCodec}<br/>
+ * 保存了连接状态，每个连接需要创建一个新的对象
+ */
+public class NettyProtocolCodec extends ByteToMessageCodec<Protocol> {
+
+    private static final int LENGTH_FIELD_SIZE = 4;
+
+    public static final int DEFAULT_MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+    private final ProtocolCodec codec;
+
+    private final int maxFrameLength;
+
+    public NettyProtocolCodec(ProtocolCodec codec) {
+        this(codec, DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    /**
+     * @param maxFrameLength 帧的最大字节数，不包含长度前缀，超过时认为数据格式错误
+     */
+    public NettyProtocolCodec(ProtocolCodec codec, int maxFrameLength) {
+        super(Protocol.class);
+        if (maxFrameLength <= 0) {
+            throw new IllegalArgumentException("帧的最大字节数必须是正整数");
+        }
+        this.codec = Objects.requireNonNull(codec, "协议编解码器不能为空");
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    public ProtocolCodec getCodec() {
+        return codec;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Protocol protocol, ByteBuf out) {
+        //先占位，写完之后再回填长度
+        int lengthIndex = out.writerIndex();
+        out.writeInt(0);
+        codec.encode(protocol, new NettyCodedBuffer(out));
+
+        int length = out.writerIndex() - lengthIndex - LENGTH_FIELD_SIZE;
+        if (length > maxFrameLength) {
+            out.writerIndex(lengthIndex);
+            throw new IllegalArgumentException(String.format("协议[%s]的字节数[%s]超过了帧的最大字节数[%s]", protocol.getClass().getSimpleName(), length, maxFrameLength));
+        }
+        out.setInt(lengthIndex, length);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        if (in.readableBytes() < LENGTH_FIELD_SIZE) {
+            return;
+        }
+
+        int length = in.getInt(in.readerIndex());
+        if (length <= 0 || length > maxFrameLength) {
+            throw new MalformedFrameException(String.format("帧的字节数[%s]不合法，最大字节数[%s]", length, maxFrameLength));
+        }
+        if (in.readableBytes() < LENGTH_FIELD_SIZE + length) {
+            return;
+        }
+
+        //整帧数据复制到正好大小的数组中，按信任模式解码时数组的边界就是帧的边界
+        in.skipBytes(LENGTH_FIELD_SIZE);
+        byte[] frame = new byte[length];
+        in.readBytes(frame);
+        out.add(codec.decode(new DefaultCodedBuffer(frame)));
+    }
+
+}
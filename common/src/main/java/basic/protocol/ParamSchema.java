@@ -0,0 +1,181 @@
+package basic.protocol;
+
+import basic.message.CodedBuffer;
+import basic.serialize.ObjectReader;
+import basic.serialize.ObjectWriter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RPC方法参数的编码格式，按方法签名逐个编码参数，原生类型的参数不需要类型标记，其他参数按普通对象编码<br/>
+ * 格式用描述符表示，每个参数一个字符，Z:boolean，B:byte，S:short，C:char，I:int，J:long，F:float，D:double，L:其他类型<br/>
+ * 代理类初始化时会注册各个方法的参数格式，服务端通过服务类名和方法ID查找，服务对象的类是服务类的子类时按继承关系向上查找
+ *
+ * @see Request
+ */
+public final class ParamSchema {
+
+    /**
+     * key:服务类名#方法ID
+     */
+    private static final Map<String, ParamSchema> schemas = new ConcurrentHashMap<>();
+
+    /**
+     * 已经加载过代理类的服务，value:代理类是否存在<br/>
+     * 通过computeIfAbsent加载，其他线程会等到代理类初始化完成，不会在注册完成之前查找
+     */
+    private static final Map<String, Boolean> loadedServices = new ConcurrentHashMap<>();
+
+    /**
+     * 没有原生类型参数的方法使用普通对象数组编码，用这个对象占位
+     */
+    private static final ParamSchema NONE = new ParamSchema("");
+
+    private final String descriptor;
+
+    private ParamSchema(String descriptor) {
+        this.descriptor = descriptor;
+    }
+
+    /**
+     * 注册方法的参数格式
+     *
+     * @return 没有原生类型参数时返回null，使用普通对象数组编码
+     */
+    public static ParamSchema register(String serviceName, int methodId, String descriptor) {
+        ParamSchema schema = descriptor.replace("L", "").isEmpty() ? NONE : new ParamSchema(descriptor);
+        schemas.putIfAbsent(serviceName + "#" + methodId, schema);
+        return schema == NONE ? null : schema;
+    }
+
+    /**
+     * 查找方法的参数格式，还没有注册时会尝试初始化服务对应的代理类
+     *
+     * @return 没有原生类型参数或者找不到代理类时返回null
+     */
+    public static ParamSchema get(String serviceName, int methodId) {
+        String key = serviceName + "#" + methodId;
+        ParamSchema schema = schemas.get(key);
+        if (schema == null) {
+            loadedServices.computeIfAbsent(serviceName, ParamSchema::loadProxy);
+            schema = schemas.get(key);
+        }
+        return schema == NONE ? null : schema;
+    }
+
+    /**
+     * 通过服务对象的类查找方法的参数格式，服务对象可能是生成代理类的服务类的子类，
+     * 从服务对象的类开始向上查找，使用第一个注册了参数格式或者有代理类的类
+     *
+     * @return 没有原生类型参数或者找不到代理类时返回null
+     */
+    public static ParamSchema get(Class<?> serviceClass, int methodId) {
+        for (Class<?> c = serviceClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            String serviceName = c.getName();
+            if (schemas.containsKey(serviceName + "#" + methodId) || loadedServices.computeIfAbsent(serviceName, ParamSchema::loadProxy)) {
+                return get(serviceName, methodId);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 初始化代理类，代理类的静态初始化会注册所有方法的参数格式
+     */
+    private static boolean loadProxy(String serviceName) {
+        try {
+            Class.forName(serviceName + "Proxy");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    public String getDescriptor() {
+        return descriptor;
+    }
+
+    public void write(ObjectWriter writer, Object[] params) {
+        if (params.length != descriptor.length()) {
+            throw new IllegalArgumentException(String.format("参数个数[%s]和参数格式[%s]不一致", params.length, descriptor));
+        }
+
+        CodedBuffer buffer = writer.getBuffer();
+        for (int i = 0; i < params.length; i++) {
+            Object param = params[i];
+            switch (descriptor.charAt(i)) {
+                case 'Z':
+                    buffer.writeBool((Boolean) param);
+                    break;
+                case 'B':
+                    buffer.writeByte((Byte) param);
+                    break;
+                case 'S':
+                    buffer.writeShort((Short) param);
+                    break;
+                case 'C':
+                    buffer.writeInt((Character) param);
+                    break;
+                case 'I':
+                    buffer.writeInt((Integer) param);
+                    break;
+                case 'J':
+                    buffer.writeLong((Long) param);
+                    break;
+                case 'F':
+                    buffer.writeFloat((Float) param);
+                    break;
+                case 'D':
+                    buffer.writeDouble((Double) param);
+                    break;
+                default:
+                    writer.write(param);
+            }
+        }
+    }
+
+    public Object[] read(ObjectReader reader) {
+        CodedBuffer buffer = reader.getBuffer();
+        Object[] params = new Object[descriptor.length()];
+        for (int i = 0; i < params.length; i++) {
+            switch (descriptor.charAt(i)) {
+                case 'Z':
+                    params[i] = buffer.readBool();
+                    break;
+                case 'B':
+                    params[i] = buffer.readByte();
+                    break;
+                case 'S':
+                    params[i] = buffer.readShort();
+                    break;
+                case 'C':
+                    params[i] = (char) buffer.readInt();
+                    break;
+                case 'I':
+                    params[i] = buffer.readInt();
+                    break;
+                case 'J':
+                    params[i] = buffer.readLong();
+                    break;
+                case 'F':
+                    params[i] = buffer.readFloat();
+                    break;
+                case 'D':
+                    params[i] = buffer.readDouble();
+                    break;
+                default:
+                    params[i] = reader.read();
+            }
+        }
+        return params;
+    }
+
+    @Override
+    public String toString() {
+        return "ParamSchema{" +
+                "descriptor='" + descriptor + '\'' +
+                '}';
+    }
+
+}
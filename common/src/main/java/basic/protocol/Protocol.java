@@ -32,8 +32,8 @@ public abstract class Protocol implements Transferable {
                     registry = new TransferableRegistry();
                     registry.register(1, Handshake.class, Handshake::new);
                     registry.register(2, PingPong.class, PingPong::new);
-                    registry.register(3, Request.class, Request::new);
-                    registry.register(4, Response.class, Response::new);
+                    registry.register(3, Request.class, Request::newInstance);
+                    registry.register(4, Response.class, Response::newInstance);
                 }
             }
         }
@@ -47,6 +47,20 @@ public abstract class Protocol implements Transferable {
         return serverId;
     }
 
+    /**
+     * 回收到对象池，回收之后不能再使用，也不能再持有它的引用<br/>
+     * 只有反序列化时从对象池中获取的对象会被回收，其他对象什么都不做
+     */
+    public void recycle() {
+    }
+
+    /**
+     * 清除所有字段，回收之前调用
+     */
+    protected void reset() {
+        serverId = 0;
+    }
+
     @Override
     public void transferTo(ObjectWriter writer) {
         writer.write(serverId);
@@ -0,0 +1,176 @@
+package basic.protocol;
+
+import basic.exception.MalformedFrameException;
+import basic.message.CodedBuffer;
+import basic.message.Message;
+import basic.serialize.EnumRegistry;
+import basic.serialize.ObjectFormat;
+import basic.serialize.ObjectReader;
+import basic.serialize.ObjectWriter;
+import basic.serialize.TransferableRegistry;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 一个连接上的协议编解码器，保存握手协商之后的连接选项，每个连接使用一个单独的对象，不是线程安全的<br/>
+ * 帧格式：编码时使用的连接选项，然后是协议数据，长度前缀由传输层处理<br/>
+ * 握手完成之前按默认格式编码，收到对方的{@link Handshake}之后按双方都支持的选项编码，
+ * 每一帧都带有自己的连接选项，所以双方切换格式的时机不需要同步<br/>
+ * 启用了{@link Handshake#OPTION_COMPRESS}时协议数据通过{@link ProtocolCompressor}读写
+ *
+ * @see Handshake#negotiateOptions(int)
+ */
+public class ProtocolCodec {
+
+    /**
+     * 目前支持的所有连接选项
+     */
+    public static final int SUPPORTED_OPTIONS = Handshake.OPTION_REFERENCE | Handshake.OPTION_COMPACT | Handshake.OPTION_COMPRESS;
+
+    /**
+     * 本地支持的连接选项
+     */
+    private final int localOptions;
+
+    /**
+     * 支持{@link Handshake#OPTION_COMPRESS}时不能为空，可以在多个连接之间共享
+     */
+    private final ProtocolCompressor compressor;
+
+    /**
+     * 协商之后的连接选项，收到握手协议之前为0
+     */
+    private int options;
+
+    private TransferableRegistry transferableRegistry;
+
+    private EnumRegistry enumRegistry;
+
+    private Function<Integer, Message> messageFactory;
+
+    /**
+     * @param localOptions 本地支持的连接选项，由{@link Handshake}中的OPTION_开头的常量组合而成
+     */
+    public ProtocolCodec(int localOptions) {
+        this(localOptions, null);
+    }
+
+    /**
+     * @param localOptions 本地支持的连接选项，由{@link Handshake}中的OPTION_开头的常量组合而成
+     * @param compressor   协议压缩器，本地支持{@link Handshake#OPTION_COMPRESS}时不能为空
+     */
+    public ProtocolCodec(int localOptions, ProtocolCompressor compressor) {
+        if ((localOptions & ~SUPPORTED_OPTIONS) != 0) {
+            throw new IllegalArgumentException("不支持的连接选项:" + localOptions);
+        }
+        if (Handshake.hasOption(localOptions, Handshake.OPTION_COMPRESS) && compressor == null) {
+            throw new IllegalArgumentException("支持压缩时协议压缩器不能为空");
+        }
+        this.localOptions = localOptions;
+        this.compressor = compressor;
+    }
+
+    public void setTransferableRegistry(TransferableRegistry transferableRegistry) {
+        this.transferableRegistry = Objects.requireNonNull(transferableRegistry);
+    }
+
+    public void setEnumRegistry(EnumRegistry enumRegistry) {
+        this.enumRegistry = Objects.requireNonNull(enumRegistry);
+    }
+
+    public void setMessageFactory(Function<Integer, Message> messageFactory) {
+        this.messageFactory = Objects.requireNonNull(messageFactory);
+    }
+
+    public int getLocalOptions() {
+        return localOptions;
+    }
+
+    /**
+     * 协商之后的连接选项
+     */
+    public int getOptions() {
+        return options;
+    }
+
+    /**
+     * 编码一帧协议，握手协议总是按默认格式编码，并且带上本地支持的连接选项
+     */
+    public void encode(Protocol protocol, CodedBuffer buffer) {
+        int frameOptions = options;
+        if (protocol instanceof Handshake) {
+            ((Handshake) protocol).setOptions(localOptions);
+            frameOptions = 0;
+        }
+
+        buffer.writeInt(frameOptions);
+        ObjectWriter writer = newWriter(buffer, frameOptions);
+        if (Handshake.hasOption(frameOptions, Handshake.OPTION_COMPRESS)) {
+            compressor.write(writer, protocol);
+        } else {
+            writer.write(protocol);
+        }
+    }
+
+    /**
+     * 解码一帧协议，缓冲区中必须正好是一帧完整的数据，收到握手协议时协商连接选项<br/>
+     * 帧的长度已经由传输层校验过，协议数据按信任模式读取，参考{@link CodedBuffer#readTrusted(Function)}
+     */
+    public Protocol decode(CodedBuffer buffer) {
+        int frameOptions = buffer.readInt();
+        if ((frameOptions & ~localOptions) != 0) {
+            throw new MalformedFrameException(String.format("帧的连接选项[%s]超出了本地支持的连接选项[%s]", frameOptions, localOptions));
+        }
+
+        ObjectReader reader = newReader(buffer, frameOptions);
+        Object value;
+        if (Handshake.hasOption(frameOptions, Handshake.OPTION_COMPRESS)) {
+            value = buffer.readTrusted(b -> compressor.read(reader));
+        } else {
+            value = reader.readTrusted();
+        }
+        if (!(value instanceof Protocol)) {
+            throw new MalformedFrameException("帧数据不是协议:" + (value == null ? null : value.getClass().getName()));
+        }
+        if (buffer.readableCount() > 0) {
+            throw new MalformedFrameException(String.format("协议[%s]后面还有%d字节多余的数据", value.getClass().getSimpleName(), buffer.readableCount()));
+        }
+
+        Protocol protocol = (Protocol) value;
+        if (protocol instanceof Handshake) {
+            options = ((Handshake) protocol).negotiateOptions(localOptions);
+        }
+        return protocol;
+    }
+
+    protected ObjectWriter newWriter(CodedBuffer buffer, int frameOptions) {
+        ObjectWriter writer = new ObjectWriter(buffer);
+        if (transferableRegistry != null) {
+            writer.setTransferableRegistry(transferableRegistry);
+        }
+        if (enumRegistry != null) {
+            writer.setEnumRegistry(enumRegistry);
+        }
+        writer.setReferenceEnabled(Handshake.hasOption(frameOptions, Handshake.OPTION_REFERENCE));
+        writer.setFormat(Handshake.hasOption(frameOptions, Handshake.OPTION_COMPACT) ? ObjectFormat.COMPACT : ObjectFormat.TAGGED);
+        return writer;
+    }
+
+    protected ObjectReader newReader(CodedBuffer buffer, int frameOptions) {
+        ObjectReader reader = new ObjectReader(buffer);
+        if (transferableRegistry != null) {
+            reader.setTransferableRegistry(transferableRegistry);
+        }
+        if (enumRegistry != null) {
+            reader.setEnumRegistry(enumRegistry);
+        }
+        if (messageFactory != null) {
+            reader.setMessageFactory(messageFactory);
+        }
+        reader.setReferenceEnabled(Handshake.hasOption(frameOptions, Handshake.OPTION_REFERENCE));
+        reader.setFormat(Handshake.hasOption(frameOptions, Handshake.OPTION_COMPACT) ? ObjectFormat.COMPACT : ObjectFormat.TAGGED);
+        return reader;
+    }
+
+}
@@ -0,0 +1,273 @@
+package basic.protocol;
+
+import basic.exception.MalformedFrameException;
+import basic.message.CodedBuffer;
+import basic.message.CodedBufferPool;
+import basic.message.DefaultCodedBuffer;
+import basic.serialize.ObjectReader;
+import basic.serialize.ObjectWriter;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 协议压缩，序列化之后的字节数达到阈值的协议使用{@link Deflater}压缩，压缩器和解压器按线程缓存重复使用，可以使用预设字典<br/>
+ * 格式：先写入一个布尔值标记是否压缩，没有压缩时后面是带长度前缀的协议数据，压缩时依次是原始字节数和带长度前缀的压缩数据<br/>
+ * 压缩之后没有变小的协议不压缩，各个协议类型的压缩比和耗时可以通过{@link #getStats(Class)}查看<br/>
+ * 连接协商启用了{@link Handshake#OPTION_COMPRESS}之后由{@link ProtocolCodec}调用，压缩器是线程安全的，可以在多个连接之间共享
+ *
+ * @see Handshake#OPTION_COMPRESS
+ */
+public class ProtocolCompressor {
+
+    /**
+     * Deflate格式的最大压缩比，用于校验数据中的原始字节数
+     */
+    private static final int MAX_RATIO = 1032;
+
+    /**
+     * 字节数达到这个值的协议才会压缩
+     */
+    private final int threshold;
+
+    private final byte[] dictionary;
+
+    private final ThreadLocal<Deflater> deflaters;
+
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+
+    /**
+     * 各个协议类型的统计数据
+     */
+    private final Map<Class<?>, Stats> stats = new ConcurrentHashMap<>();
+
+    public ProtocolCompressor(int threshold) {
+        this(threshold, Deflater.BEST_SPEED, null);
+    }
+
+    /**
+     * @param level      压缩级别，参考{@link Deflater#setLevel(int)}
+     * @param dictionary 预设字典，可以为空，两端必须一致，包含常见的类名、字符串等内容可以提高小协议的压缩比
+     */
+    public ProtocolCompressor(int threshold, int level, byte[] dictionary) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("阈值必须是正整数");
+        }
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("压缩级别不合法:" + level);
+        }
+        this.threshold = threshold;
+        this.dictionary = dictionary == null ? null : dictionary.clone();
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level));
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * 序列化协议，达到阈值时压缩
+     */
+    public void write(ObjectWriter writer, Protocol protocol) {
+        CodedBuffer temp = CodedBufferPool.lease();
+        try {
+            writer.newWriter(temp).write(protocol);
+            int size = temp.readableCount();
+            CodedBuffer buffer = writer.getBuffer();
+            if (size < threshold) {
+                buffer.writeBool(false);
+                buffer.writeBuffer(temp);
+                return;
+            }
+
+            byte[] bytes = temp.remainingBytes();
+            long startTime = System.nanoTime();
+            byte[] compressedBytes = compress(bytes);
+            Stats stats = getStats(protocol.getClass());
+            stats.compressCount.increment();
+            stats.compressTime.add(System.nanoTime() - startTime);
+            stats.originalSize.add(size);
+
+            if (compressedBytes.length < size) {
+                stats.compressedSize.add(compressedBytes.length);
+                buffer.writeBool(true);
+                buffer.writeInt(size);
+                buffer.writeBytes(compressedBytes);
+            } else {
+                stats.compressedSize.add(size);
+                buffer.writeBool(false);
+                buffer.writeBytes(bytes);
+            }
+        } finally {
+            CodedBufferPool.recycle(temp);
+        }
+    }
+
+    /**
+     * 反序列化通过{@link #write(ObjectWriter, Protocol)}写入的协议
+     */
+    public Protocol read(ObjectReader reader) {
+        CodedBuffer buffer = reader.getBuffer();
+        if (!buffer.readBool()) {
+            //没有压缩，跳过长度前缀直接读取
+            buffer.readInt();
+            return reader.read();
+        }
+
+        int size = buffer.readInt();
+        byte[] compressedBytes = buffer.readBytes();
+        if (size < 0 || size > (long) compressedBytes.length * MAX_RATIO) {
+            throw new MalformedFrameException("压缩数据的原始字节数不合法:" + size);
+        }
+
+        long startTime = System.nanoTime();
+        byte[] bytes = decompress(compressedBytes, size);
+        long time = System.nanoTime() - startTime;
+
+        //解压之后的字节数已经校验过，整个协议都在缓冲区中
+        Protocol protocol = reader.newReader(new DefaultCodedBuffer(bytes)).readTrusted();
+        Stats stats = getStats(protocol.getClass());
+        stats.decompressCount.increment();
+        stats.decompressTime.add(time);
+        return protocol;
+    }
+
+    private byte[] compress(byte[] bytes) {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        if (dictionary != null) {
+            deflater.setDictionary(dictionary);
+        }
+        deflater.setInput(bytes);
+        deflater.finish();
+
+        byte[] compressedBytes = new byte[Math.max(bytes.length / 2, 64)];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressedBytes.length) {
+                compressedBytes = Arrays.copyOf(compressedBytes, length << 1);
+            }
+            length += deflater.deflate(compressedBytes, length, compressedBytes.length - length);
+        }
+        return Arrays.copyOf(compressedBytes, length);
+    }
+
+    private byte[] decompress(byte[] compressedBytes, int size) {
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(compressedBytes);
+
+        byte[] bytes = new byte[size];
+        int length = 0;
+        try {
+            while (length < size) {
+                int count = inflater.inflate(bytes, length, size - length);
+                if (count == 0) {
+                    if (inflater.needsDictionary() && dictionary != null) {
+                        inflater.setDictionary(dictionary);
+                    } else if (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()) {
+                        break;
+                    }
+                }
+                length += count;
+            }
+        } catch (DataFormatException e) {
+            throw new MalformedFrameException(e);
+        }
+
+        if (length != size || !inflater.finished()) {
+            throw new MalformedFrameException(String.format("解压之后的字节数[%s]和原始字节数[%s]不一致", length, size));
+        }
+        return bytes;
+    }
+
+    /**
+     * 获取协议类型的统计数据
+     */
+    public Stats getStats(Class<? extends Protocol> protocolClass) {
+        return stats.computeIfAbsent(protocolClass, k -> new Stats());
+    }
+
+    /**
+     * 协议压缩的统计数据
+     */
+    public static class Stats {
+
+        private final LongAdder compressCount = new LongAdder();
+
+        private final LongAdder compressTime = new LongAdder();
+
+        private final LongAdder originalSize = new LongAdder();
+
+        private final LongAdder compressedSize = new LongAdder();
+
+        private final LongAdder decompressCount = new LongAdder();
+
+        private final LongAdder decompressTime = new LongAdder();
+
+        /**
+         * 达到阈值尝试压缩的次数
+         */
+        public long getCompressCount() {
+            return compressCount.sum();
+        }
+
+        /**
+         * 压缩总耗时(纳秒)
+         */
+        public long getCompressTime() {
+            return compressTime.sum();
+        }
+
+        /**
+         * 压缩前的总字节数
+         */
+        public long getOriginalSize() {
+            return originalSize.sum();
+        }
+
+        /**
+         * 压缩后的总字节数，没有变小的按原始字节数计算
+         */
+        public long getCompressedSize() {
+            return compressedSize.sum();
+        }
+
+        /**
+         * 压缩比，压缩后的字节数/压缩前的字节数
+         */
+        public double getRatio() {
+            long originalSize = getOriginalSize();
+            return originalSize == 0 ? 1 : (double) getCompressedSize() / originalSize;
+        }
+
+        public long getDecompressCount() {
+            return decompressCount.sum();
+        }
+
+        /**
+         * 解压总耗时(纳秒)
+         */
+        public long getDecompressTime() {
+            return decompressTime.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{" +
+                    "compressCount=" + getCompressCount() +
+                    ", compressTime=" + getCompressTime() +
+                    ", ratio=" + getRatio() +
+                    ", decompressCount=" + getDecompressCount() +
+                    ", decompressTime=" + getDecompressTime() +
+                    '}';
+        }
+
+    }
+
+}
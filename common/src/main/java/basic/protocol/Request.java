@@ -1,7 +1,11 @@
 package basic.protocol;
 
+import basic.message.CodedBuffer;
+import basic.message.DefaultCodedBuffer;
+import basic.serialize.ObjectCopier;
 import basic.serialize.ObjectReader;
 import basic.serialize.ObjectWriter;
+import io.netty.util.Recycler;
 
 import java.util.Arrays;
 
@@ -35,16 +39,83 @@ public class Request extends Protocol {
      */
     private Object[] params;
 
+    /**
+     * 目标方法参数的编码格式，为空时参数按普通对象数组编码
+     */
+    private ParamSchema paramSchema;
+
+    /**
+     * 收到的参数数据不在网络线程上解码，暂存在这里，在目标工作线程上解码<br/>
+     * 按{@link ParamSchema}编码的参数还需要知道目标服务之后才能解码
+     *
+     * @see #decodeParams(ParamSchema)
+     */
+    private ObjectReader paramsReader;
+
+    /**
+     * 收到的参数是否按{@link ParamSchema}编码
+     */
+    private boolean paramsSchemaEncoded;
+
+    private static final Recycler<Request> recycler = new Recycler<Request>() {
+        @Override
+        protected Request newObject(Handle<Request> handle) {
+            Request request = new Request();
+            request.handle = handle;
+            return request;
+        }
+    };
+
+    /**
+     * 回收句柄，不是从对象池中获取的对象为空
+     */
+    private Recycler.Handle<Request> handle;
+
     protected Request() {
     }
 
     public Request(int serverId, Object serviceId, int methodId, Object... params) {
+        this(serverId, serviceId, methodId, null, params);
+    }
+
+    /**
+     * @param paramSchema 目标方法的参数格式，由代理类传入，为空时参数按普通对象数组编码
+     */
+    public Request(int serverId, Object serviceId, int methodId, ParamSchema paramSchema, Object... params) {
         super(serverId);
         this.serviceId = serviceId;
         this.methodId = methodId;
+        this.paramSchema = paramSchema;
         this.params = params;
     }
 
+    /**
+     * 从对象池中获取一个空的对象，用于反序列化
+     */
+    static Request newInstance() {
+        return recycler.get();
+    }
+
+    @Override
+    public void recycle() {
+        if (handle != null) {
+            reset();
+            handle.recycle(this);
+        }
+    }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        callId = 0;
+        serviceId = null;
+        methodId = 0;
+        params = null;
+        paramSchema = null;
+        paramsReader = null;
+        paramsSchemaEncoded = false;
+    }
+
     public long getCallId() {
         return callId;
     }
@@ -61,17 +132,68 @@ public class Request extends Protocol {
         return methodId;
     }
 
+    /**
+     * 收到的参数在调用{@link #decodeParams(ParamSchema)}之前为空
+     */
     public Object[] getParams() {
         return params;
     }
 
+    /**
+     * 收到的参数是否还没有解码
+     */
+    public boolean isParamsEncoded() {
+        return paramsReader != null;
+    }
+
+    /**
+     * 解码收到的参数，应该在目标工作线程上调用，参数不是收到的或者已经解码过时什么都不做<br/>
+     * 数据不完整或者格式错误时抛出{@link basic.exception.MalformedFrameException}，调用方需要处理解码出错的情况
+     *
+     * @param paramSchema 目标方法的参数格式，参数不是按{@link ParamSchema}编码时忽略
+     * @see ParamSchema#get(Class, int)
+     */
+    public void decodeParams(ParamSchema paramSchema) {
+        if (paramsReader == null) {
+            return;
+        }
+        //参数数据是单独复制出来的，数组边界就是数据的边界，可以按信任模式读取
+        if (!paramsSchemaEncoded) {
+            params = paramsReader.readTrusted();
+        } else if (paramSchema != null) {
+            params = paramsReader.getBuffer().readTrusted(b -> paramSchema.read(paramsReader));
+        } else {
+            throw new IllegalStateException(String.format("目标方法[%s]的参数格式不存在", methodId));
+        }
+        paramsReader = null;
+    }
+
+    /**
+     * 本地调用时拷贝参数，代替序列化和反序列化，常量参数直接共享
+     */
+    public void copyParams(ObjectCopier copier) {
+        if (params != null) {
+            params = copier.copy(params);
+        }
+    }
+
     @Override
     public void transferTo(ObjectWriter writer) {
         super.transferTo(writer);
         writer.write(callId);
         writer.write(serviceId);
         writer.write(methodId);
-        writer.write(params);
+
+        //参数写成带长度前缀的数据块，接收方可以只解码前面的路由字段
+        CodedBuffer buffer = writer.getBuffer();
+        buffer.writeBool(paramSchema != null);
+        ObjectWriter paramsWriter = writer.newWriter(buffer.getTemp());
+        if (paramSchema == null) {
+            paramsWriter.write(params);
+        } else {
+            paramSchema.write(paramsWriter, params);
+        }
+        buffer.writeTemp();
     }
 
     @Override
@@ -80,7 +202,10 @@ public class Request extends Protocol {
         this.callId = reader.read();
         this.serviceId = reader.read();
         this.methodId = reader.read();
-        this.params = reader.read();
+
+        CodedBuffer buffer = reader.getBuffer();
+        this.paramsSchemaEncoded = buffer.readBool();
+        this.paramsReader = reader.newReader(new DefaultCodedBuffer(buffer.readBytes()));
     }
 
     @Override
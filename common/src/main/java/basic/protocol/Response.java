@@ -1,7 +1,11 @@
 package basic.protocol;
 
+import basic.message.CodedBuffer;
+import basic.message.DefaultCodedBuffer;
+import basic.serialize.ObjectCopier;
 import basic.serialize.ObjectReader;
 import basic.serialize.ObjectWriter;
+import io.netty.util.Recycler;
 
 /**
  * 调用响应协议
@@ -25,6 +29,27 @@ public class Response extends Protocol {
 
     private String exception;
 
+    /**
+     * 收到的结果数据不在网络线程上解码，暂存在这里，在发起调用的工作线程上解码
+     *
+     * @see #decodeResult()
+     */
+    private ObjectReader resultReader;
+
+    private static final Recycler<Response> recycler = new Recycler<Response>() {
+        @Override
+        protected Response newObject(Handle<Response> handle) {
+            Response response = new Response();
+            response.handle = handle;
+            return response;
+        }
+    };
+
+    /**
+     * 回收句柄，不是从对象池中获取的对象为空
+     */
+    private Recycler.Handle<Response> handle;
+
     protected Response() {
     }
 
@@ -35,32 +60,87 @@ public class Response extends Protocol {
         this.exception = exception;
     }
 
+    /**
+     * 从对象池中获取一个空的对象，用于反序列化
+     */
+    static Response newInstance() {
+        return recycler.get();
+    }
+
+    @Override
+    public void recycle() {
+        if (handle != null) {
+            reset();
+            handle.recycle(this);
+        }
+    }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        callId = 0;
+        result = null;
+        exception = null;
+        resultReader = null;
+    }
+
     public long getCallId() {
         return callId;
     }
 
+    /**
+     * 收到的结果在调用{@link #decodeResult()}之前为空
+     */
     public Object getResult() {
         return result;
     }
 
+    /**
+     * 收到的结果是否还没有解码
+     */
+    public boolean isResultEncoded() {
+        return resultReader != null;
+    }
+
+    /**
+     * 解码收到的结果，应该在发起调用的工作线程上调用，结果不是收到的或者已经解码过时什么都不做<br/>
+     * 结果数据是单独复制出来的，按信任模式读取，数据不完整或者格式错误时抛出{@link basic.exception.MalformedFrameException}
+     */
+    public void decodeResult() {
+        if (resultReader != null) {
+            result = resultReader.readTrusted();
+            resultReader = null;
+        }
+    }
+
     public String getException() {
         return exception;
     }
 
+    /**
+     * 本地调用时拷贝结果，代替序列化和反序列化，常量结果直接共享
+     */
+    public void copyResult(ObjectCopier copier) {
+        result = copier.copy(result);
+    }
+
     @Override
     public void transferTo(ObjectWriter writer) {
         super.transferTo(writer);
         writer.write(callId);
-        writer.write(result);
         writer.write(exception);
+        //结果写成带长度前缀的数据块，接收方可以只解码前面的路由字段
+        CodedBuffer buffer = writer.getBuffer();
+        writer.newWriter(buffer.getTemp()).write(result);
+        buffer.writeTemp();
     }
 
     @Override
     public void transferFrom(ObjectReader reader) {
         super.transferFrom(reader);
         callId = reader.read();
-        result = reader.read();
         exception = reader.read();
+        resultReader = reader.newReader(new DefaultCodedBuffer(reader.getBuffer().readBytes()));
     }
 
     @Override
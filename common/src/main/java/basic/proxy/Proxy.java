@@ -1,6 +1,7 @@
 package basic.proxy;
 
 import basic.Promise;
+import basic.protocol.ParamSchema;
 
 public abstract class Proxy {
 
@@ -29,8 +30,12 @@ public abstract class Proxy {
 
     public abstract String _getServiceName$();
 
-    //方法名加特殊字符，避免和服务方法同名
-    protected <R> Promise<R> _sendRequest$(String signature, int securityModifier, int methodId, Object... params) {
+    /**
+     * 方法名加特殊字符，避免和服务方法同名
+     *
+     * @param paramSchema 参数格式，为空时参数按普通对象数组编码
+     */
+    protected <R> Promise<R> _sendRequest$(String signature, int securityModifier, int methodId, ParamSchema paramSchema, Object... params) {
 //        Worker worker = Worker.current();
 //        if (worker == null) {
 //            throw new IllegalStateException("当前所处线程不合法");
@@ -38,7 +43,7 @@ public abstract class Proxy {
 //        if (serverId < 0) {
 //            serverId = worker.resolveTargetServerId(this);
 //        }
-//        return worker.sendRequest(serverId, serviceId, signature, securityModifier, methodId, params);
+//        return worker.sendRequest(new Request(serverId, serviceId, methodId, paramSchema, params), signature, securityModifier);
         return null;
     }
 
@@ -0,0 +1,67 @@
+package basic.serialize;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 枚举注册表，注册过的枚举序列化时只写入类型ID和序号，没有注册的枚举仍然写入类名和常量名<br/>
+ * 序号就是{@link Enum#ordinal()}，已经注册的枚举只能在末尾追加常量，不能调整已有常量的顺序
+ *
+ * @see ObjectWriter#setEnumRegistry(EnumRegistry)
+ * @see ObjectReader#setEnumRegistry(EnumRegistry)
+ */
+public class EnumRegistry {
+
+    protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private Map<Class<?>, Integer> class2Ids = new HashMap<>();
+
+    private Map<Integer, Class<?>> id2Classes = new HashMap<>();
+
+    private Map<Integer, Enum<?>[]> id2Constants = new HashMap<>();
+
+    /**
+     * @param id 必须是正整数
+     */
+    public void register(int id, Class<? extends Enum<?>> enumClass) {
+        Objects.requireNonNull(enumClass);
+        if (id <= 0) {
+            throw new IllegalArgumentException(String.format("%s的ID必须是正整数：%s", enumClass.getSimpleName(), id));
+        }
+        if (id2Classes.putIfAbsent(id, enumClass) == null) {
+            class2Ids.put(enumClass, id);
+            id2Constants.put(id, enumClass.getEnumConstants());
+        } else if (!class2Ids.containsKey(enumClass)) {
+            logger.error("{}和{}的ID冲突了：{}", id2Classes.get(id).getSimpleName(), enumClass.getSimpleName(), id);
+        }
+    }
+
+    /**
+     * 获得枚举序列化时用于标记类型的ID
+     *
+     * @return 没有注册时返回0
+     */
+    public int getId(Class<?> enumClass) {
+        Integer id = class2Ids.get(enumClass);
+        return id == null ? 0 : id;
+    }
+
+    /**
+     * 通过类型ID和序号获得枚举常量
+     */
+    public Enum<?> valueOf(int id, int ordinal) {
+        Enum<?>[] constants = id2Constants.get(id);
+        if (constants == null) {
+            throw new RuntimeException(String.format("枚举[%s]不存在", id));
+        }
+        if (ordinal < 0 || ordinal >= constants.length) {
+            throw new RuntimeException(String.format("枚举%s的序号[%s]不存在", id2Classes.get(id).getSimpleName(), ordinal));
+        }
+        return constants[ordinal];
+    }
+
+}
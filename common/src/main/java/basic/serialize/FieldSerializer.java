@@ -0,0 +1,365 @@
+package basic.serialize;
+
+import basic.annotation.FieldSerializable;
+import basic.message.CodedBuffer;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sun.misc.Unsafe;
+
+import java.io.Externalizable;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * 运行时通过ASM为{@link Serializable}对象生成的字段序列化器，用来代替对象流序列化<br/>
+ * 按字段顺序逐个读写，父类的字段在前，同一个类的字段按名字排序，原生类型的字段不需要类型标记也不需要装箱，其他字段按普通对象读写<br/>
+ * 字段通过{@link Unsafe}读写，所以private和final字段也可以序列化，反序列化时不会调用构造方法，static和transient字段会被忽略<br/>
+ * 以下情况不能生成序列化器，仍然使用对象流序列化：由启动类加载器加载的类、实现了{@link Externalizable}、
+ * 父类没有实现{@link Serializable}、自定义了writeObject、readObject、writeReplace、readResolve等序列化方法或者serialPersistentFields<br/>
+ * 序列化时只有标记了{@link FieldSerializable}的类才会使用，写入时带上类结构的指纹，两端的类定义不一致时读取方直接报错，
+ * 同一个对象只写入一次，后面出现的写入引用，所以支持共享对象和循环引用<br/>
+ * 同时生成字段拷贝方法，供{@link ObjectCopier}深拷贝对象，不需要经过序列化和反序列化，同一个进程内类定义总是一致的，所以拷贝时不需要标记
+ */
+public abstract class FieldSerializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FieldSerializer.class);
+
+    protected static final Unsafe UNSAFE = unsafe();
+
+    private static final String[] SPECIAL_METHODS = {"writeObject", "readObject", "readObjectNoData", "writeReplace", "readResolve"};
+
+    private static final ClassValue<Optional<FieldSerializer>> serializers = new ClassValue<Optional<FieldSerializer>>() {
+        @Override
+        protected Optional<FieldSerializer> computeValue(Class<?> clazz) {
+            return Optional.ofNullable(generate(clazz));
+        }
+    };
+
+    /**
+     * 反序列化时通过类名查找的类，key:类名
+     */
+    private static final Map<String, Class<?>> classes = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    private static final Loader loader = new Loader();
+
+    private Class<?> clazz;
+
+    /**
+     * 类结构的指纹，由所有参与序列化的字段的声明类、名字和类型计算得出
+     */
+    private int fingerprint;
+
+    /**
+     * 把对象的字段写入{@link ObjectWriter}，不包含类型标记和类名
+     */
+    public abstract void write(ObjectWriter writer, Object value);
+
+    /**
+     * 从{@link ObjectReader}读取字段的值并设置到对象上
+     */
+    public abstract void read(ObjectReader reader, Object value);
+
+    /**
+     * 把源对象的字段拷贝到目标对象，原生类型的字段直接复制，其他字段通过{@link ObjectCopier#copy(Object)}拷贝
+     */
+    public abstract void copy(ObjectCopier copier, Object source, Object target);
+
+    /**
+     * 创建对象，不会调用构造方法
+     */
+    public Object newInstance() {
+        try {
+            return UNSAFE.allocateInstance(clazz);
+        } catch (InstantiationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public int getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * 序列化时是否使用字段序列化器，参考{@link FieldSerializable}
+     */
+    public boolean isSerializable() {
+        return clazz.isAnnotationPresent(FieldSerializable.class);
+    }
+
+    /**
+     * 获取类的字段序列化器，不能生成时返回null
+     */
+    public static FieldSerializer get(Class<?> clazz) {
+        return serializers.get(clazz).orElse(null);
+    }
+
+    /**
+     * 通过类名获取字段序列化器，不能生成时返回null
+     */
+    public static FieldSerializer get(String className) {
+        Class<?> clazz = classes.computeIfAbsent(className, name -> {
+            try {
+                return Class.forName(name);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        return get(clazz);
+    }
+
+    private static Unsafe unsafe() {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return (Unsafe) field.get(null);
+        } catch (Exception e) {
+            logger.error("获取Unsafe出错，不能使用字段序列化器", e);
+            return null;
+        }
+    }
+
+    /**
+     * 收集需要序列化的字段，不支持的类返回null
+     */
+    private static List<Field> collectFields(Class<?> clazz) {
+        if (UNSAFE == null || clazz.getClassLoader() == null || clazz.isInterface() || clazz.isArray()
+                || Modifier.isAbstract(clazz.getModifiers()) || Externalizable.class.isAssignableFrom(clazz)) {
+            return null;
+        }
+
+        LinkedList<Class<?>> hierarchy = new LinkedList<>();
+        for (Class<?> c = clazz; c != Object.class; c = c.getSuperclass()) {
+            if (!Serializable.class.isAssignableFrom(c) || hasSpecialMember(c)) {
+                return null;
+            }
+            hierarchy.addFirst(c);
+        }
+
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c : hierarchy) {
+            List<Field> declaredFields = new ArrayList<>();
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                    declaredFields.add(field);
+                }
+            }
+            declaredFields.sort(Comparator.comparing(Field::getName));
+            fields.addAll(declaredFields);
+        }
+
+        return fields;
+    }
+
+    private static boolean hasSpecialMember(Class<?> clazz) {
+        for (java.lang.reflect.Method method : clazz.getDeclaredMethods()) {
+            if (Arrays.asList(SPECIAL_METHODS).contains(method.getName())) {
+                return true;
+            }
+        }
+        try {
+            clazz.getDeclaredField("serialPersistentFields");
+            return true;
+        } catch (NoSuchFieldException e) {
+            return false;
+        }
+    }
+
+    private static FieldSerializer generate(Class<?> clazz) {
+        List<Field> fields = collectFields(clazz);
+        if (fields == null) {
+            return null;
+        }
+
+        String className = FieldSerializer.class.getName() + "$" + clazz.getSimpleName() + "$" + counter.incrementAndGet();
+
+        try {
+            FieldSerializer serializer = (FieldSerializer) loader.define(className, generateBytes(className, fields)).getDeclaredConstructor().newInstance();
+            serializer.clazz = clazz;
+            serializer.fingerprint = fingerprint(fields);
+            return serializer;
+        } catch (Throwable e) {
+            logger.error("生成{}的字段序列化器出错，使用对象流序列化", clazz.getName(), e);
+            return null;
+        }
+    }
+
+    private static int fingerprint(List<Field> fields) {
+        StringBuilder builder = new StringBuilder();
+        for (Field field : fields) {
+            builder.append(field.getDeclaringClass().getName()).append('.').append(field.getName())
+                    .append(':').append(field.getType().getName()).append(';');
+        }
+        return builder.toString().hashCode();
+    }
+
+    private static byte[] generateBytes(String className, List<Field> fields) {
+        String internalName = className.replace('.', '/');
+        String superName = Type.getInternalName(FieldSerializer.class);
+        String unsafeName = Type.getInternalName(Unsafe.class);
+        String unsafeDesc = Type.getDescriptor(Unsafe.class);
+        String writerName = Type.getInternalName(ObjectWriter.class);
+        String readerName = Type.getInternalName(ObjectReader.class);
+        String copierName = Type.getInternalName(ObjectCopier.class);
+        String bufferName = Type.getInternalName(CodedBuffer.class);
+        String bufferDesc = Type.getDescriptor(CodedBuffer.class);
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SYNTHETIC, internalName, null, superName, null);
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, superName, "<init>", "()V", false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        //局部变量：1:writer，2:value，3:buffer
+        mv = cw.visitMethod(ACC_PUBLIC, "write", "(L" + writerName + ";Ljava/lang/Object;)V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKEVIRTUAL, writerName, "getBuffer", "()" + bufferDesc, false);
+        mv.visitVarInsn(ASTORE, 3);
+        for (Field field : fields) {
+            Class<?> type = field.getType();
+            long offset = UNSAFE.objectFieldOffset(field);
+            if (type.isPrimitive()) {
+                String desc = Type.getDescriptor(type);
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitFieldInsn(GETSTATIC, superName, "UNSAFE", unsafeDesc);
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitLdcInsn(offset);
+                mv.visitMethodInsn(INVOKEVIRTUAL, unsafeName, "get" + unsafeSuffix(type), "(Ljava/lang/Object;J)" + desc, false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, bufferName, "write" + bufferSuffix(type), "(" + bufferDesc(type) + ")V", false);
+            } else {
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitFieldInsn(GETSTATIC, superName, "UNSAFE", unsafeDesc);
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitLdcInsn(offset);
+                mv.visitMethodInsn(INVOKEVIRTUAL, unsafeName, "getObject", "(Ljava/lang/Object;J)Ljava/lang/Object;", false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, writerName, "write", "(Ljava/lang/Object;)V", false);
+            }
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        //局部变量：1:reader，2:value，3:buffer
+        mv = cw.visitMethod(ACC_PUBLIC, "read", "(L" + readerName + ";Ljava/lang/Object;)V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKEVIRTUAL, readerName, "getBuffer", "()" + bufferDesc, false);
+        mv.visitVarInsn(ASTORE, 3);
+        for (Field field : fields) {
+            Class<?> type = field.getType();
+            long offset = UNSAFE.objectFieldOffset(field);
+            mv.visitFieldInsn(GETSTATIC, superName, "UNSAFE", unsafeDesc);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitLdcInsn(offset);
+            if (type.isPrimitive()) {
+                String desc = Type.getDescriptor(type);
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitMethodInsn(INVOKEVIRTUAL, bufferName, "read" + bufferSuffix(type), "()" + bufferDesc(type), false);
+                if (type == char.class) {
+                    mv.visitInsn(I2C);
+                }
+                mv.visitMethodInsn(INVOKEVIRTUAL, unsafeName, "put" + unsafeSuffix(type), "(Ljava/lang/Object;J" + desc + ")V", false);
+            } else {
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitMethodInsn(INVOKEVIRTUAL, readerName, "read", "()Ljava/lang/Object;", false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, unsafeName, "putObject", "(Ljava/lang/Object;JLjava/lang/Object;)V", false);
+            }
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        //局部变量：1:copier，2:source，3:target
+        mv = cw.visitMethod(ACC_PUBLIC, "copy", "(L" + copierName + ";Ljava/lang/Object;Ljava/lang/Object;)V", null, null);
+        mv.visitCode();
+        for (Field field : fields) {
+            Class<?> type = field.getType();
+            long offset = UNSAFE.objectFieldOffset(field);
+            mv.visitFieldInsn(GETSTATIC, superName, "UNSAFE", unsafeDesc);
+            mv.visitVarInsn(ALOAD, 3);
+            mv.visitLdcInsn(offset);
+            if (type.isPrimitive()) {
+                String desc = Type.getDescriptor(type);
+                mv.visitFieldInsn(GETSTATIC, superName, "UNSAFE", unsafeDesc);
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitLdcInsn(offset);
+                mv.visitMethodInsn(INVOKEVIRTUAL, unsafeName, "get" + unsafeSuffix(type), "(Ljava/lang/Object;J)" + desc, false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, unsafeName, "put" + unsafeSuffix(type), "(Ljava/lang/Object;J" + desc + ")V", false);
+            } else {
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitFieldInsn(GETSTATIC, superName, "UNSAFE", unsafeDesc);
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitLdcInsn(offset);
+                mv.visitMethodInsn(INVOKEVIRTUAL, unsafeName, "getObject", "(Ljava/lang/Object;J)Ljava/lang/Object;", false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, copierName, "copy", "(Ljava/lang/Object;)Ljava/lang/Object;", false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, unsafeName, "putObject", "(Ljava/lang/Object;JLjava/lang/Object;)V", false);
+            }
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * 原生类型在{@link Unsafe}中对应的读写方法名后缀
+     */
+    private static String unsafeSuffix(Class<?> type) {
+        String name = type.getName();
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * 原生类型在{@link CodedBuffer}中对应的读写方法名后缀，char按int读写
+     */
+    private static String bufferSuffix(Class<?> type) {
+        if (type == boolean.class) {
+            return "Bool";
+        } else if (type == char.class) {
+            return "Int";
+        } else {
+            return unsafeSuffix(type);
+        }
+    }
+
+    private static String bufferDesc(Class<?> type) {
+        return type == char.class ? "I" : Type.getDescriptor(type);
+    }
+
+    /**
+     * 加载生成的序列化器，生成的类只依赖{@link FieldSerializer}所在的类加载器能访问的类
+     */
+    private static class Loader extends ClassLoader {
+
+        Loader() {
+            super(FieldSerializer.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            synchronized (getClassLoadingLock(name)) {
+                return defineClass(name, bytes, 0, bytes.length);
+            }
+        }
+
+    }
+
+}
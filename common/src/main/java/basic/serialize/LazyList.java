@@ -0,0 +1,64 @@
+package basic.serialize;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.RandomAccess;
+
+/**
+ * 延迟解码的只读列表，按下标访问时才解码到该下标为止的元素，解码过的元素会被保留<br/>
+ * 在按下标访问之前遍历时逐个解码，不会保留解码过的元素，适合只遍历一次或者提前结束遍历的场景
+ *
+ * @see ObjectReader#setLazyEnabled(boolean)
+ */
+public final class LazyList<E> extends AbstractList<E> implements RandomAccess {
+
+    private final LazySource source;
+
+    private final Object[] elements;
+
+    /**
+     * 按下标访问时使用的{@link ObjectReader}，所有元素都解码之后置空
+     */
+    private ObjectReader reader;
+
+    private int decodedCount;
+
+    LazyList(LazySource source) {
+        this.source = source;
+        this.elements = new Object[source.size];
+    }
+
+    @Override
+    public int size() {
+        return source.size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= source.size) {
+            throw new IndexOutOfBoundsException("index:" + index + ",size:" + source.size);
+        }
+        if (index >= decodedCount) {
+            if (reader == null) {
+                reader = source.open();
+            }
+            while (decodedCount <= index) {
+                elements[decodedCount++] = reader.readAny();
+            }
+            if (decodedCount == source.size) {
+                reader = null;
+            }
+        }
+        return (E) elements[index];
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        if (decodedCount > 0) {
+            return super.iterator();
+        }
+        return source.elementIterator();
+    }
+
+}
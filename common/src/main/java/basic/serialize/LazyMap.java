@@ -0,0 +1,67 @@
+package basic.serialize;
+
+import java.util.*;
+
+/**
+ * 延迟解码的只读Map，遍历时逐个解码，不会保留解码过的键值对<br/>
+ * 第一次按key查找时才会解码所有键值对并保留下来
+ *
+ * @see ObjectReader#setLazyEnabled(boolean)
+ */
+public final class LazyMap<K, V> extends AbstractMap<K, V> {
+
+    private final LazySource source;
+
+    private Map<K, V> decoded;
+
+    private Set<Map.Entry<K, V>> entrySet;
+
+    LazyMap(LazySource source) {
+        this.source = source;
+    }
+
+    private Map<K, V> decoded() {
+        if (decoded == null) {
+            Map<K, V> map = new HashMap<>(ObjectReader.hashCapacity(source.size));
+            source.<K, V>entryIterator().forEachRemaining(e -> map.put(e.getKey(), e.getValue()));
+            decoded = map;
+        }
+        return decoded;
+    }
+
+    @Override
+    public int size() {
+        return source.size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return decoded().containsKey(key);
+    }
+
+    @Override
+    public V get(Object key) {
+        return decoded().get(key);
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<K, V>>() {
+
+                @Override
+                public int size() {
+                    return source.size;
+                }
+
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return decoded != null ? Collections.unmodifiableMap(decoded).entrySet().iterator() : source.entryIterator();
+                }
+
+            };
+        }
+        return entrySet;
+    }
+
+}
@@ -0,0 +1,44 @@
+package basic.serialize;
+
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * 延迟解码的只读集合，遍历时逐个解码，不会保留解码过的元素<br/>
+ * 第一次调用{@link #contains(Object)}时才会解码所有元素并保留下来
+ *
+ * @see ObjectReader#setLazyEnabled(boolean)
+ */
+public final class LazySet<E> extends AbstractSet<E> {
+
+    private final LazySource source;
+
+    private Set<E> decoded;
+
+    LazySet(LazySource source) {
+        this.source = source;
+    }
+
+    @Override
+    public int size() {
+        return source.size;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return decoded != null ? decoded.iterator() : source.elementIterator();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (decoded == null) {
+            Set<E> set = new HashSet<>(ObjectReader.hashCapacity(source.size));
+            source.<E>elementIterator().forEachRemaining(set::add);
+            decoded = set;
+        }
+        return decoded.contains(o);
+    }
+
+}
@@ -0,0 +1,100 @@
+package basic.serialize;
+
+import basic.exception.MalformedFrameException;
+import basic.message.DefaultCodedBuffer;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * 延迟解码的集合保留的原始数据，依次是元素数量和各个元素，每次遍历都从头开始解码
+ *
+ * @see ObjectType#LAZY_COLLECTION
+ * @see ObjectType#LAZY_MAP
+ */
+final class LazySource {
+
+    private final ObjectReader reader;
+
+    private final byte[] body;
+
+    final int size;
+
+    LazySource(ObjectReader reader, byte[] body) {
+        this.reader = reader;
+        this.body = body;
+        this.size = reader.newReader(new DefaultCodedBuffer(body)).getBuffer().readInt();
+        //每个元素至少占1个字节
+        if (size < 0 || size > body.length) {
+            throw new MalformedFrameException("集合大小不合法:" + size);
+        }
+    }
+
+    /**
+     * 创建一个从第一个元素开始读取的{@link ObjectReader}
+     */
+    ObjectReader open() {
+        ObjectReader elementReader = reader.newReader(new DefaultCodedBuffer(body));
+        elementReader.getBuffer().readInt();
+        return elementReader;
+    }
+
+    /**
+     * 逐个解码元素的迭代器，解码过的元素不会被保留
+     */
+    <E> Iterator<E> elementIterator() {
+        ObjectReader elementReader = open();
+        return new Iterator<E>() {
+
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                index++;
+                return (E) elementReader.readAny();
+            }
+
+        };
+    }
+
+    /**
+     * 逐个解码键值对的迭代器，解码过的键值对不会被保留
+     */
+    <K, V> Iterator<Map.Entry<K, V>> entryIterator() {
+        ObjectReader entryReader = open();
+        return new Iterator<Map.Entry<K, V>>() {
+
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Map.Entry<K, V> next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                index++;
+                K key = (K) entryReader.readAny();
+                V value = (V) entryReader.readAny();
+                return new AbstractMap.SimpleImmutableEntry<>(key, value);
+            }
+
+        };
+    }
+
+}
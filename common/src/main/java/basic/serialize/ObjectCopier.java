@@ -0,0 +1,224 @@
+package basic.serialize;
+
+import basic.collection.IntArrayList;
+import basic.collection.IntObjectHashMap;
+import basic.collection.LongArrayList;
+import basic.collection.LongLongHashMap;
+import basic.message.CodedBuffer;
+import basic.message.CodedBufferPool;
+import basic.message.Message;
+import basic.protocol.Protocol;
+import util.ConstantUtils;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 对象深拷贝，用于同一个进程内的调用，代替序列化之后再反序列化<br/>
+ * 常量直接共享不拷贝，参考{@link ConstantUtils#isConstant(Object)}，集合和数组逐个拷贝元素，
+ * 可以生成{@link FieldSerializer}的对象通过生成的字段拷贝方法拷贝，其他对象仍然通过{@link ObjectWriter}和{@link ObjectReader}拷贝<br/>
+ * 拷贝结果的类型和序列化之后再反序列化的结果一致，例如{@link LinkedHashMap}拷贝之后是{@link HashMap}<br/>
+ * 通过字段拷贝的对象在同一次拷贝中只拷贝一次，支持共享对象和循环引用，不支持集合直接或者间接包含自己
+ */
+public class ObjectCopier {
+
+    /**
+     * 当前线程正在拷贝的对象，key:源对象，value:拷贝结果，最外层的字段拷贝完成之后清空<br/>
+     * 拷贝器会被多个线程共享，所以不能保存在对象上
+     */
+    private static final ThreadLocal<Map<Object, Object>> fieldCopies = new ThreadLocal<>();
+
+    protected TransferableRegistry transferableRegistry;
+
+    protected EnumRegistry enumRegistry;
+
+    protected Function<Integer, Message> messageFactory;
+
+    public void setTransferableRegistry(TransferableRegistry transferableRegistry) {
+        this.transferableRegistry = Objects.requireNonNull(transferableRegistry);
+    }
+
+    public void setEnumRegistry(EnumRegistry enumRegistry) {
+        this.enumRegistry = Objects.requireNonNull(enumRegistry);
+    }
+
+    public void setMessageFactory(Function<Integer, Message> messageFactory) {
+        this.messageFactory = Objects.requireNonNull(messageFactory);
+    }
+
+    /**
+     * 按类型缓存的拷贝策略，每个类型只需要解析一次
+     */
+    private static final ClassValue<BiFunction<ObjectCopier, Object, Object>> valueCopiers = new ClassValue<BiFunction<ObjectCopier, Object, Object>>() {
+        @Override
+        protected BiFunction<ObjectCopier, Object, Object> computeValue(Class<?> clazz) {
+            return resolveValueCopier(clazz);
+        }
+    };
+
+    /**
+     * 解析类型对应的拷贝策略，判断顺序和{@link ObjectWriter}选择写入格式的顺序一致
+     */
+    private static BiFunction<ObjectCopier, Object, Object> resolveValueCopier(Class<?> clazz) {
+        if (clazz.isArray()) {
+            Class<?> componentType = clazz.getComponentType();
+            if (componentType.isPrimitive() || componentType == String.class) {
+                return (copier, value) -> copier.copyArray(value);
+            }
+            return (copier, value) -> copier.copy((Object[]) value);
+        } else if (clazz == BitSet.class) {
+            return (copier, value) -> ((BitSet) value).clone();
+        } else if (clazz == IntArrayList.class) {
+            return (copier, value) -> new IntArrayList(((IntArrayList) value).toArray());
+        } else if (clazz == LongArrayList.class) {
+            return (copier, value) -> new LongArrayList(((LongArrayList) value).toArray());
+        } else if (clazz == IntObjectHashMap.class) {
+            return (copier, value) -> copier.copy((IntObjectHashMap<?>) value);
+        } else if (clazz == LongLongHashMap.class) {
+            return (copier, value) -> copier.copy((LongLongHashMap) value);
+        } else if (Collection.class.isAssignableFrom(clazz)) {
+            return (copier, value) -> copier.copy((Collection<?>) value);
+        } else if (Map.class.isAssignableFrom(clazz)) {
+            return (copier, value) -> copier.copy((Map<?, ?>) value);
+        } else if (Protocol.class.isAssignableFrom(clazz) || Transferable.class.isAssignableFrom(clazz) || Message.class.isAssignableFrom(clazz)) {
+            return ObjectCopier::copyBySerialize;
+        } else if (Serializable.class.isAssignableFrom(clazz)) {
+            FieldSerializer fieldSerializer = FieldSerializer.get(clazz);
+            if (fieldSerializer != null) {
+                return (copier, value) -> copier.copyFields(fieldSerializer, value);
+            }
+        }
+        return ObjectCopier::copyBySerialize;
+    }
+
+    /**
+     * 深拷贝对象，常量直接返回原对象
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T copy(T value) {
+        if (ConstantUtils.isConstant(value)) {
+            return value;
+        }
+        return (T) valueCopiers.get(value.getClass()).apply(this, value);
+    }
+
+    /**
+     * 拷贝字段之前先记录拷贝结果，字段中再次出现同一个对象时直接使用已经拷贝的结果
+     */
+    private Object copyFields(FieldSerializer fieldSerializer, Object value) {
+        Map<Object, Object> copies = fieldCopies.get();
+        boolean outermost = copies == null;
+        if (outermost) {
+            copies = new IdentityHashMap<>();
+            fieldCopies.set(copies);
+        } else {
+            Object target = copies.get(value);
+            if (target != null) {
+                return target;
+            }
+        }
+
+        try {
+            Object target = fieldSerializer.newInstance();
+            copies.put(value, target);
+            fieldSerializer.copy(this, value, target);
+            return target;
+        } finally {
+            if (outermost) {
+                fieldCopies.remove();
+            }
+        }
+    }
+
+    /**
+     * 拷贝原生类型和字符串数组，元素不需要拷贝
+     */
+    private Object copyArray(Object array) {
+        int length = Array.getLength(array);
+        Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T[] copy(T[] array) {
+        T[] copy = (T[]) Array.newInstance(array.getClass().getComponentType(), array.length);
+        for (int i = 0; i < array.length; i++) {
+            copy[i] = copy(array[i]);
+        }
+        return copy;
+    }
+
+    private IntObjectHashMap<Object> copy(IntObjectHashMap<?> map) {
+        IntObjectHashMap<Object> copy = new IntObjectHashMap<>(map.size());
+        map.forEach((k, v) -> copy.put(k, copy(v)));
+        return copy;
+    }
+
+    private LongLongHashMap copy(LongLongHashMap map) {
+        LongLongHashMap copy = new LongLongHashMap(map.size());
+        map.forEach(copy::put);
+        return copy;
+    }
+
+    private Collection<Object> copy(Collection<?> collection) {
+        Collection<Object> copy;
+        if (collection instanceof SortedSet) {
+            if (collection.isEmpty() || ((SortedSet<?>) collection).first() instanceof Comparable) {
+                copy = new TreeSet<>();
+            } else {
+                copy = new HashSet<>(ObjectReader.hashCapacity(collection.size()));
+            }
+        } else if (collection instanceof Set) {
+            copy = new HashSet<>(ObjectReader.hashCapacity(collection.size()));
+        } else if (collection instanceof LinkedList) {
+            copy = new LinkedList<>();
+        } else if (collection instanceof ArrayDeque) {
+            copy = new ArrayDeque<>(collection.size());
+        } else {
+            copy = new ArrayList<>(collection.size());
+        }
+
+        for (Object element : collection) {
+            copy.add(copy(element));
+        }
+        return copy;
+    }
+
+    private Map<Object, Object> copy(Map<?, ?> map) {
+        Map<Object, Object> copy;
+        if (map instanceof SortedMap && (map.isEmpty() || ((SortedMap<?, ?>) map).firstKey() instanceof Comparable)) {
+            copy = new TreeMap<>();
+        } else {
+            copy = new HashMap<>(ObjectReader.hashCapacity(map.size()));
+        }
+
+        map.forEach((k, v) -> copy.put(copy(k), copy(v)));
+        return copy;
+    }
+
+    /**
+     * 通过序列化和反序列化拷贝对象，使用线程本地的缓冲池
+     */
+    protected Object copyBySerialize(Object value) {
+        CodedBuffer buffer = CodedBufferPool.lease();
+        try {
+            ObjectWriter writer = new ObjectWriter(buffer);
+            writer.transferableRegistry = transferableRegistry;
+            writer.enumRegistry = enumRegistry;
+            writer.write(value);
+
+            ObjectReader reader = new ObjectReader(buffer);
+            reader.transferableRegistry = transferableRegistry;
+            reader.enumRegistry = enumRegistry;
+            reader.messageFactory = messageFactory;
+            return reader.read();
+        } finally {
+            CodedBufferPool.recycle(buffer);
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+package basic.serialize;
+
+/**
+ * {@link ObjectWriter}和{@link ObjectReader}使用的编码格式，两端的设置必须一致<br/>
+ * {@link #TAGGED}：类型标记按变长整数写入，后面跟着数据<br/>
+ * {@link #COMPACT}：每个对象以1个头字节开始，小整数、短的ASCII字符串和布尔值直接编码在头字节中，其他对象的头字节是类型标记，后面的数据和{@link #TAGGED}格式一样<br/>
+ * 头字节的取值范围如下：
+ * <pre>
+ * 0x00-0x7F  Integer 0~127
+ * 0x80-0x9F  长度为0~31的ASCII字符串，后面跟着字符串的各个字节
+ * 0xA0-0xAF  Integer -16~-1
+ * 0xB0-0xBB  Long 0~11
+ * 0xBC       false
+ * 0xBD       true
+ * 0xBE-0xBF  保留
+ * 0xC0-0xFE  类型标记0~62，参考{@link ObjectType}
+ * 0xFF       后面跟着变长整数编码的类型标记
+ * </pre>
+ *
+ * @see basic.protocol.Handshake#OPTION_COMPACT
+ */
+public final class ObjectFormat {
+
+    /**
+     * 类型标记格式，默认格式
+     */
+    public static final int TAGGED = 0;
+
+    /**
+     * 头字节格式
+     */
+    public static final int COMPACT = 1;
+
+    static final int FIX_STR = 0x80;
+
+    static final int FIX_STR_MAX_LENGTH = 31;
+
+    static final int FIX_NEGATIVE_INT = 0xA0;
+
+    static final int FIX_NEGATIVE_INT_MIN = -16;
+
+    static final int FIX_LONG = 0xB0;
+
+    static final int FIX_LONG_MAX = 11;
+
+    static final int FALSE = 0xBC;
+
+    static final int TRUE = 0xBD;
+
+    static final int TYPE = 0xC0;
+
+    static final int TYPE_MAX = 0xFE - TYPE;
+
+    static final int EXTENDED_TYPE = 0xFF;
+
+    private ObjectFormat() {
+    }
+
+    static void check(int format) {
+        if (format != TAGGED && format != COMPACT) {
+            throw new IllegalArgumentException("编码格式不合法:" + format);
+        }
+    }
+
+    /**
+     * 字符串是否可以直接编码在头字节中
+     */
+    static boolean isFixStr(String s) {
+        int length = s.length();
+        if (length > FIX_STR_MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (s.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -1,6 +1,12 @@
 package basic.serialize;
 
+import basic.collection.IntArrayList;
+import basic.collection.IntObjectHashMap;
+import basic.collection.LongArrayList;
+import basic.collection.LongLongHashMap;
+import basic.exception.MalformedFrameException;
 import basic.message.CodedBuffer;
+import basic.message.DefaultCodedBuffer;
 import basic.message.Message;
 import basic.protocol.Protocol;
 
@@ -8,7 +14,10 @@ import java.io.ByteArrayInputStream;
 import java.io.ObjectInputStream;
 import java.lang.reflect.Array;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 
 import static basic.serialize.ObjectType.*;
 
@@ -24,8 +33,42 @@ public class ObjectReader {
 
     protected TransferableRegistry transferableRegistry;
 
+    protected EnumRegistry enumRegistry;
+
+    /**
+     * 没有注册的枚举类，key:类名
+     */
+    private static final Map<String, Class<?>> enumClasses = new ConcurrentHashMap<>();
+
     protected Function<Integer, Message> messageFactory;
 
+    /**
+     * 引用表，按读到的顺序保存可以被引用的对象，为空时表示没有启用
+     */
+    private List<Object> references;
+
+    /**
+     * 嵌套读取的深度，最外层的对象读完之后清空引用表
+     */
+    private int depth;
+
+    /**
+     * 通过{@link FieldSerializer}读取的对象，按读到的顺序保存，最外层的对象读完之后清空
+     */
+    private List<Object> fieldObjects;
+
+    /**
+     * 是否延迟解码按{@link ObjectType#LAZY_COLLECTION}和{@link ObjectType#LAZY_MAP}格式写入的集合
+     */
+    private boolean lazyEnabled;
+
+    /**
+     * 编码格式
+     *
+     * @see ObjectFormat
+     */
+    private int format = ObjectFormat.TAGGED;
+
     public ObjectReader(CodedBuffer buffer) {
         this.buffer = Objects.requireNonNull(buffer);
     }
@@ -34,21 +77,137 @@ public class ObjectReader {
         this.transferableRegistry = Objects.requireNonNull(transferableRegistry);
     }
 
+    public void setEnumRegistry(EnumRegistry enumRegistry) {
+        this.enumRegistry = Objects.requireNonNull(enumRegistry);
+    }
+
     public void setMessageFactory(Function<Integer, Message> messageFactory) {
         this.messageFactory = Objects.requireNonNull(messageFactory);
     }
 
+    /**
+     * 设置是否启用引用表，必须和{@link ObjectWriter#setReferenceEnabled(boolean)}的设置一致
+     */
+    public void setReferenceEnabled(boolean referenceEnabled) {
+        this.references = referenceEnabled ? new ArrayList<>() : null;
+        this.depth = 0;
+    }
+
+    public boolean isReferenceEnabled() {
+        return references != null;
+    }
+
+    /**
+     * 设置是否延迟解码集合，启用之后读到的{@link List}、{@link Set}和{@link Map}可能是只读的{@link LazyList}、{@link LazySet}和{@link LazyMap}，
+     * 使用时才解码元素，没有启用时仍然解码成普通的集合
+     *
+     * @see ObjectWriter#setLazyThreshold(int)
+     */
+    public void setLazyEnabled(boolean lazyEnabled) {
+        this.lazyEnabled = lazyEnabled;
+    }
+
+    /**
+     * 设置编码格式，必须和{@link ObjectWriter#setFormat(int)}的设置一致
+     */
+    public void setFormat(int format) {
+        ObjectFormat.check(format);
+        this.format = format;
+    }
+
+    public int getFormat() {
+        return format;
+    }
+
     public CodedBuffer getBuffer() {
         return buffer;
     }
 
+    /**
+     * 创建一个使用相同配置的{@link ObjectReader}，从指定的缓冲区读取
+     */
+    public ObjectReader newReader(CodedBuffer buffer) {
+        ObjectReader reader = new ObjectReader(buffer);
+        reader.transferableRegistry = transferableRegistry;
+        reader.enumRegistry = enumRegistry;
+        reader.messageFactory = messageFactory;
+        reader.setReferenceEnabled(isReferenceEnabled());
+        reader.lazyEnabled = lazyEnabled;
+        reader.format = format;
+        return reader;
+    }
+
     @SuppressWarnings("unchecked")
     public <T> T read() {
         return (T) readAny();
     }
 
+    /**
+     * 在信任模式下读取一整帧数据，调用方需要保证整帧数据都已经在缓冲区中，参考{@link CodedBuffer#readTrusted(Function)}
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T readTrusted() {
+        return (T) buffer.readTrusted(b -> readAny());
+    }
+
     public Object readAny() {
-        int type = buffer.readInt();
+        if (references == null) {
+            return readValue();
+        }
+
+        depth++;
+        try {
+            return readValue();
+        } finally {
+            if (--depth == 0) {
+                references.clear();
+            }
+        }
+    }
+
+    /**
+     * 读取类型标记，{@link ObjectFormat#COMPACT}格式下读到的头字节直接编码了数据时返回负数，参考{@link #readInline(int)}
+     */
+    private int readType() {
+        if (format == ObjectFormat.TAGGED) {
+            return buffer.readInt();
+        }
+        int header = buffer.readByte() & 0xFF;
+        if (header == ObjectFormat.EXTENDED_TYPE) {
+            return buffer.readInt();
+        } else if (header >= ObjectFormat.TYPE) {
+            return header - ObjectFormat.TYPE;
+        } else {
+            return -1 - header;
+        }
+    }
+
+    /**
+     * 解码直接编码在头字节中的数据
+     */
+    private Object readInline(int header) {
+        if (header < ObjectFormat.FIX_STR) {
+            return header;
+        } else if (header < ObjectFormat.FIX_NEGATIVE_INT) {
+            return readReferable(buffer.readAscii(header - ObjectFormat.FIX_STR));
+        } else if (header < ObjectFormat.FIX_LONG) {
+            return header - ObjectFormat.FIX_NEGATIVE_INT + ObjectFormat.FIX_NEGATIVE_INT_MIN;
+        } else if (header <= ObjectFormat.FIX_LONG + ObjectFormat.FIX_LONG_MAX) {
+            return (long) (header - ObjectFormat.FIX_LONG);
+        } else if (header == ObjectFormat.FALSE) {
+            return false;
+        } else if (header == ObjectFormat.TRUE) {
+            return true;
+        } else {
+            throw new MalformedFrameException("头字节不合法:" + header);
+        }
+    }
+
+    private Object readValue() {
+        int type = readType();
+        if (type < 0) {
+            return readInline(-1 - type);
+        }
         switch (type) {
             case NULL:
                 return null;
@@ -60,56 +219,86 @@ public class ObjectReader {
                 return buffer.readBool();
             case BOOLEAN_ARRAY:
                 return readBooleanArray();
+            case PACKED_BOOLEAN_ARRAY:
+                return buffer.readBools();
             case SHORT:
                 return buffer.readShort();
             case SHORT_ARRAY:
-                return readShortArray();
+                return buffer.readShorts();
+            case FIXED_SHORT_ARRAY:
+                return buffer.readFixedShorts();
             case INTEGER:
                 return buffer.readInt();
             case OPTIONAL_INT:
                 return readOptionalInt();
             case INT_ARRAY:
-                return readIntArray();
+                return buffer.readInts();
+            case FIXED_INT_ARRAY:
+                return buffer.readFixedInts();
             case LONG:
                 return buffer.readLong();
             case OPTIONAL_LONG:
                 return readOptionalLong();
             case LONG_ARRAY:
-                return readLongArray();
+                return buffer.readLongs();
+            case FIXED_LONG_ARRAY:
+                return buffer.readFixedLongs();
             case FLOAT:
                 return buffer.readFloat();
             case FLOAT_ARRAY:
-                return readFloatArray();
+                return buffer.readFloats();
             case DOUBLE:
                 return buffer.readDouble();
             case OPTIONAL_DOUBLE:
                 return readOptionalDouble();
             case DOUBLE_ARRAY:
-                return readDoubleArray();
+                return buffer.readDoubles();
             case STRING:
-                return buffer.readString();
+                return readReferable(buffer.readString());
+            case REFERENCE:
+                return readReference();
             case STRING_ARRAY:
                 return readStringArray();
+            case INT_LIST:
+                return new IntArrayList(buffer.readInts());
+            case FIXED_INT_LIST:
+                return new IntArrayList(buffer.readFixedInts());
+            case LONG_LIST:
+                return new LongArrayList(buffer.readLongs());
+            case FIXED_LONG_LIST:
+                return new LongArrayList(buffer.readFixedLongs());
+            case INT_OBJECT_MAP:
+                return readIntObjectMap();
+            case LONG_LONG_MAP:
+                return readLongLongMap();
+            case BIT_SET:
+                return BitSet.valueOf(buffer.readFixedLongs());
             case OBJECT:
                 return new Object();
             case OBJECT_ARRAY:
                 return readObjectArray();
             case ENUM:
                 return readEnum();
+            case REGISTERED_ENUM:
+                return readRegisteredEnum();
             case ARRAY_LIST:
-                return readCollection(new ArrayList<>());
+                return readCollection(ArrayList::new);
             case SORTED_SET:
-                return readCollection(new TreeSet<>());
+                return readSortedSet();
             case HASH_SET:
-                return readCollection(new HashSet<>());
+                return readCollection(size -> new HashSet<>(hashCapacity(size)));
             case LINKED_LIST:
-                return readCollection(new LinkedList<>());
+                return readCollection(size -> new LinkedList<>());
             case ARRAY_DEQUE:
-                return readCollection(new ArrayDeque<>());
+                return readCollection(ArrayDeque::new);
+            case LAZY_COLLECTION:
+                return readLazyCollection();
+            case LAZY_MAP:
+                return readLazyMap();
             case HASH_MAP:
-                return readMap(new HashMap<>());
+                return readMap(size -> new HashMap<>(hashCapacity(size)));
             case SORTED_MAP:
-                return readMap(new TreeMap<>());
+                return readSortedMap();
             case PROTOCOL:
                 return readProtocol();
             case TRANSFERABLE:
@@ -118,6 +307,8 @@ public class ObjectReader {
                 return readMessage();
             case SERIALIZABLE:
                 return readSerializable();
+            case FIELD_SERIALIZABLE:
+                return readFieldSerializable();
             default:
                 return readOther(type);
         }
@@ -133,15 +324,6 @@ public class ObjectReader {
         return array;
     }
 
-    private short[] readShortArray() {
-        int length = buffer.readInt();
-        short[] array = new short[length];
-        for (int i = 0; i < length; i++) {
-            array[i] = buffer.readShort();
-        }
-        return array;
-    }
-
     private OptionalInt readOptionalInt() {
         if (buffer.readBool()) {
             return OptionalInt.of(buffer.readInt());
@@ -150,15 +332,6 @@ public class ObjectReader {
         }
     }
 
-    private int[] readIntArray() {
-        int length = buffer.readInt();
-        int[] array = new int[length];
-        for (int i = 0; i < length; i++) {
-            array[i] = buffer.readInt();
-        }
-        return array;
-    }
-
     private OptionalLong readOptionalLong() {
         if (buffer.readBool()) {
             return OptionalLong.of(buffer.readLong());
@@ -167,24 +340,6 @@ public class ObjectReader {
         }
     }
 
-    private long[] readLongArray() {
-        int length = buffer.readInt();
-        long[] array = new long[length];
-        for (int i = 0; i < length; i++) {
-            array[i] = buffer.readLong();
-        }
-        return array;
-    }
-
-    private float[] readFloatArray() {
-        int length = buffer.readInt();
-        float[] array = new float[length];
-        for (int i = 0; i < length; i++) {
-            array[i] = buffer.readFloat();
-        }
-        return array;
-    }
-
     private OptionalDouble readOptionalDouble() {
         if (buffer.readBool()) {
             return OptionalDouble.of(buffer.readDouble());
@@ -193,15 +348,6 @@ public class ObjectReader {
         }
     }
 
-    private double[] readDoubleArray() {
-        int length = buffer.readInt();
-        double[] array = new double[length];
-        for (int i = 0; i < length; i++) {
-            array[i] = buffer.readDouble();
-        }
-        return array;
-    }
-
     private String[] readStringArray() {
         int length = buffer.readInt();
         String[] array = new String[length];
@@ -232,32 +378,262 @@ public class ObjectReader {
 
     @SuppressWarnings({"unchecked", "rawtypes"})
     protected Enum readEnum() {
-        Class enumClass;
-        try {
-            enumClass = Class.forName(buffer.readString());
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+        Class enumClass = enumClasses.computeIfAbsent(buffer.readString(), className -> {
+            try {
+                return Class.forName(className);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        return readReferable(Enum.valueOf(enumClass, buffer.readString()));
+    }
+
+    /**
+     * 启用了引用表时把可以被引用的对象记录下来
+     */
+    private <T> T readReferable(T value) {
+        if (references != null) {
+            references.add(value);
+        }
+        return value;
+    }
+
+    protected Object readReference() {
+        int index = buffer.readInt();
+        if (references == null || index < 0 || index >= references.size()) {
+            throw new MalformedFrameException("引用索引不合法:" + index);
         }
-        return Enum.valueOf(enumClass, buffer.readString());
+        return references.get(index);
+    }
+
+    protected Enum<?> readRegisteredEnum() {
+        if (enumRegistry == null) {
+            throw new IllegalStateException(EnumRegistry.class.getSimpleName() + "未设置");
+        }
+        int id = buffer.readInt();
+        return enumRegistry.valueOf(id, buffer.readInt());
+    }
+
+
+    /**
+     * 集合的初始容量，数据中的大小不可信，初始容量不超过剩余的字节数
+     */
+    private int initialCapacity(int size) {
+        return Math.max(0, Math.min(size, buffer.readableCount()));
     }
 
+    /**
+     * 保证放入指定数量的元素时不需要扩容的{@link HashMap}和{@link HashSet}的容量
+     */
+    static int hashCapacity(int size) {
+        return size < 3 ? size + 1 : (int) (size / 0.75F + 1);
+    }
 
-    protected Collection<Object> readCollection(Collection<Object> collection) {
+    /**
+     * @param factory 参数是集合的初始容量
+     */
+    protected Collection<Object> readCollection(IntFunction<? extends Collection<Object>> factory) {
         int size = buffer.readInt();
+        Collection<Object> collection = factory.apply(initialCapacity(size));
         for (int i = 0; i < size; i++) {
             collection.add(readAny());
         }
         return collection;
     }
 
-    protected Map<Object, Object> readMap(Map<Object, Object> map) {
+    /**
+     * 写入方的元素本来就是有序的，确认有序之后直接构建{@link TreeSet}，不需要逐个插入
+     */
+    @SuppressWarnings("unchecked")
+    protected SortedSet<Object> readSortedSet() {
+        int size = buffer.readInt();
+        Object[] elements = new Object[initialCapacity(size)];
+        boolean sorted = true;
+        for (int i = 0; i < size; i++) {
+            Object element = readAny();
+            if (i == elements.length) {
+                elements = Arrays.copyOf(elements, Math.max(i << 1, 8));
+            }
+            elements[i] = element;
+            if (sorted && i > 0 && ((Comparable<Object>) elements[i - 1]).compareTo(element) >= 0) {
+                sorted = false;
+            }
+        }
+
+        if (sorted) {
+            return new TreeSet<>(new SortedElements(elements, size));
+        }
+
+        TreeSet<Object> set = new TreeSet<>();
+        for (int i = 0; i < size; i++) {
+            set.add(elements[i]);
+        }
+        return set;
+    }
+
+    protected Collection<Object> readLazyCollection() {
+        int type = buffer.readInt();
+        byte[] body = buffer.readBytes();
+
+        if (lazyEnabled && type != LINKED_LIST) {
+            if (type == ARRAY_LIST) {
+                return new LazyList<>(new LazySource(this, body));
+            } else if (type == HASH_SET) {
+                return new LazySet<>(new LazySource(this, body));
+            }
+        }
+
+        ObjectReader bodyReader = newReader(new DefaultCodedBuffer(body));
+        switch (type) {
+            case ARRAY_LIST:
+                return bodyReader.readCollection(ArrayList::new);
+            case LINKED_LIST:
+                return bodyReader.readCollection(size -> new LinkedList<>());
+            case HASH_SET:
+                return bodyReader.readCollection(size -> new HashSet<>(hashCapacity(size)));
+            default:
+                throw new MalformedFrameException("延迟解码的集合类型不合法:" + type);
+        }
+    }
+
+    protected Map<Object, Object> readLazyMap() {
+        int type = buffer.readInt();
+        byte[] body = buffer.readBytes();
+        if (type != HASH_MAP) {
+            throw new MalformedFrameException("延迟解码的Map类型不合法:" + type);
+        }
+        if (lazyEnabled) {
+            return new LazyMap<>(new LazySource(this, body));
+        }
+        return newReader(new DefaultCodedBuffer(body)).readMap(size -> new HashMap<>(hashCapacity(size)));
+    }
+
+    /**
+     * 流式读取下一个集合、Map或者数组的元素，元素逐个解码之后交给调用方处理，不会创建集合对象<br/>
+     * Map的元素是{@link Map.Entry}，读到的不是集合、Map或者数组时当做只有一个元素处理
+     *
+     * @return 元素数量
+     */
+    public <E> int readElements(Consumer<? super E> action) {
+        if (references == null) {
+            return readElementValues(action);
+        }
+
+        depth++;
+        try {
+            return readElementValues(action);
+        } finally {
+            if (--depth == 0) {
+                references.clear();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E> int readElementValues(Consumer<? super E> action) {
+        buffer.mark();
+        int type = readType();
+        switch (type) {
+            case ARRAY_LIST:
+            case SORTED_SET:
+            case HASH_SET:
+            case LINKED_LIST:
+            case ARRAY_DEQUE:
+            case OBJECT_ARRAY: {
+                int size = buffer.readInt();
+                for (int i = 0; i < size; i++) {
+                    action.accept((E) readAny());
+                }
+                return size;
+            }
+            case HASH_MAP:
+            case SORTED_MAP: {
+                int size = buffer.readInt();
+                for (int i = 0; i < size; i++) {
+                    action.accept((E) new AbstractMap.SimpleImmutableEntry<>(readAny(), readAny()));
+                }
+                return size;
+            }
+            case LAZY_COLLECTION:
+            case LAZY_MAP: {
+                buffer.readInt();
+                LazySource source = new LazySource(this, buffer.readBytes());
+                Iterator<E> iterator = type == LAZY_MAP ? (Iterator<E>) (Iterator<?>) source.entryIterator() : source.elementIterator();
+                iterator.forEachRemaining(action);
+                return source.size;
+            }
+            default: {
+                buffer.reset();
+                action.accept((E) readValue());
+                return 1;
+            }
+        }
+    }
+
+    /**
+     * @param factory 参数是Map的初始容量
+     */
+    protected Map<Object, Object> readMap(IntFunction<? extends Map<Object, Object>> factory) {
         int size = buffer.readInt();
+        Map<Object, Object> map = factory.apply(initialCapacity(size));
         for (int i = 0; i < size; i++) {
             map.put(readAny(), readAny());
         }
         return map;
     }
 
+    /**
+     * 写入方的key本来就是有序的，确认有序之后直接构建{@link TreeMap}，不需要逐个插入
+     */
+    @SuppressWarnings("unchecked")
+    protected SortedMap<Object, Object> readSortedMap() {
+        int size = buffer.readInt();
+        Object[] keys = new Object[initialCapacity(size)];
+        Object[] values = new Object[keys.length];
+        boolean sorted = true;
+        for (int i = 0; i < size; i++) {
+            Object key = readAny();
+            Object value = readAny();
+            if (i == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(i << 1, 8));
+                values = Arrays.copyOf(values, keys.length);
+            }
+            keys[i] = key;
+            values[i] = value;
+            if (sorted && i > 0 && ((Comparable<Object>) keys[i - 1]).compareTo(key) >= 0) {
+                sorted = false;
+            }
+        }
+
+        if (sorted) {
+            return new TreeMap<>(new SortedEntries(keys, values, size));
+        }
+
+        TreeMap<Object, Object> map = new TreeMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(keys[i], values[i]);
+        }
+        return map;
+    }
+
+    private IntObjectHashMap<Object> readIntObjectMap() {
+        int size = buffer.readInt();
+        IntObjectHashMap<Object> map = new IntObjectHashMap<>(initialCapacity(size));
+        for (int i = 0; i < size; i++) {
+            map.put(buffer.readInt(), readAny());
+        }
+        return map;
+    }
+
+    private LongLongHashMap readLongLongMap() {
+        int size = buffer.readInt();
+        LongLongHashMap map = new LongLongHashMap(initialCapacity(size));
+        for (int i = 0; i < size; i++) {
+            map.put(buffer.readLong(), buffer.readLong());
+        }
+        return map;
+    }
+
     protected Protocol readProtocol() {
         Protocol protocol = (Protocol) Protocol.getRegistry().create(buffer.readInt());
         protocol.transferFrom(this);
@@ -290,8 +666,191 @@ public class ObjectReader {
         }
     }
 
+    /**
+     * 读取字段之前先记录对象，字段中引用的对象可能就是它自己
+     */
+    protected Object readFieldSerializable() {
+        int index = buffer.readInt();
+        if (index != 0) {
+            if (fieldObjects == null || index < 0 || index > fieldObjects.size()) {
+                throw new MalformedFrameException("引用索引不合法:" + (index - 1));
+            }
+            return fieldObjects.get(index - 1);
+        }
+
+        String className = buffer.readString();
+        FieldSerializer fieldSerializer = FieldSerializer.get(className);
+        if (fieldSerializer == null || !fieldSerializer.isSerializable()) {
+            throw new RuntimeException("不支持的数据类型:" + className);
+        }
+        int fingerprint = buffer.readInt();
+        if (fingerprint != fieldSerializer.getFingerprint()) {
+            throw new RuntimeException(String.format("类[%s]的字段和写入方不一致，两端的类定义必须相同", className));
+        }
+
+        boolean outermost = fieldObjects == null;
+        if (outermost) {
+            fieldObjects = new ArrayList<>();
+        }
+        try {
+            Object value = fieldSerializer.newInstance();
+            fieldObjects.add(value);
+            fieldSerializer.read(this, value);
+            return value;
+        } finally {
+            if (outermost) {
+                fieldObjects = null;
+            }
+        }
+    }
+
     protected Object readOther(int type) {
         throw new RuntimeException("不支持的数据类型:" + type);
     }
 
+    /**
+     * 包装已经排好序的元素，用于直接构建{@link TreeSet}，只支持构建时用到的方法
+     */
+    private static class SortedElements extends AbstractSet<Object> implements SortedSet<Object> {
+
+        private final Object[] elements;
+
+        private final int size;
+
+        SortedElements(Object[] elements, int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return Arrays.asList(elements).subList(0, size).iterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Comparator<? super Object> comparator() {
+            return null;
+        }
+
+        @Override
+        public SortedSet<Object> subSet(Object fromElement, Object toElement) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedSet<Object> headSet(Object toElement) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedSet<Object> tailSet(Object fromElement) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object first() {
+            return elements[0];
+        }
+
+        @Override
+        public Object last() {
+            return elements[size - 1];
+        }
+
+    }
+
+    /**
+     * 包装已经按key排好序的键值对，用于直接构建{@link TreeMap}，只支持构建时用到的方法
+     */
+    private static class SortedEntries extends AbstractMap<Object, Object> implements SortedMap<Object, Object> {
+
+        private final Object[] keys;
+
+        private final Object[] values;
+
+        private final int size;
+
+        SortedEntries(Object[] keys, Object[] values, int size) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public Set<Entry<Object, Object>> entrySet() {
+            return new AbstractSet<Entry<Object, Object>>() {
+
+                @Override
+                public Iterator<Entry<Object, Object>> iterator() {
+                    return new Iterator<Entry<Object, Object>>() {
+
+                        private int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < size;
+                        }
+
+                        @Override
+                        public Entry<Object, Object> next() {
+                            if (index >= size) {
+                                throw new NoSuchElementException();
+                            }
+                            int i = index++;
+                            return new SimpleImmutableEntry<>(keys[i], values[i]);
+                        }
+
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Comparator<? super Object> comparator() {
+            return null;
+        }
+
+        @Override
+        public SortedMap<Object, Object> subMap(Object fromKey, Object toKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedMap<Object, Object> headMap(Object toKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedMap<Object, Object> tailMap(Object fromKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object firstKey() {
+            return keys[0];
+        }
+
+        @Override
+        public Object lastKey() {
+            return keys[size - 1];
+        }
+
+    }
+
 }
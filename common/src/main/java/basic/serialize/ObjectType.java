@@ -115,4 +115,89 @@ public interface ObjectType {
      */
     int SERIALIZABLE = 43;
 
+    /**
+     * 每个元素固定占2个字节的short数组，对应变长编码的{@link #SHORT_ARRAY}
+     */
+    int FIXED_SHORT_ARRAY = 44;
+
+    /**
+     * 每个元素固定占4个字节的int数组，对应变长编码的{@link #INT_ARRAY}
+     */
+    int FIXED_INT_ARRAY = 45;
+
+    /**
+     * 每个元素固定占8个字节的long数组，对应变长编码的{@link #LONG_ARRAY}
+     */
+    int FIXED_LONG_ARRAY = 46;
+
+    /**
+     * 按位压缩的boolean数组，每个元素占1位
+     */
+    int PACKED_BOOLEAN_ARRAY = 47;
+
+    /**
+     * {@link java.util.BitSet}本身，不包含其子类，按long数组整块写入
+     */
+    int BIT_SET = 48;
+
+    /**
+     * 在{@link EnumRegistry}中注册过的枚举，只包含类型ID和序号
+     */
+    int REGISTERED_ENUM = 49;
+
+    /**
+     * 通过{@link FieldSerializer}按字段序列化的{@link java.io.Serializable}对象，第一次出现时包含类名、类结构的指纹和各个字段的值，再次出现时只有引用索引
+     */
+    int FIELD_SERIALIZABLE = 50;
+
+    /**
+     * 引用同一次写入中已经写过的字符串或者枚举，只包含引用索引
+     *
+     * @see ObjectWriter#setReferenceEnabled(boolean)
+     */
+    int REFERENCE = 51;
+
+    /**
+     * {@link basic.collection.IntArrayList}，元素采用变长编码，和{@link #INT_ARRAY}的格式一致
+     */
+    int INT_LIST = 52;
+
+    /**
+     * {@link basic.collection.IntArrayList}，每个元素固定占4个字节，和{@link #FIXED_INT_ARRAY}的格式一致
+     */
+    int FIXED_INT_LIST = 53;
+
+    /**
+     * {@link basic.collection.LongArrayList}，元素采用变长编码，和{@link #LONG_ARRAY}的格式一致
+     */
+    int LONG_LIST = 54;
+
+    /**
+     * {@link basic.collection.LongArrayList}，每个元素固定占8个字节，和{@link #FIXED_LONG_ARRAY}的格式一致
+     */
+    int FIXED_LONG_LIST = 55;
+
+    /**
+     * {@link basic.collection.IntObjectHashMap}，依次是大小和各个元素，key没有类型标记，value按普通对象编码
+     */
+    int INT_OBJECT_MAP = 56;
+
+    /**
+     * {@link basic.collection.LongLongHashMap}，依次是大小和各个元素，key和value都没有类型标记
+     */
+    int LONG_LONG_MAP = 57;
+
+    /**
+     * 可以延迟解码的集合，依次是集合类型({@link #ARRAY_LIST}、{@link #LINKED_LIST}或者{@link #HASH_SET})和带长度前缀的集合数据，
+     * 集合数据包含元素数量和各个元素，使用独立的引用表
+     *
+     * @see ObjectWriter#setLazyThreshold(int)
+     */
+    int LAZY_COLLECTION = 58;
+
+    /**
+     * 可以延迟解码的Map，依次是Map类型({@link #HASH_MAP})和带长度前缀的Map数据，格式参考{@link #LAZY_COLLECTION}
+     */
+    int LAZY_MAP = 59;
+
 }
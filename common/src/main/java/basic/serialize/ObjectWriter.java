@@ -1,7 +1,12 @@
 package basic.serialize;
 
+import basic.collection.IntArrayList;
+import basic.collection.IntObjectHashMap;
+import basic.collection.LongArrayList;
+import basic.collection.LongLongHashMap;
 import basic.message.CodedBuffer;
 import basic.message.Message;
+import basic.message.SizeCodedBuffer;
 import basic.protocol.Protocol;
 
 import java.io.ByteArrayOutputStream;
@@ -9,6 +14,7 @@ import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 import static basic.serialize.ObjectType.*;
 
@@ -22,8 +28,38 @@ public class ObjectWriter {
 
     protected TransferableRegistry transferableRegistry;
 
+    protected EnumRegistry enumRegistry;
+
     private CodedBuffer buffer;
 
+    /**
+     * 引用表，key:已经写过的对象，value:引用索引，为空时表示没有启用
+     */
+    private Map<Object, Integer> references;
+
+    /**
+     * 嵌套写入的深度，最外层的对象写完之后清空引用表
+     */
+    private int depth;
+
+    /**
+     * 通过{@link FieldSerializer}写入的对象，key:对象，value:引用索引，按对象的标识查找<br/>
+     * 不管是否启用了引用表都需要记录，否则共享对象会被写入多次，循环引用会无限递归，最外层的对象写完之后清空
+     */
+    private IdentityHashMap<Object, Integer> fieldObjects;
+
+    /**
+     * 元素数量达到这个值的集合按可以延迟解码的格式写入，0表示不启用
+     */
+    private int lazyThreshold;
+
+    /**
+     * 编码格式
+     *
+     * @see ObjectFormat
+     */
+    private int format = ObjectFormat.TAGGED;
+
     public ObjectWriter(CodedBuffer buffer) {
         this.buffer = Objects.requireNonNull(buffer);
     }
@@ -32,106 +68,318 @@ public class ObjectWriter {
         this.transferableRegistry = Objects.requireNonNull(transferableRegistry);
     }
 
+    public void setEnumRegistry(EnumRegistry enumRegistry) {
+        this.enumRegistry = Objects.requireNonNull(enumRegistry);
+    }
+
+    /**
+     * 设置是否启用引用表，启用之后同一次写入的对象中重复出现的字符串和枚举只会写入一次，后面的只写入引用索引<br/>
+     * 必须和{@link ObjectReader#setReferenceEnabled(boolean)}的设置一致
+     *
+     * @see basic.protocol.Handshake#OPTION_REFERENCE
+     */
+    public void setReferenceEnabled(boolean referenceEnabled) {
+        this.references = referenceEnabled ? new HashMap<>() : null;
+        this.depth = 0;
+    }
+
+    public boolean isReferenceEnabled() {
+        return references != null;
+    }
+
+    /**
+     * 设置集合按可以延迟解码的格式写入的元素数量阈值，0表示不启用<br/>
+     * 只对ArrayList、LinkedList、HashSet和HashMap这几种格式的集合生效，读取方可以选择是否延迟解码
+     *
+     * @see ObjectReader#setLazyEnabled(boolean)
+     */
+    public void setLazyThreshold(int lazyThreshold) {
+        if (lazyThreshold < 0) {
+            throw new IllegalArgumentException("阈值不能小于0");
+        }
+        this.lazyThreshold = lazyThreshold;
+    }
+
+    /**
+     * 设置编码格式，必须和{@link ObjectReader#setFormat(int)}的设置一致
+     *
+     * @param format {@link ObjectFormat#TAGGED}或者{@link ObjectFormat#COMPACT}
+     * @see basic.protocol.Handshake#OPTION_COMPACT
+     */
+    public void setFormat(int format) {
+        ObjectFormat.check(format);
+        this.format = format;
+    }
+
+    public int getFormat() {
+        return format;
+    }
+
     public CodedBuffer getBuffer() {
         return buffer;
     }
 
+    /**
+     * 创建一个使用相同配置的{@link ObjectWriter}，写入到指定的缓冲区
+     */
+    public ObjectWriter newWriter(CodedBuffer buffer) {
+        ObjectWriter writer = new ObjectWriter(buffer);
+        writer.transferableRegistry = transferableRegistry;
+        writer.enumRegistry = enumRegistry;
+        writer.setReferenceEnabled(isReferenceEnabled());
+        writer.lazyThreshold = lazyThreshold;
+        writer.format = format;
+        return writer;
+    }
+
+    /**
+     * 创建一个使用相同配置的只计算字节数的{@link ObjectWriter}
+     */
+    private ObjectWriter sizeWriter() {
+        return newWriter(new SizeCodedBuffer());
+    }
+
+    /**
+     * 计算对象通过{@link #write(Object)}序列化之后的字节数，不会真正写入数据
+     */
+    public int computeSize(Object value) {
+        ObjectWriter sizeWriter = sizeWriter();
+        sizeWriter.write(value);
+        return sizeWriter.buffer.readableCount();
+    }
+
+    /**
+     * 计算{@link Transferable#transferTo(ObjectWriter)}写入的字节数，不包含类型标记，不会真正写入数据
+     */
+    public int computeTransferSize(Transferable transferable) {
+        ObjectWriter sizeWriter = sizeWriter();
+        transferable.transferTo(sizeWriter);
+        return sizeWriter.buffer.readableCount();
+    }
+
+    /**
+     * 按类型缓存的写入策略，每个类型只需要解析一次
+     */
+    private static final ClassValue<BiConsumer<ObjectWriter, Object>> valueWriters = new ClassValue<BiConsumer<ObjectWriter, Object>>() {
+        @Override
+        protected BiConsumer<ObjectWriter, Object> computeValue(Class<?> clazz) {
+            return resolveValueWriter(clazz);
+        }
+    };
+
+    /**
+     * 已知的具体类型直接对应写入策略
+     */
+    private static final Map<Class<?>, BiConsumer<ObjectWriter, Object>> exactValueWriters = new IdentityHashMap<>();
+
+    static {
+        exactValueWriters.put(Byte.class, (writer, value) -> {
+            writer.writeType(BYTE);
+            writer.buffer.writeByte((Byte) value);
+        });
+        exactValueWriters.put(byte[].class, (writer, value) -> {
+            writer.writeType(BYTE_ARRAY);
+            writer.buffer.writeBytes((byte[]) value);
+        });
+        exactValueWriters.put(Boolean.class, (writer, value) -> writer.write((Boolean) value));
+        exactValueWriters.put(boolean[].class, (writer, value) -> writer.write((boolean[]) value));
+        exactValueWriters.put(Short.class, (writer, value) -> {
+            writer.writeType(SHORT);
+            writer.buffer.writeShort((Short) value);
+        });
+        exactValueWriters.put(short[].class, (writer, value) -> writer.write((short[]) value));
+        exactValueWriters.put(Integer.class, (writer, value) -> writer.write((Integer) value));
+        exactValueWriters.put(OptionalInt.class, (writer, value) -> writer.write((OptionalInt) value));
+        exactValueWriters.put(int[].class, (writer, value) -> writer.write((int[]) value));
+        exactValueWriters.put(Long.class, (writer, value) -> writer.write((Long) value));
+        exactValueWriters.put(OptionalLong.class, (writer, value) -> writer.write((OptionalLong) value));
+        exactValueWriters.put(long[].class, (writer, value) -> writer.write((long[]) value));
+        exactValueWriters.put(Float.class, (writer, value) -> {
+            writer.writeType(FLOAT);
+            writer.buffer.writeFloat((Float) value);
+        });
+        exactValueWriters.put(float[].class, (writer, value) -> writer.write((float[]) value));
+        exactValueWriters.put(Double.class, (writer, value) -> {
+            writer.writeType(DOUBLE);
+            writer.buffer.writeDouble((Double) value);
+        });
+        exactValueWriters.put(OptionalDouble.class, (writer, value) -> writer.write((OptionalDouble) value));
+        exactValueWriters.put(double[].class, (writer, value) -> writer.write((double[]) value));
+        exactValueWriters.put(String.class, (writer, value) -> writer.write((String) value));
+        exactValueWriters.put(String[].class, (writer, value) -> writer.write((String[]) value));
+        exactValueWriters.put(BitSet.class, (writer, value) -> writer.write((BitSet) value));
+        exactValueWriters.put(IntArrayList.class, (writer, value) -> writer.write((IntArrayList) value));
+        exactValueWriters.put(LongArrayList.class, (writer, value) -> writer.write((LongArrayList) value));
+        exactValueWriters.put(IntObjectHashMap.class, (writer, value) -> writer.write((IntObjectHashMap<?>) value));
+        exactValueWriters.put(LongLongHashMap.class, (writer, value) -> writer.write((LongLongHashMap) value));
+        exactValueWriters.put(Object.class, (writer, value) -> writer.writeType(OBJECT));
+    }
+
+    /**
+     * 解析类型对应的写入策略，子类型的判断顺序决定了优先级
+     */
+    private static BiConsumer<ObjectWriter, Object> resolveValueWriter(Class<?> clazz) {
+        BiConsumer<ObjectWriter, Object> valueWriter = exactValueWriters.get(clazz);
+        if (valueWriter != null) {
+            return valueWriter;
+        }
+
+        if (Object[].class.isAssignableFrom(clazz)) {
+            return (writer, value) -> writer.write((Object[]) value);
+        } else if (Enum.class.isAssignableFrom(clazz)) {
+            return (writer, value) -> writer.write((Enum<?>) value);
+        } else if (Collection.class.isAssignableFrom(clazz)) {
+            return (writer, value) -> writer.write((Collection<?>) value);
+        } else if (Map.class.isAssignableFrom(clazz)) {
+            return (writer, value) -> writer.write((Map<?, ?>) value);
+        } else if (Protocol.class.isAssignableFrom(clazz)) {
+            return (writer, value) -> writer.write((Protocol) value);
+        } else if (Transferable.class.isAssignableFrom(clazz)) {
+            return (writer, value) -> writer.write((Transferable) value);
+        } else if (Message.class.isAssignableFrom(clazz)) {
+            return (writer, value) -> writer.write((Message) value);
+        } else if (Serializable.class.isAssignableFrom(clazz)) {
+            FieldSerializer fieldSerializer = FieldSerializer.get(clazz);
+            if (fieldSerializer != null && fieldSerializer.isSerializable()) {
+                return (writer, value) -> writer.write(fieldSerializer, value);
+            }
+            //对象流序列化优先级最低
+            return (writer, value) -> writer.write((Serializable) value);
+        } else {
+            return ObjectWriter::writeOther;
+        }
+    }
+
     public void write(Object value) {
-        if (value == null) {
-            buffer.writeInt(NULL);
+        if (references == null) {
+            writeValue(value);
             return;
         }
 
-        Class<?> clazz = value.getClass();
-        if (clazz == Byte.class) {
-            buffer.writeInt(BYTE);
-            buffer.writeByte((Byte) value);
-        } else if (clazz == byte[].class) {
-            buffer.writeInt(BYTE_ARRAY);
-            buffer.writeBytes((byte[]) value);
-        } else if (clazz == Boolean.class) {
-            buffer.writeInt(BOOLEAN);
-            buffer.writeBool((Boolean) value);
-        } else if (clazz == boolean[].class) {
-            write((boolean[]) value);
-        } else if (clazz == Short.class) {
-            buffer.writeInt(SHORT);
-            buffer.writeShort((Short) value);
-        } else if (clazz == short[].class) {
-            write((short[]) value);
-        } else if (clazz == Integer.class) {
-            buffer.writeInt(INTEGER);
-            buffer.writeInt((Integer) value);
-        } else if (clazz == OptionalInt.class) {
-            write((OptionalInt) value);
-        } else if (clazz == int[].class) {
-            write((int[]) value);
-        } else if (clazz == Long.class) {
-            buffer.writeInt(LONG);
-            buffer.writeLong((Long) value);
-        } else if (clazz == OptionalLong.class) {
-            write((OptionalLong) value);
-        } else if (clazz == long[].class) {
-            write((long[]) value);
-        } else if (clazz == Float.class) {
-            buffer.writeInt(FLOAT);
-            buffer.writeFloat((Float) value);
-        } else if (clazz == float[].class) {
-            write((float[]) value);
-        } else if (clazz == Double.class) {
-            buffer.writeInt(DOUBLE);
-            buffer.writeDouble((Double) value);
-        } else if (clazz == OptionalDouble.class) {
-            write((OptionalDouble) value);
-        } else if (clazz == double[].class) {
-            write((double[]) value);
-        } else if (clazz == String.class) {
-            buffer.writeInt(STRING);
-            buffer.writeString((String) value);
-        } else if (clazz == String[].class) {
-            write((String[]) value);
-        } else if (clazz == Object.class) {
-            buffer.writeInt(OBJECT);
-        } else if (value instanceof Object[]) {
-            write((Object[]) value);
-        } else if (value instanceof Enum) {
-            write((Enum<?>) value);
-        } else if (value instanceof Collection) {
-            write((Collection<?>) value);
-        } else if (value instanceof Map) {
-            write((Map<?, ?>) value);
-        } else if (value instanceof Protocol) {
-            write((Protocol) value);
-        } else if (value instanceof Transferable) {
-            write((Transferable) value);
-        } else if (value instanceof Message) {
-            write(((Message) value));
-        } else if (value instanceof Serializable) {
-            //对象流序列化优先级最低
-            write((Serializable) value);
+        depth++;
+        try {
+            writeValue(value);
+        } finally {
+            if (--depth == 0) {
+                references.clear();
+            }
+        }
+    }
+
+    private void writeValue(Object value) {
+        if (value == null) {
+            writeType(NULL);
         } else {
-            writeOther(value);
+            valueWriters.get(value.getClass()).accept(this, value);
         }
     }
 
-    private void write(boolean[] array) {
-        buffer.writeInt(BOOLEAN_ARRAY);
-        buffer.writeInt(array.length);
-        for (boolean v : array) {
-            buffer.writeBool(v);
+    /**
+     * 写入类型标记，{@link ObjectFormat#COMPACT}格式下写入头字节
+     */
+    private void writeType(int type) {
+        if (format == ObjectFormat.TAGGED) {
+            buffer.writeInt(type);
+        } else if (type <= ObjectFormat.TYPE_MAX) {
+            buffer.writeByte((byte) (ObjectFormat.TYPE + type));
+        } else {
+            buffer.writeByte((byte) ObjectFormat.EXTENDED_TYPE);
+            buffer.writeInt(type);
         }
     }
 
+    private void write(Boolean value) {
+        if (format == ObjectFormat.COMPACT) {
+            buffer.writeByte((byte) (value ? ObjectFormat.TRUE : ObjectFormat.FALSE));
+            return;
+        }
+        writeType(BOOLEAN);
+        buffer.writeBool(value);
+    }
+
+    private void write(Integer value) {
+        int n = value;
+        if (format == ObjectFormat.COMPACT) {
+            if (n >= 0 && n < ObjectFormat.FIX_STR) {
+                buffer.writeByte((byte) n);
+                return;
+            }
+            if (n < 0 && n >= ObjectFormat.FIX_NEGATIVE_INT_MIN) {
+                buffer.writeByte((byte) (ObjectFormat.FIX_NEGATIVE_INT + n - ObjectFormat.FIX_NEGATIVE_INT_MIN));
+                return;
+            }
+        }
+        writeType(INTEGER);
+        buffer.writeInt(n);
+    }
+
+    private void write(Long value) {
+        long n = value;
+        if (format == ObjectFormat.COMPACT && n >= 0 && n <= ObjectFormat.FIX_LONG_MAX) {
+            buffer.writeByte((byte) (ObjectFormat.FIX_LONG + n));
+            return;
+        }
+        writeType(LONG);
+        buffer.writeLong(n);
+    }
+
+    /**
+     * 启用了引用表并且对象已经写过时写入引用索引，否则把对象记录到引用表中
+     *
+     * @return 是否写入了引用索引
+     */
+    private boolean writeReference(Object value) {
+        if (references == null) {
+            return false;
+        }
+        Integer index = references.putIfAbsent(value, references.size());
+        if (index == null) {
+            return false;
+        }
+        writeType(REFERENCE);
+        buffer.writeInt(index);
+        return true;
+    }
+
+    private void write(String s) {
+        if (writeReference(s)) {
+            return;
+        }
+        if (format == ObjectFormat.COMPACT && ObjectFormat.isFixStr(s)) {
+            buffer.writeByte((byte) (ObjectFormat.FIX_STR + s.length()));
+            buffer.writeAscii(s);
+            return;
+        }
+        writeType(STRING);
+        buffer.writeString(s);
+    }
+
+    private void write(boolean[] array) {
+        writeType(PACKED_BOOLEAN_ARRAY);
+        buffer.writeBools(array);
+    }
+
+    private void write(BitSet bitSet) {
+        writeType(BIT_SET);
+        buffer.writeFixedLongs(bitSet.toLongArray());
+    }
+
     private void write(short[] array) {
-        buffer.writeInt(SHORT_ARRAY);
-        buffer.writeInt(array.length);
+        int size = 0;
         for (short v : array) {
-            buffer.writeShort(v);
+            size += CodedBuffer.varIntSize(v);
+        }
+        if (isFixedBetter(size, array.length * 2)) {
+            writeType(FIXED_SHORT_ARRAY);
+            buffer.writeFixedShorts(array);
+        } else {
+            writeType(SHORT_ARRAY);
+            buffer.writeShorts(array);
         }
     }
 
     private void write(OptionalInt value) {
-        buffer.writeInt(OPTIONAL_INT);
+        writeType(OPTIONAL_INT);
         if (value.isPresent()) {
             buffer.writeBool(true);
             buffer.writeInt(value.getAsInt());
@@ -141,15 +389,41 @@ public class ObjectWriter {
     }
 
     private void write(int[] array) {
-        buffer.writeInt(INT_ARRAY);
-        buffer.writeInt(array.length);
+        writeInts(array, INT_ARRAY, FIXED_INT_ARRAY);
+    }
+
+    /**
+     * 根据元素的大小选择变长编码或者固定长度编码
+     */
+    private void writeInts(int[] array, int varType, int fixedType) {
+        int size = 0;
         for (int v : array) {
-            buffer.writeInt(v);
+            size += CodedBuffer.varIntSize(v);
+        }
+        if (isFixedBetter(size, array.length * 4)) {
+            writeType(fixedType);
+            buffer.writeFixedInts(array);
+        } else {
+            writeType(varType);
+            buffer.writeInts(array);
         }
     }
 
+    private void write(IntArrayList list) {
+        writeInts(list.toArray(), INT_LIST, FIXED_INT_LIST);
+    }
+
+    private void write(IntObjectHashMap<?> map) {
+        writeType(INT_OBJECT_MAP);
+        buffer.writeInt(map.size());
+        map.forEach((k, v) -> {
+            buffer.writeInt(k);
+            write(v);
+        });
+    }
+
     private void write(OptionalLong value) {
-        buffer.writeInt(OPTIONAL_LONG);
+        writeType(OPTIONAL_LONG);
         if (value.isPresent()) {
             buffer.writeBool(true);
             buffer.writeLong(value.getAsLong());
@@ -159,23 +433,53 @@ public class ObjectWriter {
     }
 
     private void write(long[] array) {
-        buffer.writeInt(LONG_ARRAY);
-        buffer.writeInt(array.length);
+        writeLongs(array, LONG_ARRAY, FIXED_LONG_ARRAY);
+    }
+
+    /**
+     * 根据元素的大小选择变长编码或者固定长度编码
+     */
+    private void writeLongs(long[] array, int varType, int fixedType) {
+        int size = 0;
         for (long v : array) {
-            buffer.writeLong(v);
+            size += CodedBuffer.varIntSize(v);
+        }
+        if (isFixedBetter(size, array.length * 8)) {
+            writeType(fixedType);
+            buffer.writeFixedLongs(array);
+        } else {
+            writeType(varType);
+            buffer.writeLongs(array);
         }
     }
 
+    private void write(LongArrayList list) {
+        writeLongs(list.toArray(), LONG_LIST, FIXED_LONG_LIST);
+    }
+
+    private void write(LongLongHashMap map) {
+        writeType(LONG_LONG_MAP);
+        buffer.writeInt(map.size());
+        map.forEach((k, v) -> {
+            buffer.writeLong(k);
+            buffer.writeLong(v);
+        });
+    }
+
+    /**
+     * 变长编码节省的空间不到1/4时采用定长编码，定长编码的数组可以整块复制
+     */
+    private static boolean isFixedBetter(int varIntSize, int fixedSize) {
+        return varIntSize * 4L > fixedSize * 3L;
+    }
+
     private void write(float[] array) {
-        buffer.writeInt(FLOAT_ARRAY);
-        buffer.writeInt(array.length);
-        for (float v : array) {
-            buffer.writeFloat(v);
-        }
+        writeType(FLOAT_ARRAY);
+        buffer.writeFloats(array);
     }
 
     private void write(OptionalDouble value) {
-        buffer.writeInt(OPTIONAL_DOUBLE);
+        writeType(OPTIONAL_DOUBLE);
         if (value.isPresent()) {
             buffer.writeBool(true);
             buffer.writeDouble(value.getAsDouble());
@@ -185,15 +489,12 @@ public class ObjectWriter {
     }
 
     private void write(double[] array) {
-        buffer.writeInt(DOUBLE_ARRAY);
-        buffer.writeInt(array.length);
-        for (double v : array) {
-            buffer.writeDouble(v);
-        }
+        writeType(DOUBLE_ARRAY);
+        buffer.writeDoubles(array);
     }
 
     private void write(String[] array) {
-        buffer.writeInt(STRING_ARRAY);
+        writeType(STRING_ARRAY);
         buffer.writeInt(array.length);
         for (String v : array) {
             buffer.writeString(v);
@@ -201,7 +502,7 @@ public class ObjectWriter {
     }
 
     private void write(Object[] array) {
-        buffer.writeInt(OBJECT_ARRAY);
+        writeType(OBJECT_ARRAY);
         buffer.writeInt(array.length);
         for (Object v : array) {
             write(v);
@@ -209,9 +510,21 @@ public class ObjectWriter {
     }
 
     protected void write(Enum<?> value) {
-        buffer.writeInt(ENUM);
-        write(value.getDeclaringClass().getName());
-        write(value.name());
+        int id = enumRegistry == null ? 0 : enumRegistry.getId(value.getDeclaringClass());
+        if (id > 0) {
+            writeType(REGISTERED_ENUM);
+            buffer.writeInt(id);
+            buffer.writeInt(value.ordinal());
+            return;
+        }
+
+        if (writeReference(value)) {
+            return;
+        }
+
+        writeType(ENUM);
+        buffer.writeString(value.getDeclaringClass().getName());
+        buffer.writeString(value.name());
     }
 
     protected void write(Collection<?> collection) {
@@ -234,11 +547,28 @@ public class ObjectWriter {
             type = ARRAY_LIST;
         }
 
-        buffer.writeInt(type);
+        if (isLazy(collection.size()) && type != SORTED_SET && type != ARRAY_DEQUE) {
+            writeType(LAZY_COLLECTION);
+            buffer.writeInt(type);
+            ObjectWriter bodyWriter = newWriter(buffer.getTemp());
+            bodyWriter.buffer.writeInt(collection.size());
+            collection.forEach(bodyWriter::write);
+            buffer.writeTemp();
+            return;
+        }
+
+        writeType(type);
         buffer.writeInt(collection.size());
         collection.forEach(this::write);
     }
 
+    /**
+     * 通过{@link FieldSerializer}写入的对象中的集合不按延迟格式写入，延迟解码的集合单独解码，不能引用外面的对象
+     */
+    private boolean isLazy(int size) {
+        return lazyThreshold > 0 && size >= lazyThreshold && fieldObjects == null;
+    }
+
     protected void write(Map<?, ?> map) {
         int type;
         if (map instanceof SortedMap) {
@@ -253,7 +583,20 @@ public class ObjectWriter {
             type = HASH_MAP;
         }
 
-        buffer.writeInt(type);
+        if (isLazy(map.size()) && type == HASH_MAP) {
+            writeType(LAZY_MAP);
+            buffer.writeInt(type);
+            ObjectWriter bodyWriter = newWriter(buffer.getTemp());
+            bodyWriter.buffer.writeInt(map.size());
+            map.forEach((k, v) -> {
+                bodyWriter.write(k);
+                bodyWriter.write(v);
+            });
+            buffer.writeTemp();
+            return;
+        }
+
+        writeType(type);
         buffer.writeInt(map.size());
         map.forEach((k, v) -> {
             write(k);
@@ -262,24 +605,54 @@ public class ObjectWriter {
     }
 
     protected void write(Protocol protocol) {
-        buffer.writeInt(PROTOCOL);
+        writeType(PROTOCOL);
         buffer.writeInt(Protocol.getRegistry().getId(protocol.getClass()));
         protocol.transferTo(this);
     }
 
     protected void write(Transferable transferable) {
-        buffer.writeInt(TRANSFERABLE);
+        writeType(TRANSFERABLE);
         buffer.writeInt(transferableRegistry.getId(transferable.getClass()));
         transferable.transferTo(this);
     }
 
     protected void write(Message message) {
-        buffer.writeInt(MESSAGE);
+        writeType(MESSAGE);
         message.encode(buffer);
     }
 
+    /**
+     * 格式：引用索引+1，0表示第一次写入，后面是类名、类结构的指纹和各个字段<br/>
+     * 写入字段之前先记录对象，字段中再次出现同一个对象时只写入引用索引
+     */
+    protected void write(FieldSerializer fieldSerializer, Object value) {
+        writeType(FIELD_SERIALIZABLE);
+        boolean outermost = fieldObjects == null;
+        if (outermost) {
+            fieldObjects = new IdentityHashMap<>();
+        } else {
+            Integer index = fieldObjects.get(value);
+            if (index != null) {
+                buffer.writeInt(index + 1);
+                return;
+            }
+        }
+
+        try {
+            fieldObjects.put(value, fieldObjects.size());
+            buffer.writeInt(0);
+            buffer.writeString(value.getClass().getName());
+            buffer.writeInt(fieldSerializer.getFingerprint());
+            fieldSerializer.write(this, value);
+        } finally {
+            if (outermost) {
+                fieldObjects = null;
+            }
+        }
+    }
+
     protected void write(Serializable serializable) {
-        buffer.writeInt(SERIALIZABLE);
+        writeType(SERIALIZABLE);
         try {
             ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
             ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
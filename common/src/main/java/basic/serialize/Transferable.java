@@ -17,4 +17,13 @@ public interface Transferable {
      */
     void transferFrom(ObjectReader reader);
 
+    /**
+     * 计算序列化之后的字节数，可以用来预先分配大小合适的缓冲区
+     *
+     * @param writer 提供序列化配置，不会写入数据
+     */
+    default int computeSize(ObjectWriter writer) {
+        return writer.computeTransferSize(this);
+    }
+
 }
@@ -6,6 +6,7 @@ import org.slf4j.LoggerFactory;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.ServiceLoader;
 import java.util.function.Supplier;
 
 /**
@@ -34,6 +35,15 @@ public class TransferableRegistry {
         }
     }
 
+    /**
+     * 注册所有通过{@link basic.annotation.Transfer}生成了序列化器的{@link  Transferable}
+     */
+    public void registerGenerated() {
+        for (Registrar registrar : ServiceLoader.load(Registrar.class)) {
+            registrar.register(this);
+        }
+    }
+
     /**
      * 通过类型ID创建{@link  Transferable}
      *
@@ -58,4 +68,13 @@ public class TransferableRegistry {
         return id;
     }
 
+    /**
+     * 生成的序列化器实现此接口，用于自动注册
+     */
+    public interface Registrar {
+
+        void register(TransferableRegistry registry);
+
+    }
+
 }
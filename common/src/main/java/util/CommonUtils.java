@@ -4,26 +4,13 @@ import org.apache.commons.lang3.StringUtils;
 
 import javax.lang.model.type.TypeMirror;
 import java.io.File;
-import java.lang.reflect.Array;
 import java.util.*;
 
-import static org.apache.commons.lang3.ClassUtils.isPrimitiveOrWrapper;
-
 /**
  * 通用工具类
  */
 public class CommonUtils {
 
-    private static final Set<Class<?>> constantClasses = new HashSet<>();
-
-    static {
-        constantClasses.add(Object.class);
-        constantClasses.add(String.class);
-        constantClasses.add(OptionalInt.class);
-        constantClasses.add(OptionalLong.class);
-        constantClasses.add(OptionalDouble.class);
-    }
-
     @SafeVarargs
     public static <E> Set<E> asSet(E... elements) {
         Set<E> set = new LinkedHashSet<>();
@@ -103,45 +90,36 @@ public class CommonUtils {
         }
     }
 
+    /**
+     * @see ConstantUtils#addConstantClass(Class)
+     */
     public static void addConstantClass(Class<?> clazz) {
-        constantClasses.add(clazz);
+        ConstantUtils.addConstantClass(clazz);
     }
 
     /**
      * 判断对象是不是常量，包含原生类型及其包装类型等不可变类型
+     *
+     * @see ConstantUtils#isConstant(Object)
      */
     public static boolean isConstant(Object value) {
-        if (value == null) {
-            return true;
-        }
-
-        Class<?> clazz = value.getClass();
-        if (clazz.isArray() && Array.getLength(value) == 0) {
-            return true;
-        } else {
-            return isConstantClass(clazz);
-        }
+        return ConstantUtils.isConstant(value);
     }
 
     /**
      * 判断类是不是常量类型
+     *
+     * @see ConstantUtils#isConstantClass(Class)
      */
     public static boolean isConstantClass(Class<?> clazz) {
-        return isPrimitiveOrWrapper(clazz)
-                || clazz.isEnum()
-                || constantClasses.contains(clazz);
+        return ConstantUtils.isConstantClass(clazz);
     }
 
+    /**
+     * @see ConstantUtils#isConstantType(TypeMirror)
+     */
     public static boolean isConstantType(TypeMirror type) {
-        if (type.getKind().isPrimitive()) {
-            return true;
-        }
-        try {
-            Class<?> clazz = Class.forName(type.toString());
-            return isConstantClass(clazz);
-        } catch (Exception e) {
-            return false;
-        }
+        return ConstantUtils.isConstantType(type);
     }
 
 }
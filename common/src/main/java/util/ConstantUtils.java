@@ -2,17 +2,47 @@ package util;
 
 import javax.lang.model.type.TypeMirror;
 import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.apache.commons.lang3.ClassUtils.isPrimitiveOrWrapper;
 
 
 /**
- * 常量工具类
+ * 常量工具类<br/>
+ * 除了预设和添加的常量类之外，运行时会分析类是不是深度不可变的，结果按类缓存：
+ * 所有实例字段(包括父类的字段)都是final的，并且字段类型是原生类型、枚举、常量类或者final的深度不可变类，记录类(record)一般都满足这个条件<br/>
+ * 数组和接口、抽象类一定不是常量类，相互引用的类保守地当做可变的<br/>
+ * 不可变集合的类需要注册，集合中的元素都是常量时集合才是常量
  */
 public class ConstantUtils {
 
-    private static final Set<Class<?>> constantClasses = new HashSet<>();
+    private static final Set<Class<?>> constantClasses = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 已注册的不可变集合和Map的类
+     */
+    private static final Set<Class<?>> immutableCollectionClasses = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 按类缓存的深度不可变分析结果
+     */
+    private static final ClassValue<Boolean> immutableClasses = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> clazz) {
+            return isImmutableClass(clazz);
+        }
+    };
+
+    /**
+     * 当前线程正在分析的类，用于检测相互引用
+     */
+    private static final ThreadLocal<Set<Class<?>>> resolvingClasses = ThreadLocal.withInitial(HashSet::new);
 
     static {
         constantClasses.add(Object.class);
@@ -20,14 +50,50 @@ public class ConstantUtils {
         constantClasses.add(OptionalInt.class);
         constantClasses.add(OptionalLong.class);
         constantClasses.add(OptionalDouble.class);
+        constantClasses.add(BigInteger.class);
+        constantClasses.add(BigDecimal.class);
+        constantClasses.add(UUID.class);
+        constantClasses.add(Instant.class);
+        constantClasses.add(Duration.class);
+        constantClasses.add(LocalDate.class);
+        constantClasses.add(LocalTime.class);
+        constantClasses.add(LocalDateTime.class);
+
+        immutableCollectionClasses.add(Collections.emptyList().getClass());
+        immutableCollectionClasses.add(Collections.emptySet().getClass());
+        immutableCollectionClasses.add(Collections.emptyMap().getClass());
+        immutableCollectionClasses.add(Collections.singletonList(null).getClass());
+        immutableCollectionClasses.add(Collections.singleton(null).getClass());
+        immutableCollectionClasses.add(Collections.singletonMap(null, null).getClass());
+        //JDK9以上的List.of、Set.of和Map.of
+        for (String name : new String[]{"List12", "ListN", "Set12", "SetN", "Map1", "MapN"}) {
+            try {
+                immutableCollectionClasses.add(Class.forName("java.util.ImmutableCollections$" + name));
+            } catch (ClassNotFoundException ignored) {
+            }
+        }
     }
 
+    /**
+     * 添加常量类，应该在使用之前添加，已经分析过的引用了该类的其他类不会重新分析
+     */
     public static void addConstantClass(Class<?> clazz) {
         constantClasses.add(clazz);
+        immutableClasses.remove(clazz);
+    }
+
+    /**
+     * 注册不可变集合或者Map的类，只能注册内容不会被修改的集合，{@link Collections#unmodifiableList(List)}等只读视图不能注册
+     */
+    public static void addImmutableCollectionClass(Class<?> clazz) {
+        if (!Collection.class.isAssignableFrom(clazz) && !Map.class.isAssignableFrom(clazz)) {
+            throw new IllegalArgumentException(clazz + "不是集合或者Map");
+        }
+        immutableCollectionClasses.add(clazz);
     }
 
     /**
-     * 判断对象是不是常量，包含原生类型及其包装类型等不可变类型
+     * 判断对象是不是常量，包含原生类型及其包装类型等不可变类型、深度不可变类的对象以及元素都是常量的不可变集合
      */
     public static boolean isConstant(Object value) {
         if (value == null) {
@@ -37,27 +103,96 @@ public class ConstantUtils {
         Class<?> clazz = value.getClass();
         if (clazz.isArray() && Array.getLength(value) == 0) {
             return true;
+        } else if (isConstantClass(clazz)) {
+            return true;
+        } else if (immutableCollectionClasses.contains(clazz)) {
+            return isConstantElements(value);
         } else {
-            return isConstantClass(clazz);
+            return false;
         }
     }
 
+    private static boolean isConstantElements(Object collection) {
+        if (collection instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) collection).entrySet()) {
+                if (!isConstant(entry.getKey()) || !isConstant(entry.getValue())) {
+                    return false;
+                }
+            }
+        } else {
+            for (Object element : (Collection<?>) collection) {
+                if (!isConstant(element)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     /**
-     * 判断类是不是常量类型
+     * 判断类是不是常量类型，包含预设和添加的常量类以及深度不可变的类
      */
     public static boolean isConstantClass(Class<?> clazz) {
-        return isPrimitiveOrWrapper(clazz)
-                || clazz.isEnum()
-                || constantClasses.contains(clazz);
+        return immutableClasses.get(clazz);
     }
 
+    private static boolean isImmutableClass(Class<?> clazz) {
+        if (isPrimitiveOrWrapper(clazz) || Enum.class.isAssignableFrom(clazz) || constantClasses.contains(clazz)) {
+            return true;
+        }
+        if (clazz.isArray() || clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) {
+            return false;
+        }
+
+        Set<Class<?>> resolving = resolvingClasses.get();
+        if (!resolving.add(clazz)) {
+            //相互引用的类保守地当做可变的
+            return false;
+        }
+
+        try {
+            for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers)) {
+                        continue;
+                    }
+                    if (!Modifier.isFinal(modifiers) || !field.getType().isPrimitive() && !isConstantDeclaredClass(field.getType())) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } catch (Throwable e) {
+            //没有权限或者依赖的类不存在时当做可变的
+            return false;
+        } finally {
+            resolving.remove(clazz);
+        }
+    }
+
+    /**
+     * 判断声明为该类型的字段或者参数是不是一定引用常量，不是final的类可能被可变的子类继承，只有预设和添加的常量类才算<br/>
+     * 声明为Object的可以引用任何对象，不算常量
+     */
+    private static boolean isConstantDeclaredClass(Class<?> clazz) {
+        if (clazz == Object.class || !isConstantClass(clazz)) {
+            return false;
+        }
+        return Modifier.isFinal(clazz.getModifiers()) || Enum.class.isAssignableFrom(clazz) || constantClasses.contains(clazz);
+    }
+
+    /**
+     * 判断声明的类型是不是常量类型
+     *
+     * @see #isConstantDeclaredClass(Class)
+     */
     public static boolean isConstantType(TypeMirror type) {
         if (type.getKind().isPrimitive()) {
             return true;
         }
         try {
-            Class<?> clazz = Class.forName(type.toString());
-            return isConstantClass(clazz);
+            return isConstantDeclaredClass(Class.forName(type.toString()));
         } catch (Exception e) {
             return false;
         }
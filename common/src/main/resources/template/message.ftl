@@ -0,0 +1,268 @@
+<#macro write type buffer value><#if type.bean>writeBean(${buffer}, ${value});<#else>${buffer}.write${type.bufferMethod}(${value});</#if></#macro>
+<#macro read type buffer><#if type.bean>readBean(${buffer}, new ${type.javaType}())<#elseif type.byte>(byte) ${buffer}.readInt()<#else>${buffer}.read${type.bufferMethod}()</#if></#macro>
+<#macro transcode type>
+<#if type.bean>
+                        buffer.readInt();
+                        ${type.javaType}.transcodeJson(buffer, writer);
+<#else>
+                        writer.value(<@read type "buffer"/>);
+</#if>
+</#macro>
+<#if packageName??>
+package ${packageName};
+
+</#if>
+import basic.message.${message?then("Message", "Bean")};
+import basic.message.CodedBuffer;
+import basic.message.JsonWriter;
+<#if utilUsed>
+
+import java.util.*;
+</#if>
+
+/**
+<#if comment??>
+ * ${comment}<br/>
+</#if>
+ * 由${generatorName}生成，不要手动修改
+ */
+public class ${name} extends ${message?then("Message", "Bean")} {
+
+<#if message>
+    public static final int ID = ${id?c};
+
+</#if>
+<#list fields as field>
+    public static final long ${field.maskName} = 1L << ${field.id};
+
+</#list>
+    /**
+     * 字段存在标记，设置过或者解码出来的字段对应的位为1
+     */
+    private long _fields$;
+
+<#list fields as field>
+<#if field.comment??>
+    /**
+     * ${field.comment}
+     */
+</#if>
+    private ${field.type.javaType} ${field.name}<#if field.type.initialValue??> = ${field.type.initialValue}</#if>;
+
+</#list>
+<#if message>
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public ${name} create() {
+        return new ${name}();
+    }
+
+</#if>
+<#list fields as field>
+    public ${field.type.javaType} get${field.capitalName}() {
+        return ${field.name};
+    }
+
+    public void set${field.capitalName}(${field.type.javaType} ${field.name}) {
+<#if field.type.nonNull>
+        this.${field.name} = Objects.requireNonNull(${field.name});
+<#else>
+        this.${field.name} = ${field.name};
+</#if>
+        _fields$ |= ${field.maskName};
+    }
+
+    public boolean has${field.capitalName}() {
+        return (_fields$ & ${field.maskName}) != 0;
+    }
+
+</#list>
+    @Override
+    public void encode(CodedBuffer buffer) {
+<#if message>
+        super.encode(buffer);
+</#if>
+<#list fields as field>
+        if (${field.nonDefault}) {
+            writeTag(buffer, ${field.tag});
+<#if field.type.collection>
+            CodedBuffer temp = buffer.getTemp();
+            temp.writeInt(this.${field.name}.size());
+            for (${field.type.elementType.boxedType} e : this.${field.name}) {
+                <@write field.type.elementType "temp" "e"/>
+
+            }
+            buffer.writeTemp();
+<#elseif field.type.map>
+            CodedBuffer temp = buffer.getTemp();
+            temp.writeInt(this.${field.name}.size());
+            for (Map.Entry<${field.type.keyType.boxedType}, ${field.type.elementType.boxedType}> e : this.${field.name}.entrySet()) {
+                <@write field.type.keyType "temp" "e.getKey()"/>
+
+                <@write field.type.elementType "temp" "e.getValue()"/>
+
+            }
+            buffer.writeTemp();
+<#else>
+            <@write field.type "buffer" "this." + field.name/>
+
+</#if>
+        }
+</#list>
+        writeTag(buffer, 0);
+    }
+
+    @Override
+    public void decode(CodedBuffer buffer) {
+        decode(buffer, -1L);
+    }
+
+    /**
+     * 只解码指定的字段，其他字段直接跳过并保持默认值<br/>
+     * 解码前先把所有字段恢复成默认值，重复使用同一个对象解码时不会残留上次的数据
+     *
+     * @param fieldMask 需要解码的字段，由FIELD_开头的常量组合而成
+     */
+    public void decode(CodedBuffer buffer, long fieldMask) {
+<#if message>
+        super.decode(buffer);
+</#if>
+        _fields$ = 0;
+<#list fields as field>
+        this.${field.name} = ${field.type.defaultValue};
+</#list>
+        for (int tag = readTag(buffer); tag != 0; tag = readTag(buffer)) {
+            switch (tag) {
+<#list fields as field>
+                case ${field.tag}: {
+                    if ((fieldMask & ${field.maskName}) == 0) {
+                        skipField(tag, buffer);
+                        break;
+                    }
+<#if field.type.collection || field.type.map>
+                    buffer.readInt();
+                    int size = buffer.readInt();
+<#if field.type.collection>
+                    ${field.type.javaType} values = new ${field.type.implType}<>(Math.min(size, buffer.readableCount()));
+                    for (int i = 0; i < size; i++) {
+                        values.add(<@read field.type.elementType "buffer"/>);
+                    }
+<#else>
+                    ${field.type.javaType} values = new ${field.type.implType}<>(Math.min(size, buffer.readableCount()));
+                    for (int i = 0; i < size; i++) {
+                        values.put(<@read field.type.keyType "buffer"/>, <@read field.type.elementType "buffer"/>);
+                    }
+</#if>
+                    this.${field.name} = values;
+<#else>
+                    this.${field.name} = <@read field.type "buffer"/>;
+</#if>
+                    _fields$ |= ${field.maskName};
+                    break;
+                }
+</#list>
+                default:
+                    //未知的字段直接跳过，兼容新版本增加的字段
+                    skipField(tag, buffer);
+            }
+        }
+    }
+
+    @Override
+    public void writeJson(JsonWriter writer) {
+        writer.beginObject();
+<#if message>
+        writer.name("_id").value(ID);
+</#if>
+<#list fields as field>
+<#if field.type.collection>
+        writer.name("${field.name}").beginArray();
+        for (${field.type.elementType.boxedType} e : this.${field.name}) {
+            writer.value(e);
+        }
+        writer.endArray();
+<#elseif field.type.map>
+        writer.name("${field.name}").beginObject();
+        for (Map.Entry<${field.type.keyType.boxedType}, ${field.type.elementType.boxedType}> e : this.${field.name}.entrySet()) {
+            writer.name(String.valueOf(e.getKey())).value(e.getValue());
+        }
+        writer.endObject();
+<#elseif field.type.jsonDefault??>
+        writer.name("${field.name}").value(this.${field.name});
+<#else>
+        if (this.${field.name} != null) {
+            writer.name("${field.name}").value(this.${field.name});
+        }
+</#if>
+</#list>
+        writer.endObject();
+    }
+<#if message>
+
+    @Override
+    public void writeJson(CodedBuffer buffer, JsonWriter writer) {
+        transcodeJson(buffer, writer);
+    }
+</#if>
+
+    /**
+     * 不创建对象，把{@link #encode(CodedBuffer)}编码的数据直接转成JSON，和{@link #writeJson(JsonWriter)}的结果只有字段顺序可能不同
+     */
+    public static void transcodeJson(CodedBuffer buffer, JsonWriter writer) {
+        writer.beginObject();
+<#if message>
+        writer.name("_id").value(checkId(buffer, ID));
+</#if>
+        long fields = 0;
+        for (int tag = readTag(buffer); tag != 0; tag = readTag(buffer)) {
+            switch (tag) {
+<#list fields as field>
+                case ${field.tag}: {
+                    writer.name("${field.name}");
+<#if field.type.collection>
+                    buffer.readInt();
+                    int size = buffer.readInt();
+                    writer.beginArray();
+                    for (int i = 0; i < size; i++) {
+<@transcode field.type.elementType/>
+                    }
+                    writer.endArray();
+<#elseif field.type.map>
+                    buffer.readInt();
+                    int size = buffer.readInt();
+                    writer.beginObject();
+                    for (int i = 0; i < size; i++) {
+                        writer.name(String.valueOf(<@read field.type.keyType "buffer"/>));
+<@transcode field.type.elementType/>
+                    }
+                    writer.endObject();
+<#elseif field.type.bean>
+                    buffer.readInt();
+                    ${field.type.javaType}.transcodeJson(buffer, writer);
+<#else>
+                    writer.value(<@read field.type "buffer"/>);
+</#if>
+                    fields |= ${field.maskName};
+                    break;
+                }
+</#list>
+                default:
+                    skipField(tag, buffer);
+            }
+        }
+        //默认值没有编码
+<#list fields as field>
+<#if field.type.jsonDefault??>
+        if ((fields & ${field.maskName}) == 0) {
+            writer.name("${field.name}").rawValue("${field.type.jsonDefault?j_string}");
+        }
+</#if>
+</#list>
+        writer.endObject();
+    }
+
+}
@@ -21,6 +21,15 @@ public class ${name}Proxy${typeParametersStr} extends Proxy{
 
     private static final String[] signatures = new String[${methods?size}];
 
+    /**
+     * 各个方法的参数格式
+     */
+    private static final ParamSchema[] schemas = {
+<#list methods as method>
+            ParamSchema.register(SERVICE_NAME, ${method?index+1}, "${method.paramDescriptor}")<#if method?has_next>,</#if>
+</#list>
+    };
+
 <#if !serviceId??>
     public ${name}Proxy(int serverId, Object serviceId) {
         super(serverId, serviceId);
@@ -62,7 +71,7 @@ public class ${name}Proxy${typeParametersStr} extends Proxy{
         if (signatures[${method?index}] == null) {
             signatures[${method?index}] = SERVICE_NAME + ".${method.signature}";
         }
-        return _sendRequest$(signatures[${method?index}], ${method.securityModifier}, ${method?index+1}<#if method.optimizedParameters?keys?size gt 0>, ${ method.optimizedParameters?keys?join(', ')}</#if>);
+        return _sendRequest$(signatures[${method?index}], ${method.securityModifier}, ${method?index+1}, schemas[${method?index}]<#if method.optimizedParameters?keys?size gt 0>, ${ method.optimizedParameters?keys?join(', ')}</#if>);
     }
 
 </#list>
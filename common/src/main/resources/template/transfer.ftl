@@ -0,0 +1,54 @@
+<#if packageName??>
+package ${packageName};
+
+</#if>
+import basic.message.CodedBuffer;
+import basic.serialize.ObjectReader;
+import basic.serialize.ObjectWriter;
+import basic.serialize.TransferableRegistry;
+
+/**
+ * ${name}的序列化器，由${generatorName}生成，不要手动修改
+ *
+ * @see ${name}
+ */
+public final class ${name}Transfer implements TransferableRegistry.Registrar {
+
+    public static final int ID = ${id?c};
+
+    public static void transferTo(${name} value, ObjectWriter writer) {
+<#if fields?size gt 0>
+        CodedBuffer buffer = writer.getBuffer();
+</#if>
+<#list fields as field>
+    <#if field.primitiveType??>
+        buffer.write${field.primitiveType}(value.${field.name});
+    <#elseif field.char>
+        buffer.writeInt(value.${field.name});
+    <#else>
+        writer.write(value.${field.name});
+    </#if>
+</#list>
+    }
+
+    public static void transferFrom(${name} value, ObjectReader reader) {
+<#if fields?size gt 0>
+        CodedBuffer buffer = reader.getBuffer();
+</#if>
+<#list fields as field>
+    <#if field.primitiveType??>
+        value.${field.name} = buffer.read${field.primitiveType}();
+    <#elseif field.char>
+        value.${field.name} = (char) buffer.readInt();
+    <#else>
+        value.${field.name} = reader.read();
+    </#if>
+</#list>
+    }
+
+    @Override
+    public void register(TransferableRegistry registry) {
+        registry.register(ID, ${name}.class, ${name}::new);
+    }
+
+}
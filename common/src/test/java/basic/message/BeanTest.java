@@ -0,0 +1,93 @@
+package basic.message;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BeanTest {
+
+    /**
+     * 多层嵌套的Bean，记录编码的次数
+     */
+    private static class Nested extends Bean {
+
+        private static int encodeCount;
+
+        private int value;
+
+        private Nested child;
+
+        @Override
+        public void encode(CodedBuffer buffer) {
+            encodeCount++;
+            buffer.writeInt(value);
+            buffer.writeBool(child != null);
+            if (child != null) {
+                writeBean(buffer, child);
+            }
+        }
+
+        @Override
+        public void decode(CodedBuffer buffer) {
+            value = buffer.readInt();
+            if (buffer.readBool()) {
+                child = readBean(buffer, new Nested());
+            }
+        }
+
+    }
+
+    private static Nested newNested(int depth) {
+        Nested nested = new Nested();
+        for (int i = 1; i < depth; i++) {
+            Nested parent = new Nested();
+            parent.value = i * 1000;
+            parent.child = nested;
+            nested = parent;
+        }
+        return nested;
+    }
+
+    /**
+     * 每个内层Bean只计算一次字节数，编码的次数和嵌套深度成线性关系
+     */
+    @Test
+    public void nestedSizeComputedOnce() {
+        int depth = 20;
+        Nested nested = newNested(depth);
+
+        Nested.encodeCount = 0;
+        byte[] bytes = nested.encode();
+        assertEquals(1 + 2 * (depth - 1), Nested.encodeCount);
+
+        Nested.encodeCount = 0;
+        assertEquals(bytes.length, nested.computeSize());
+        assertEquals(depth, Nested.encodeCount);
+
+        Nested result = new Nested();
+        result.decode(bytes);
+        int count = 0;
+        for (Nested n = nested, r = result; n != null; n = n.child, r = r.child) {
+            assertEquals(n.value, r.value);
+            assertEquals(n.child == null, r.child == null);
+            count++;
+        }
+        assertEquals(depth, count);
+    }
+
+    /**
+     * 长度前缀和通过临时缓冲区写入的一致
+     */
+    @Test
+    public void sameAsTemp() {
+        Nested nested = newNested(3);
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer();
+        Bean.writeBean(buffer, nested);
+
+        DefaultCodedBuffer expected = new DefaultCodedBuffer();
+        nested.encode(expected.getTemp());
+        expected.writeTemp();
+        assertArrayEquals(expected.remainingBytes(), buffer.remainingBytes());
+    }
+
+}
@@ -0,0 +1,130 @@
+package basic.message;
+
+import basic.exception.MalformedFrameException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CodedBufferTest {
+
+    private static void writeNested(CodedBuffer buffer, int n) {
+        CodedBuffer temp = buffer.getTemp();
+        temp.writeInt(n);
+        temp.writeString("value" + n);
+        buffer.writeTemp();
+    }
+
+    @Test
+    public void pooledTempIsReturned() {
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer();
+        writeNested(buffer, 1);
+        assertNull(buffer.temp);
+
+        long missCount = CodedBufferPool.getMissCount();
+        for (int i = 2; i < 100; i++) {
+            writeNested(buffer, i);
+        }
+        assertEquals(missCount, CodedBufferPool.getMissCount());
+
+        for (int i = 1; i < 100; i++) {
+            assertEquals(CodedBuffer.varIntSize(i) + ("value" + i).length() + 1, buffer.readInt());
+            assertEquals(i, buffer.readInt());
+            assertEquals("value" + i, buffer.readString());
+        }
+    }
+
+    @Test
+    public void ownTempIsReused() {
+        SizeCodedBuffer buffer = new SizeCodedBuffer();
+        CodedBuffer temp = buffer.getTemp();
+        buffer.writeTemp();
+        writeNested(buffer, 1);
+        assertSame(temp, buffer.getTemp());
+        assertEquals(0, temp.readableCount());
+
+        DefaultCodedBuffer expected = new DefaultCodedBuffer();
+        expected.getTemp();
+        expected.writeTemp();
+        writeNested(expected, 1);
+        assertEquals(expected.readableCount(), buffer.size());
+    }
+
+    /**
+     * 跨越多个块的{@link ChainedCodedBuffer}写回其他缓冲区时和连续的缓冲区结果一致
+     */
+    @Test
+    public void chainedBufferWrittenBack() {
+        ChainedCodedBuffer chained = new ChainedCodedBuffer(16);
+        DefaultCodedBuffer expected = new DefaultCodedBuffer();
+        CodedBuffer temp = expected.getTemp();
+        for (int i = 0; i < 200; i++) {
+            chained.writeLong(i * 1000003L);
+            chained.writeString("s" + i);
+            temp.writeLong(i * 1000003L);
+            temp.writeString("s" + i);
+        }
+        expected.writeTemp();
+
+        CodedBuffer[] targets = {new DefaultCodedBuffer(8), new ChainedCodedBuffer(32)};
+        for (CodedBuffer target : targets) {
+            chained.mark();
+            target.writeBuffer(chained);
+            chained.reset();
+            assertArrayEquals(expected.remainingBytes(), target.remainingBytes());
+            expected.reset();
+        }
+    }
+
+    /**
+     * 信任模式下读取带长度前缀的数据
+     */
+    @Test
+    public void trustedLengthPrefixed() {
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer(1);
+        buffer.writeString("trusted字符串");
+        buffer.writeBytes(new byte[]{1, 2, 3});
+        buffer.writeFixedInts(new int[]{1, -1});
+        buffer.writeDoubles(new double[]{0.5});
+        byte[] frame = buffer.remainingBytes();
+
+        DefaultCodedBuffer trusted = new DefaultCodedBuffer(frame);
+        trusted.readTrusted(b -> {
+            assertEquals("trusted字符串", b.readString());
+            assertArrayEquals(new byte[]{1, 2, 3}, b.readBytes());
+            assertArrayEquals(new int[]{1, -1}, b.readFixedInts());
+            assertArrayEquals(new double[]{0.5}, b.readDoubles(), 0);
+            return null;
+        });
+        assertEquals(0, trusted.readableCount());
+    }
+
+    /**
+     * 长度超出了数组的边界，不会按错误的长度分配数组
+     */
+    @Test(expected = MalformedFrameException.class)
+    public void trustedLengthOutOfArray() {
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer();
+        buffer.writeInt(Integer.MAX_VALUE);
+        new DefaultCodedBuffer(buffer.remainingBytes()).readTrusted(CodedBuffer::readBytes);
+    }
+
+    /**
+     * 长度没有超出数组的边界，但是超出了写位置，整帧读完之后检查出来
+     */
+    @Test(expected = MalformedFrameException.class)
+    public void trustedLengthOutOfFrame() {
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer(64);
+        buffer.writeInt(10);
+        buffer.writeByte((byte) 1);
+        buffer.readTrusted(CodedBuffer::readBytes);
+    }
+
+    /**
+     * 容量为0时按倍数扩容永远不会增长，构造时直接拒绝
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void directZeroCapacity() {
+        new DirectCodedBuffer(0);
+    }
+
+}
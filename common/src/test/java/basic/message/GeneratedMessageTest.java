@@ -0,0 +1,150 @@
+package basic.message;
+
+import basic.message.sample.Item;
+import basic.message.sample.ResLogin;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 生成的消息代码测试，{@link basic.message.sample}中的类由test/resources/message/sample.msg生成
+ */
+public class GeneratedMessageTest {
+
+    private static Item newItem(int id, long count, float weight) {
+        Item item = new Item();
+        item.setId(id);
+        item.setCount(count);
+        item.setWeight(weight);
+        return item;
+    }
+
+    private static ResLogin newResLogin() {
+        ResLogin resLogin = new ResLogin();
+        resLogin.setRoleId(10001L);
+        resLogin.setName("角色\"1\"");
+        resLogin.setVip(true);
+        resLogin.setExp(12.5);
+        resLogin.setToken(new byte[]{1, 2, 3});
+        resLogin.setWeapon(newItem(1, 1, 1.1F));
+        resLogin.setItems(new ArrayList<>(Arrays.asList(newItem(2, 20, 0), newItem(3, 0, 2.5F))));
+        resLogin.setTags(new HashSet<>(Collections.singleton(-7)));
+        resLogin.setAttrs(new HashMap<>(Collections.singletonMap(5, Long.MAX_VALUE)));
+        return resLogin;
+    }
+
+    private static String transcode(byte[] bytes) {
+        JsonWriter writer = JsonWriter.lease();
+        try {
+            new ResLogin().writeJson(new DefaultCodedBuffer(bytes), writer);
+            return writer.toString();
+        } finally {
+            JsonWriter.recycle(writer);
+        }
+    }
+
+    @Test
+    public void roundTrip() {
+        ResLogin resLogin = newResLogin();
+        ResLogin decoded = new ResLogin();
+        decoded.decode(resLogin.encode());
+
+        assertEquals(resLogin.toJson(), decoded.toJson());
+        assertEquals(10001L, decoded.getRoleId());
+        assertArrayEquals(new byte[]{1, 2, 3}, decoded.getToken());
+        assertEquals(1.1F, decoded.getWeapon().getWeight(), 0);
+        assertEquals(2, decoded.getItems().size());
+        assertTrue(decoded.hasAttrs());
+        assertTrue(decoded.getItems().get(1).hasWeight());
+        assertFalse(decoded.getItems().get(1).hasCount());
+    }
+
+    @Test
+    public void defaultValuesNotEncoded() {
+        ResLogin resLogin = new ResLogin();
+        resLogin.setName("");
+        byte[] bytes = resLogin.encode();
+        //消息ID和结束标记
+        assertEquals(3, bytes.length);
+        assertEquals(bytes.length, resLogin.computeSize());
+
+        ResLogin decoded = new ResLogin();
+        decoded.decode(bytes);
+        assertFalse(decoded.hasName());
+        assertEquals("", decoded.getName());
+        assertEquals(resLogin.toJson(), decoded.toJson());
+    }
+
+    @Test
+    public void skipFields() {
+        ResLogin decoded = new ResLogin();
+        decoded.decode(new DefaultCodedBuffer(newResLogin().encode()), ResLogin.FIELD_ROLE_ID | ResLogin.FIELD_ITEMS);
+
+        assertEquals(10001L, decoded.getRoleId());
+        assertEquals(2, decoded.getItems().size());
+        assertFalse(decoded.hasName());
+        assertEquals("", decoded.getName());
+        assertNull(decoded.getWeapon());
+        assertTrue(decoded.getAttrs().isEmpty());
+    }
+
+    /**
+     * 重复使用同一个对象解码时，没有编码的字段要恢复成默认值
+     */
+    @Test
+    public void decodeResetsFields() {
+        ResLogin decoded = new ResLogin();
+        decoded.decode(newResLogin().encode());
+
+        ResLogin other = new ResLogin();
+        other.setRoleId(2);
+        decoded.decode(other.encode());
+
+        assertEquals(2, decoded.getRoleId());
+        assertTrue(decoded.hasRoleId());
+        assertFalse(decoded.hasName());
+        assertEquals("", decoded.getName());
+        assertFalse(decoded.getVip());
+        assertNull(decoded.getToken());
+        assertNull(decoded.getWeapon());
+        assertTrue(decoded.getItems().isEmpty());
+        assertTrue(decoded.getTags().isEmpty());
+        assertTrue(decoded.getAttrs().isEmpty());
+        assertEquals(other.toJson(), decoded.toJson());
+    }
+
+    @Test
+    public void transcodeJson() {
+        ResLogin resLogin = newResLogin();
+        //中间的默认值没有编码，转换时补在最后
+        assertTrue(transcode(resLogin.encode()).contains("{\"id\":3,\"weight\":2.5,\"count\":0}"));
+        resLogin.getItems().get(1).setCount(30);
+        assertEquals(resLogin.toJson(), transcode(resLogin.encode()));
+
+        //全是默认值时顺序也一致
+        ResLogin empty = new ResLogin();
+        assertEquals(empty.toJson(), transcode(empty.encode()));
+        assertEquals("{\"_id\":1001,\"roleId\":0,\"name\":\"\",\"vip\":false,\"exp\":0.0,\"items\":[],\"tags\":[],\"attrs\":{}}", empty.toJson());
+    }
+
+    /**
+     * 标签和结束标记写在正好写满的缓冲区后面时需要扩容
+     */
+    @Test
+    public void tagsGrowBuffer() {
+        Item item = newItem(1, 0, 0);
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer(1);
+        item.encode(buffer);
+        assertEquals(item.computeSize(), buffer.readableCount());
+
+        ResLogin resLogin = newResLogin();
+        buffer = new DefaultCodedBuffer(1);
+        resLogin.encode(buffer);
+        ResLogin decoded = new ResLogin();
+        decoded.decode(buffer);
+        assertEquals(resLogin.toJson(), decoded.toJson());
+    }
+
+}
@@ -0,0 +1,43 @@
+package basic.message;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonWriterTest {
+
+    private static String json(JsonWriter writer) {
+        String json = writer.toString();
+        JsonWriter.recycle(writer);
+        return json;
+    }
+
+    /**
+     * 和原来通过fastjson转换的结果一致，float不能提升成double再输出
+     */
+    @Test
+    public void floatKeepsOwnPrecision() {
+        JsonWriter writer = JsonWriter.lease();
+        writer.beginObject().name("f").value(1.1F).name("d").value(1.1D).name("l").value(3).endObject();
+        assertEquals("{\"f\":1.1,\"d\":1.1,\"l\":3}", json(writer));
+
+        writer = JsonWriter.lease();
+        writer.beginArray().value(0.1F).value(-2.5F).value(1.0E10F).value(Float.valueOf(3.3F)).endArray();
+        assertEquals("[0.1,-2.5,1.0E10,3.3]", json(writer));
+    }
+
+    @Test
+    public void nonFiniteFloatIsNull() {
+        JsonWriter writer = JsonWriter.lease();
+        writer.beginArray().value(Float.NaN).value(Float.POSITIVE_INFINITY).value(Float.NEGATIVE_INFINITY).value(Double.NaN).endArray();
+        assertEquals("[null,null,null,null]", json(writer));
+    }
+
+    @Test
+    public void escapedString() {
+        JsonWriter writer = JsonWriter.lease();
+        writer.beginObject().name("s").value("a\"b\\c\n\u0001").name("n").value((String) null).endObject();
+        assertEquals("{\"s\":\"a\\\"b\\\\c\\n\\u0001\",\"n\":null}", json(writer));
+    }
+
+}
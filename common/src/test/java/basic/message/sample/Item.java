@@ -0,0 +1,190 @@
+package basic.message.sample;
+
+import basic.message.Bean;
+import basic.message.CodedBuffer;
+import basic.message.JsonWriter;
+
+/**
+ * 物品<br/>
+ * 由basic.gen.MessageGenerator生成，不要手动修改
+ */
+public class Item extends Bean {
+
+    public static final long FIELD_ID = 1L << 1;
+
+    public static final long FIELD_COUNT = 1L << 2;
+
+    public static final long FIELD_WEIGHT = 1L << 3;
+
+    /**
+     * 字段存在标记，设置过或者解码出来的字段对应的位为1
+     */
+    private long _fields$;
+
+    private int id;
+
+    private long count;
+
+    private float weight;
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+        _fields$ |= FIELD_ID;
+    }
+
+    public boolean hasId() {
+        return (_fields$ & FIELD_ID) != 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+        _fields$ |= FIELD_COUNT;
+    }
+
+    public boolean hasCount() {
+        return (_fields$ & FIELD_COUNT) != 0;
+    }
+
+    public float getWeight() {
+        return weight;
+    }
+
+    public void setWeight(float weight) {
+        this.weight = weight;
+        _fields$ |= FIELD_WEIGHT;
+    }
+
+    public boolean hasWeight() {
+        return (_fields$ & FIELD_WEIGHT) != 0;
+    }
+
+    @Override
+    public void encode(CodedBuffer buffer) {
+        if (this.id != 0) {
+            writeTag(buffer, 4);
+            buffer.writeInt(this.id);
+        }
+        if (this.count != 0) {
+            writeTag(buffer, 8);
+            buffer.writeLong(this.count);
+        }
+        if (Float.floatToRawIntBits(this.weight) != 0) {
+            writeTag(buffer, 13);
+            buffer.writeFloat(this.weight);
+        }
+        writeTag(buffer, 0);
+    }
+
+    @Override
+    public void decode(CodedBuffer buffer) {
+        decode(buffer, -1L);
+    }
+
+    /**
+     * 只解码指定的字段，其他字段直接跳过并保持默认值<br/>
+     * 解码前先把所有字段恢复成默认值，重复使用同一个对象解码时不会残留上次的数据
+     *
+     * @param fieldMask 需要解码的字段，由FIELD_开头的常量组合而成
+     */
+    public void decode(CodedBuffer buffer, long fieldMask) {
+        _fields$ = 0;
+        this.id = 0;
+        this.count = 0;
+        this.weight = 0;
+        for (int tag = readTag(buffer); tag != 0; tag = readTag(buffer)) {
+            switch (tag) {
+                case 4: {
+                    if ((fieldMask & FIELD_ID) == 0) {
+                        skipField(tag, buffer);
+                        break;
+                    }
+                    this.id = buffer.readInt();
+                    _fields$ |= FIELD_ID;
+                    break;
+                }
+                case 8: {
+                    if ((fieldMask & FIELD_COUNT) == 0) {
+                        skipField(tag, buffer);
+                        break;
+                    }
+                    this.count = buffer.readLong();
+                    _fields$ |= FIELD_COUNT;
+                    break;
+                }
+                case 13: {
+                    if ((fieldMask & FIELD_WEIGHT) == 0) {
+                        skipField(tag, buffer);
+                        break;
+                    }
+                    this.weight = buffer.readFloat();
+                    _fields$ |= FIELD_WEIGHT;
+                    break;
+                }
+                default:
+                    //未知的字段直接跳过，兼容新版本增加的字段
+                    skipField(tag, buffer);
+            }
+        }
+    }
+
+    @Override
+    public void writeJson(JsonWriter writer) {
+        writer.beginObject();
+        writer.name("id").value(this.id);
+        writer.name("count").value(this.count);
+        writer.name("weight").value(this.weight);
+        writer.endObject();
+    }
+
+    /**
+     * 不创建对象，把{@link #encode(CodedBuffer)}编码的数据直接转成JSON，和{@link #writeJson(JsonWriter)}的结果只有字段顺序可能不同
+     */
+    public static void transcodeJson(CodedBuffer buffer, JsonWriter writer) {
+        writer.beginObject();
+        long fields = 0;
+        for (int tag = readTag(buffer); tag != 0; tag = readTag(buffer)) {
+            switch (tag) {
+                case 4: {
+                    writer.name("id");
+                    writer.value(buffer.readInt());
+                    fields |= FIELD_ID;
+                    break;
+                }
+                case 8: {
+                    writer.name("count");
+                    writer.value(buffer.readLong());
+                    fields |= FIELD_COUNT;
+                    break;
+                }
+                case 13: {
+                    writer.name("weight");
+                    writer.value(buffer.readFloat());
+                    fields |= FIELD_WEIGHT;
+                    break;
+                }
+                default:
+                    skipField(tag, buffer);
+            }
+        }
+        //默认值没有编码
+        if ((fields & FIELD_ID) == 0) {
+            writer.name("id").rawValue("0");
+        }
+        if ((fields & FIELD_COUNT) == 0) {
+            writer.name("count").rawValue("0");
+        }
+        if ((fields & FIELD_WEIGHT) == 0) {
+            writer.name("weight").rawValue("0.0");
+        }
+        writer.endObject();
+    }
+
+}
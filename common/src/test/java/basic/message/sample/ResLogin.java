@@ -0,0 +1,527 @@
+package basic.message.sample;
+
+import basic.message.Message;
+import basic.message.CodedBuffer;
+import basic.message.JsonWriter;
+
+import java.util.*;
+
+/**
+ * 登录结果<br/>
+ * 由basic.gen.MessageGenerator生成，不要手动修改
+ */
+public class ResLogin extends Message {
+
+    public static final int ID = 1001;
+
+    public static final long FIELD_ROLE_ID = 1L << 1;
+
+    public static final long FIELD_NAME = 1L << 2;
+
+    public static final long FIELD_VIP = 1L << 3;
+
+    public static final long FIELD_EXP = 1L << 4;
+
+    public static final long FIELD_TOKEN = 1L << 5;
+
+    public static final long FIELD_WEAPON = 1L << 6;
+
+    public static final long FIELD_ITEMS = 1L << 7;
+
+    public static final long FIELD_TAGS = 1L << 8;
+
+    public static final long FIELD_ATTRS = 1L << 9;
+
+    /**
+     * 字段存在标记，设置过或者解码出来的字段对应的位为1
+     */
+    private long _fields$;
+
+    private long roleId;
+
+    /**
+     * 角色名
+     */
+    private String name = "";
+
+    private boolean vip;
+
+    private double exp;
+
+    private byte[] token;
+
+    private Item weapon;
+
+    private List<Item> items = new ArrayList<>();
+
+    private Set<Integer> tags = new HashSet<>();
+
+    private Map<Integer, Long> attrs = new HashMap<>();
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public ResLogin create() {
+        return new ResLogin();
+    }
+
+    public long getRoleId() {
+        return roleId;
+    }
+
+    public void setRoleId(long roleId) {
+        this.roleId = roleId;
+        _fields$ |= FIELD_ROLE_ID;
+    }
+
+    public boolean hasRoleId() {
+        return (_fields$ & FIELD_ROLE_ID) != 0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = Objects.requireNonNull(name);
+        _fields$ |= FIELD_NAME;
+    }
+
+    public boolean hasName() {
+        return (_fields$ & FIELD_NAME) != 0;
+    }
+
+    public boolean getVip() {
+        return vip;
+    }
+
+    public void setVip(boolean vip) {
+        this.vip = vip;
+        _fields$ |= FIELD_VIP;
+    }
+
+    public boolean hasVip() {
+        return (_fields$ & FIELD_VIP) != 0;
+    }
+
+    public double getExp() {
+        return exp;
+    }
+
+    public void setExp(double exp) {
+        this.exp = exp;
+        _fields$ |= FIELD_EXP;
+    }
+
+    public boolean hasExp() {
+        return (_fields$ & FIELD_EXP) != 0;
+    }
+
+    public byte[] getToken() {
+        return token;
+    }
+
+    public void setToken(byte[] token) {
+        this.token = token;
+        _fields$ |= FIELD_TOKEN;
+    }
+
+    public boolean hasToken() {
+        return (_fields$ & FIELD_TOKEN) != 0;
+    }
+
+    public Item getWeapon() {
+        return weapon;
+    }
+
+    public void setWeapon(Item weapon) {
+        this.weapon = weapon;
+        _fields$ |= FIELD_WEAPON;
+    }
+
+    public boolean hasWeapon() {
+        return (_fields$ & FIELD_WEAPON) != 0;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = Objects.requireNonNull(items);
+        _fields$ |= FIELD_ITEMS;
+    }
+
+    public boolean hasItems() {
+        return (_fields$ & FIELD_ITEMS) != 0;
+    }
+
+    public Set<Integer> getTags() {
+        return tags;
+    }
+
+    public void setTags(Set<Integer> tags) {
+        this.tags = Objects.requireNonNull(tags);
+        _fields$ |= FIELD_TAGS;
+    }
+
+    public boolean hasTags() {
+        return (_fields$ & FIELD_TAGS) != 0;
+    }
+
+    public Map<Integer, Long> getAttrs() {
+        return attrs;
+    }
+
+    public void setAttrs(Map<Integer, Long> attrs) {
+        this.attrs = Objects.requireNonNull(attrs);
+        _fields$ |= FIELD_ATTRS;
+    }
+
+    public boolean hasAttrs() {
+        return (_fields$ & FIELD_ATTRS) != 0;
+    }
+
+    @Override
+    public void encode(CodedBuffer buffer) {
+        super.encode(buffer);
+        if (this.roleId != 0) {
+            writeTag(buffer, 4);
+            buffer.writeLong(this.roleId);
+        }
+        if (!this.name.isEmpty()) {
+            writeTag(buffer, 11);
+            buffer.writeString(this.name);
+        }
+        if (this.vip) {
+            writeTag(buffer, 12);
+            buffer.writeBool(this.vip);
+        }
+        if (Double.doubleToRawLongBits(this.exp) != 0) {
+            writeTag(buffer, 18);
+            buffer.writeDouble(this.exp);
+        }
+        if (this.token != null && this.token.length > 0) {
+            writeTag(buffer, 23);
+            buffer.writeBytes(this.token);
+        }
+        if (this.weapon != null) {
+            writeTag(buffer, 27);
+            writeBean(buffer, this.weapon);
+        }
+        if (!this.items.isEmpty()) {
+            writeTag(buffer, 31);
+            CodedBuffer temp = buffer.getTemp();
+            temp.writeInt(this.items.size());
+            for (Item e : this.items) {
+                writeBean(temp, e);
+            }
+            buffer.writeTemp();
+        }
+        if (!this.tags.isEmpty()) {
+            writeTag(buffer, 35);
+            CodedBuffer temp = buffer.getTemp();
+            temp.writeInt(this.tags.size());
+            for (Integer e : this.tags) {
+                temp.writeInt(e);
+            }
+            buffer.writeTemp();
+        }
+        if (!this.attrs.isEmpty()) {
+            writeTag(buffer, 39);
+            CodedBuffer temp = buffer.getTemp();
+            temp.writeInt(this.attrs.size());
+            for (Map.Entry<Integer, Long> e : this.attrs.entrySet()) {
+                temp.writeInt(e.getKey());
+                temp.writeLong(e.getValue());
+            }
+            buffer.writeTemp();
+        }
+        writeTag(buffer, 0);
+    }
+
+    @Override
+    public void decode(CodedBuffer buffer) {
+        decode(buffer, -1L);
+    }
+
+    /**
+     * 只解码指定的字段，其他字段直接跳过并保持默认值<br/>
+     * 解码前先把所有字段恢复成默认值，重复使用同一个对象解码时不会残留上次的数据
+     *
+     * @param fieldMask 需要解码的字段，由FIELD_开头的常量组合而成
+     */
+    public void decode(CodedBuffer buffer, long fieldMask) {
+        super.decode(buffer);
+        _fields$ = 0;
+        this.roleId = 0;
+        this.name = "";
+        this.vip = false;
+        this.exp = 0;
+        this.token = null;
+        this.weapon = null;
+        this.items = new ArrayList<>();
+        this.tags = new HashSet<>();
+        this.attrs = new HashMap<>();
+        for (int tag = readTag(buffer); tag != 0; tag = readTag(buffer)) {
+            switch (tag) {
+                case 4: {
+                    if ((fieldMask & FIELD_ROLE_ID) == 0) {
+                        skipField(tag, buffer);
+                        break;
+                    }
+                    this.roleId = buffer.readLong();
+                    _fields$ |= FIELD_ROLE_ID;
+                    break;
+                }
+                case 11: {
+                    if ((fieldMask & FIELD_NAME) == 0) {
+                        skipField(tag, buffer);
+                        break;
+                    }
+                    this.name = buffer.readString();
+                    _fields$ |= FIELD_NAME;
+                    break;
+                }
+                case 12: {
+                    if ((fieldMask & FIELD_VIP) == 0) {
+                        skipField(tag, buffer);
+                        break;
+                    }
+                    this.vip = buffer.readBool();
+                    _fields$ |= FIELD_VIP;
+                    break;
+                }
+                case 18: {
+                    if ((fieldMask & FIELD_EXP) == 0) {
+                        skipField(tag, buffer);
+                        break;
+                    }
+                    this.exp = buffer.readDouble();
+                    _fields$ |= FIELD_EXP;
+                    break;
+                }
+                case 23: {
+                    if ((fieldMask & FIELD_TOKEN) == 0) {
+                        skipField(tag, buffer);
+                        break;
+                    }
+                    this.token = buffer.readBytes();
+                    _fields$ |= FIELD_TOKEN;
+                    break;
+                }
+                case 27: {
+                    if ((fieldMask & FIELD_WEAPON) == 0) {
+                        skipField(tag, buffer);
+                        break;
+                    }
+                    this.weapon = readBean(buffer, new Item());
+                    _fields$ |= FIELD_WEAPON;
+                    break;
+                }
+                case 31: {
+                    if ((fieldMask & FIELD_ITEMS) == 0) {
+                        skipField(tag, buffer);
+                        break;
+                    }
+                    buffer.readInt();
+                    int size = buffer.readInt();
+                    List<Item> values = new ArrayList<>(Math.min(size, buffer.readableCount()));
+                    for (int i = 0; i < size; i++) {
+                        values.add(readBean(buffer, new Item()));
+                    }
+                    this.items = values;
+                    _fields$ |= FIELD_ITEMS;
+                    break;
+                }
+                case 35: {
+                    if ((fieldMask & FIELD_TAGS) == 0) {
+                        skipField(tag, buffer);
+                        break;
+                    }
+                    buffer.readInt();
+                    int size = buffer.readInt();
+                    Set<Integer> values = new HashSet<>(Math.min(size, buffer.readableCount()));
+                    for (int i = 0; i < size; i++) {
+                        values.add(buffer.readInt());
+                    }
+                    this.tags = values;
+                    _fields$ |= FIELD_TAGS;
+                    break;
+                }
+                case 39: {
+                    if ((fieldMask & FIELD_ATTRS) == 0) {
+                        skipField(tag, buffer);
+                        break;
+                    }
+                    buffer.readInt();
+                    int size = buffer.readInt();
+                    Map<Integer, Long> values = new HashMap<>(Math.min(size, buffer.readableCount()));
+                    for (int i = 0; i < size; i++) {
+                        values.put(buffer.readInt(), buffer.readLong());
+                    }
+                    this.attrs = values;
+                    _fields$ |= FIELD_ATTRS;
+                    break;
+                }
+                default:
+                    //未知的字段直接跳过，兼容新版本增加的字段
+                    skipField(tag, buffer);
+            }
+        }
+    }
+
+    @Override
+    public void writeJson(JsonWriter writer) {
+        writer.beginObject();
+        writer.name("_id").value(ID);
+        writer.name("roleId").value(this.roleId);
+        writer.name("name").value(this.name);
+        writer.name("vip").value(this.vip);
+        writer.name("exp").value(this.exp);
+        if (this.token != null) {
+            writer.name("token").value(this.token);
+        }
+        if (this.weapon != null) {
+            writer.name("weapon").value(this.weapon);
+        }
+        writer.name("items").beginArray();
+        for (Item e : this.items) {
+            writer.value(e);
+        }
+        writer.endArray();
+        writer.name("tags").beginArray();
+        for (Integer e : this.tags) {
+            writer.value(e);
+        }
+        writer.endArray();
+        writer.name("attrs").beginObject();
+        for (Map.Entry<Integer, Long> e : this.attrs.entrySet()) {
+            writer.name(String.valueOf(e.getKey())).value(e.getValue());
+        }
+        writer.endObject();
+        writer.endObject();
+    }
+
+    @Override
+    public void writeJson(CodedBuffer buffer, JsonWriter writer) {
+        transcodeJson(buffer, writer);
+    }
+
+    /**
+     * 不创建对象，把{@link #encode(CodedBuffer)}编码的数据直接转成JSON，和{@link #writeJson(JsonWriter)}的结果只有字段顺序可能不同
+     */
+    public static void transcodeJson(CodedBuffer buffer, JsonWriter writer) {
+        writer.beginObject();
+        writer.name("_id").value(checkId(buffer, ID));
+        long fields = 0;
+        for (int tag = readTag(buffer); tag != 0; tag = readTag(buffer)) {
+            switch (tag) {
+                case 4: {
+                    writer.name("roleId");
+                    writer.value(buffer.readLong());
+                    fields |= FIELD_ROLE_ID;
+                    break;
+                }
+                case 11: {
+                    writer.name("name");
+                    writer.value(buffer.readString());
+                    fields |= FIELD_NAME;
+                    break;
+                }
+                case 12: {
+                    writer.name("vip");
+                    writer.value(buffer.readBool());
+                    fields |= FIELD_VIP;
+                    break;
+                }
+                case 18: {
+                    writer.name("exp");
+                    writer.value(buffer.readDouble());
+                    fields |= FIELD_EXP;
+                    break;
+                }
+                case 23: {
+                    writer.name("token");
+                    writer.value(buffer.readBytes());
+                    fields |= FIELD_TOKEN;
+                    break;
+                }
+                case 27: {
+                    writer.name("weapon");
+                    buffer.readInt();
+                    Item.transcodeJson(buffer, writer);
+                    fields |= FIELD_WEAPON;
+                    break;
+                }
+                case 31: {
+                    writer.name("items");
+                    buffer.readInt();
+                    int size = buffer.readInt();
+                    writer.beginArray();
+                    for (int i = 0; i < size; i++) {
+                        buffer.readInt();
+                        Item.transcodeJson(buffer, writer);
+                    }
+                    writer.endArray();
+                    fields |= FIELD_ITEMS;
+                    break;
+                }
+                case 35: {
+                    writer.name("tags");
+                    buffer.readInt();
+                    int size = buffer.readInt();
+                    writer.beginArray();
+                    for (int i = 0; i < size; i++) {
+                        writer.value(buffer.readInt());
+                    }
+                    writer.endArray();
+                    fields |= FIELD_TAGS;
+                    break;
+                }
+                case 39: {
+                    writer.name("attrs");
+                    buffer.readInt();
+                    int size = buffer.readInt();
+                    writer.beginObject();
+                    for (int i = 0; i < size; i++) {
+                        writer.name(String.valueOf(buffer.readInt()));
+                        writer.value(buffer.readLong());
+                    }
+                    writer.endObject();
+                    fields |= FIELD_ATTRS;
+                    break;
+                }
+                default:
+                    skipField(tag, buffer);
+            }
+        }
+        //默认值没有编码
+        if ((fields & FIELD_ROLE_ID) == 0) {
+            writer.name("roleId").rawValue("0");
+        }
+        if ((fields & FIELD_NAME) == 0) {
+            writer.name("name").rawValue("\"\"");
+        }
+        if ((fields & FIELD_VIP) == 0) {
+            writer.name("vip").rawValue("false");
+        }
+        if ((fields & FIELD_EXP) == 0) {
+            writer.name("exp").rawValue("0.0");
+        }
+        if ((fields & FIELD_ITEMS) == 0) {
+            writer.name("items").rawValue("[]");
+        }
+        if ((fields & FIELD_TAGS) == 0) {
+            writer.name("tags").rawValue("[]");
+        }
+        if ((fields & FIELD_ATTRS) == 0) {
+            writer.name("attrs").rawValue("{}");
+        }
+        writer.endObject();
+    }
+
+}
@@ -0,0 +1,105 @@
+package basic.protocol;
+
+import basic.message.DefaultCodedBuffer;
+import basic.serialize.ObjectReader;
+import basic.serialize.ObjectWriter;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class ParamSchemaTest {
+
+    /**
+     * 模拟服务类，参数格式由对应的代理类注册
+     */
+    public static class SlowService {
+    }
+
+    /**
+     * 运行时的服务对象可能是服务类的子类，子类没有代理类
+     */
+    public static class SlowServiceImpl extends SlowService {
+    }
+
+    /**
+     * 模拟生成的代理类，静态初始化比较慢
+     */
+    public static class SlowServiceProxy {
+
+        static {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+            ParamSchema.register(SlowService.class.getName(), 1, "IJL");
+            ParamSchema.register(SlowService.class.getName(), 2, "LL");
+        }
+
+    }
+
+    /**
+     * 多个线程同时查找时，都要等代理类注册完成
+     */
+    @Test
+    public void concurrentGet() throws Exception {
+        String serviceName = SlowService.class.getName();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            Future<?>[] futures = new Future[threads];
+            for (int i = 0; i < threads; i++) {
+                futures[i] = executor.submit(() -> {
+                    latch.await();
+                    return ParamSchema.get(serviceName, 1);
+                });
+            }
+            latch.countDown();
+            for (Future<?> future : futures) {
+                ParamSchema schema = (ParamSchema) future.get();
+                assertNotNull(schema);
+                assertEquals("IJL", schema.getDescriptor());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        //没有原生类型参数
+        assertNull(ParamSchema.get(serviceName, 2));
+        //代理类不存在
+        assertNull(ParamSchema.get(serviceName + "$Missing", 1));
+    }
+
+    /**
+     * 通过服务对象的类查找时，按继承关系找到生成代理类的服务类
+     */
+    @Test
+    public void serviceSubclass() {
+        ParamSchema schema = ParamSchema.get(SlowServiceImpl.class, 1);
+        assertNotNull(schema);
+        assertEquals("IJL", schema.getDescriptor());
+        assertNull(ParamSchema.get(SlowServiceImpl.class, 2));
+        assertNull(ParamSchema.get(String.class, 1));
+    }
+
+    @Test
+    public void requestParams() {
+        ParamSchema schema = ParamSchema.register(getClass().getName(), 1, "ZBSCIJFDL");
+        Object[] params = {true, (byte) -1, (short) 300, 'c', -5, Long.MIN_VALUE, 1.5F, 2.5, Arrays.asList("a", 1)};
+
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer(1);
+        new Request(1, "service", 1, schema, params).transferTo(new ObjectWriter(buffer));
+
+        Request request = Request.newInstance();
+        request.transferFrom(new ObjectReader(buffer));
+        assertTrue(request.isParamsEncoded());
+        request.decodeParams(ParamSchema.get(getClass().getName(), 1));
+        assertArrayEquals(params, request.getParams());
+        assertEquals("service", request.getServiceId());
+        request.recycle();
+    }
+
+}
@@ -0,0 +1,162 @@
+package basic.protocol;
+
+import basic.exception.MalformedFrameException;
+import basic.message.DefaultCodedBuffer;
+import basic.serialize.ObjectReader;
+import basic.serialize.ObjectWriter;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class ProtocolCodecTest {
+
+    private static Protocol transfer(ProtocolCodec from, ProtocolCodec to, Protocol protocol) {
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer(1);
+        from.encode(protocol, buffer);
+        return to.decode(new DefaultCodedBuffer(buffer.remainingBytes()));
+    }
+
+    private static int frameOptions(ProtocolCodec codec, Protocol protocol) {
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer();
+        codec.encode(protocol, buffer);
+        return buffer.readInt();
+    }
+
+    private static Request newRequest() {
+        String repeated = "repeated";
+        return new Request(1, "service", 2, Arrays.asList(repeated, repeated), Collections.singletonMap(3, 4L));
+    }
+
+    @Test
+    public void negotiate() {
+        ProtocolCodec initiator = new ProtocolCodec(Handshake.OPTION_REFERENCE | Handshake.OPTION_COMPACT);
+        ProtocolCodec acceptor = new ProtocolCodec(Handshake.OPTION_COMPACT);
+
+        //握手之前按默认格式编码
+        assertEquals(0, frameOptions(initiator, newRequest()));
+
+        Handshake handshake = (Handshake) transfer(initiator, acceptor, new Handshake(1, "token"));
+        assertEquals("token", handshake.getParam(0));
+        assertEquals(Handshake.OPTION_REFERENCE | Handshake.OPTION_COMPACT, handshake.getOptions());
+        assertEquals(Handshake.OPTION_COMPACT, acceptor.getOptions());
+        //回复的握手协议仍然按默认格式编码
+        assertEquals(0, frameOptions(acceptor, new Handshake(2)));
+
+        transfer(acceptor, initiator, new Handshake(2));
+        assertEquals(Handshake.OPTION_COMPACT, initiator.getOptions());
+
+        for (ProtocolCodec[] codecs : new ProtocolCodec[][]{{initiator, acceptor}, {acceptor, initiator}}) {
+            assertEquals(Handshake.OPTION_COMPACT, frameOptions(codecs[0], newRequest()));
+            Request request = (Request) transfer(codecs[0], codecs[1], newRequest());
+            request.decodeParams(null);
+            assertEquals("service", request.getServiceId());
+            assertArrayEquals(newRequest().getParams(), request.getParams());
+        }
+    }
+
+    /**
+     * 对方还在使用握手之前的格式时也能正确解码
+     */
+    @Test
+    public void framesBeforeHandshake() {
+        ProtocolCodec initiator = new ProtocolCodec(Handshake.OPTION_REFERENCE);
+        ProtocolCodec acceptor = new ProtocolCodec(Handshake.OPTION_REFERENCE);
+
+        DefaultCodedBuffer handshakeFrame = new DefaultCodedBuffer();
+        initiator.encode(new Handshake(1), handshakeFrame);
+        DefaultCodedBuffer requestFrame = new DefaultCodedBuffer();
+        initiator.encode(newRequest(), requestFrame);
+
+        acceptor.decode(handshakeFrame);
+        assertEquals(Handshake.OPTION_REFERENCE, acceptor.getOptions());
+        Request request = (Request) acceptor.decode(requestFrame);
+        request.decodeParams(null);
+        assertArrayEquals(newRequest().getParams(), request.getParams());
+    }
+
+    /**
+     * 帧的连接选项超出了本地支持的范围
+     */
+    @Test(expected = MalformedFrameException.class)
+    public void unsupportedFrameOptions() {
+        ProtocolCodec initiator = new ProtocolCodec(Handshake.OPTION_COMPACT);
+        ProtocolCodec acceptor = new ProtocolCodec(Handshake.OPTION_COMPACT);
+        transfer(acceptor, initiator, new Handshake(2));
+
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer();
+        initiator.encode(newRequest(), buffer);
+        new ProtocolCodec(0).decode(buffer);
+    }
+
+    @Test(expected = MalformedFrameException.class)
+    public void trailingBytes() {
+        ProtocolCodec codec = new ProtocolCodec(0);
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer();
+        codec.encode(newRequest(), buffer);
+        buffer.writeInt(1);
+        codec.decode(buffer);
+    }
+
+    @Test
+    public void compress() {
+        ProtocolCompressor compressor = new ProtocolCompressor(64);
+        ProtocolCodec initiator = new ProtocolCodec(Handshake.OPTION_COMPRESS | Handshake.OPTION_COMPACT, compressor);
+        ProtocolCodec acceptor = new ProtocolCodec(Handshake.OPTION_COMPRESS, compressor);
+        transfer(initiator, acceptor, new Handshake(1));
+        transfer(acceptor, initiator, new Handshake(2));
+        assertEquals(Handshake.OPTION_COMPRESS, initiator.getOptions());
+        assertEquals(Handshake.OPTION_COMPRESS, acceptor.getOptions());
+
+        char[] chars = new char[1000];
+        Arrays.fill(chars, 'a');
+        Object[] params = {new String(chars), Collections.nCopies(100, 1)};
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer();
+        initiator.encode(new Request(1, "service", 2, params), buffer);
+        assertTrue(buffer.readableCount() < 500);
+
+        Request request = (Request) acceptor.decode(buffer);
+        request.decodeParams(null);
+        assertArrayEquals(params, request.getParams());
+        assertEquals(1, compressor.getStats(Request.class).getCompressCount());
+        assertEquals(1, compressor.getStats(Request.class).getDecompressCount());
+
+        //没有达到阈值的不压缩
+        Request small = (Request) transfer(acceptor, initiator, newRequest());
+        small.decodeParams(null);
+        assertArrayEquals(newRequest().getParams(), small.getParams());
+        assertEquals(1, compressor.getStats(Request.class).getCompressCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compressWithoutCompressor() {
+        new ProtocolCodec(Handshake.OPTION_COMPRESS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedLocalOptions() {
+        new ProtocolCodec(0b1000);
+    }
+
+    /**
+     * 连接选项由版本字段标明，握手协议后面还有其他数据时也能正确读取
+     */
+    @Test
+    public void handshakeNotLast() {
+        for (int options : new int[]{0, Handshake.OPTION_COMPACT}) {
+            Handshake handshake = new Handshake(1, "a", 2);
+            handshake.setOptions(options);
+            DefaultCodedBuffer buffer = new DefaultCodedBuffer();
+            new ObjectWriter(buffer).write(new Object[]{handshake, 3});
+
+            Object[] result = new ObjectReader(buffer).read();
+            assertEquals(options, ((Handshake) result[0]).getOptions());
+            assertArrayEquals(handshake.getParams(), ((Handshake) result[0]).getParams());
+            assertEquals(3, result[1]);
+            assertEquals(0, buffer.readableCount());
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package basic.protocol;
+
+import basic.exception.MalformedFrameException;
+import basic.message.DefaultCodedBuffer;
+import basic.serialize.ObjectCopier;
+import basic.serialize.ObjectReader;
+import basic.serialize.ObjectType;
+import basic.serialize.ObjectWriter;
+import basic.serialize.TransferableRegistry;
+import basic.serialize.sample.Point;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 本地调用时拷贝参数和结果，拷贝器需要设置和连接器一样的注册表
+ */
+public class RequestTest {
+
+    private static ObjectCopier newCopier() {
+        TransferableRegistry registry = new TransferableRegistry();
+        registry.registerGenerated();
+        ObjectCopier copier = new ObjectCopier();
+        copier.setTransferableRegistry(registry);
+        return copier;
+    }
+
+    @Test
+    public void copyTransferableParam() {
+        Point point = new Point();
+        point.x = 3;
+        point.name = "param";
+        Request request = new Request(1, "service", 1, point, "s");
+        request.copyParams(newCopier());
+
+        Point copy = (Point) request.getParams()[0];
+        assertNotSame(point, copy);
+        assertEquals(3, copy.x);
+        assertEquals("param", copy.name);
+        assertEquals("s", request.getParams()[1]);
+    }
+
+    @Test
+    public void copyTransferableResult() {
+        Point point = new Point();
+        point.y = -1;
+        Response response = new Response(1, 1, point, null);
+        response.copyResult(newCopier());
+
+        assertNotSame(point, response.getResult());
+        assertEquals(-1, ((Point) response.getResult()).y);
+    }
+
+    /**
+     * 参数数据格式错误时抛出{@link MalformedFrameException}，由调用方处理
+     */
+    @Test(expected = MalformedFrameException.class)
+    public void malformedParams() {
+        DefaultCodedBuffer params = new DefaultCodedBuffer();
+        params.writeInt(ObjectType.STRING);
+        params.writeInt(100);
+        params.writeByte((byte) 'a');
+
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer();
+        ObjectWriter writer = new ObjectWriter(buffer);
+        writer.write(1);
+        writer.write(1L);
+        writer.write("service");
+        writer.write(1);
+        buffer.writeBool(false);
+        buffer.writeBytes(params.remainingBytes());
+
+        Request request = Request.newInstance();
+        request.transferFrom(new ObjectReader(buffer));
+        try {
+            request.decodeParams(null);
+        } finally {
+            request.recycle();
+        }
+    }
+
+}
@@ -0,0 +1,275 @@
+package basic.serialize;
+
+import basic.annotation.FieldSerializable;
+import basic.message.DefaultCodedBuffer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class FieldSerializerTest {
+
+    @FieldSerializable
+    public static class Base implements Serializable {
+
+        private final long id;
+
+        protected String name;
+
+        public Base(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+    }
+
+    @FieldSerializable
+    public static class Role extends Base {
+
+        private boolean vip;
+
+        private byte b;
+
+        private short s;
+
+        private char c;
+
+        private int level;
+
+        private float f;
+
+        private double d;
+
+        private int[] skills;
+
+        private List<Object> items;
+
+        private Base partner;
+
+        private transient int cache;
+
+        private static int count;
+
+        public Role(long id, String name) {
+            super(id, name);
+        }
+
+    }
+
+    /**
+     * 自定义了序列化方法，不能生成字段序列化器
+     */
+    public static class Custom implements Serializable {
+
+        private int value;
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+        }
+
+    }
+
+    /**
+     * 没有标记{@link FieldSerializable}，序列化时仍然使用对象流
+     */
+    public static class Plain implements Serializable {
+
+        private int value;
+
+    }
+
+    @FieldSerializable
+    public static class Node implements Serializable {
+
+        private String name;
+
+        private Node next;
+
+        private List<Object> children = new ArrayList<>();
+
+        public Node(String name) {
+            this.name = name;
+        }
+
+    }
+
+    private static Object roundTrip(Object value, int format) {
+        return roundTrip(value, format, false);
+    }
+
+    private static Object roundTrip(Object value, int format, boolean referenceEnabled) {
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer(1);
+        ObjectWriter writer = new ObjectWriter(buffer);
+        writer.setFormat(format);
+        writer.setReferenceEnabled(referenceEnabled);
+        writer.setLazyThreshold(1);
+        writer.write(value);
+        assertEquals(buffer.readableCount(), writer.computeSize(value));
+
+        ObjectReader reader = new ObjectReader(buffer);
+        reader.setFormat(format);
+        reader.setReferenceEnabled(referenceEnabled);
+        Object result = reader.read();
+        assertEquals(0, buffer.readableCount());
+        return result;
+    }
+
+    private static int writtenType(Object value) {
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer();
+        new ObjectWriter(buffer).write(value);
+        return buffer.readInt();
+    }
+
+    private static Role newRole() {
+        Role role = new Role(Long.MIN_VALUE, "role");
+        role.vip = true;
+        role.b = -1;
+        role.s = Short.MAX_VALUE;
+        role.c = '中';
+        role.level = 99;
+        role.f = 1.5F;
+        role.d = -2.25;
+        role.skills = new int[]{1, 2, 3};
+        role.items = new ArrayList<>(Arrays.asList(1, "a", 2L));
+        role.partner = new Base(7, "partner");
+        role.cache = 100;
+        return role;
+    }
+
+    @Test
+    public void generated() {
+        assertNotNull(FieldSerializer.get(Role.class));
+        assertNotNull(FieldSerializer.get(Role.class.getName()));
+        assertSame(FieldSerializer.get(Role.class), FieldSerializer.get(Role.class));
+        assertNull(FieldSerializer.get(Custom.class));
+        //启动类加载器加载的类
+        assertNull(FieldSerializer.get(ArrayList.class));
+    }
+
+    @Test
+    public void roundTrip() {
+        Role role = newRole();
+        for (int format : new int[]{ObjectFormat.TAGGED, ObjectFormat.COMPACT}) {
+            Role result = (Role) roundTrip(role, format);
+            assertEquals(role.getId(), result.getId());
+            assertEquals(role.name, result.name);
+            assertTrue(result.vip);
+            assertEquals(role.b, result.b);
+            assertEquals(role.s, result.s);
+            assertEquals(role.c, result.c);
+            assertEquals(role.level, result.level);
+            assertEquals(role.f, result.f, 0);
+            assertEquals(role.d, result.d, 0);
+            assertArrayEquals(role.skills, result.skills);
+            assertEquals(role.items, result.items);
+            assertEquals(7, result.partner.getId());
+            assertEquals("partner", result.partner.name);
+            //transient字段不参与序列化
+            assertEquals(0, result.cache);
+        }
+    }
+
+    @Test
+    public void nullFields() {
+        Role role = new Role(1, null);
+        Role result = (Role) roundTrip(role, ObjectFormat.TAGGED);
+        assertNull(result.name);
+        assertNull(result.items);
+        assertNull(result.partner);
+    }
+
+    @Test
+    public void objectStreamFallback() {
+        Custom custom = new Custom();
+        custom.value = 5;
+        for (int format : new int[]{ObjectFormat.TAGGED, ObjectFormat.COMPACT}) {
+            assertEquals(5, ((Custom) roundTrip(custom, format)).value);
+        }
+    }
+
+    @Test
+    public void annotationRequired() {
+        assertNotNull(FieldSerializer.get(Plain.class));
+        assertFalse(FieldSerializer.get(Plain.class).isSerializable());
+        assertEquals(ObjectType.SERIALIZABLE, writtenType(new Plain()));
+        assertEquals(ObjectType.FIELD_SERIALIZABLE, writtenType(newRole()));
+
+        Plain plain = new Plain();
+        plain.value = 3;
+        assertEquals(3, ((Plain) roundTrip(plain, ObjectFormat.TAGGED)).value);
+    }
+
+    @Test
+    public void cycle() {
+        Node a = new Node("a");
+        Node b = new Node("b");
+        a.next = b;
+        b.next = a;
+        a.children.add(a);
+        a.children.add(b);
+        a.children.add(b);
+
+        for (int format : new int[]{ObjectFormat.TAGGED, ObjectFormat.COMPACT}) {
+            for (boolean referenceEnabled : new boolean[]{false, true}) {
+                Node result = (Node) roundTrip(a, format, referenceEnabled);
+                checkCycle(result);
+            }
+        }
+
+        Node self = new Node("self");
+        self.next = self;
+        Node result = (Node) roundTrip(self, ObjectFormat.TAGGED);
+        assertSame(result, result.next);
+    }
+
+    @Test
+    public void copyCycle() {
+        Node a = new Node("a");
+        Node b = new Node("b");
+        a.next = b;
+        b.next = a;
+        a.children.add(a);
+        a.children.add(b);
+        a.children.add(b);
+
+        Node result = new ObjectCopier().copy(a);
+        assertNotSame(a, result);
+        assertNotSame(b, result.next);
+        checkCycle(result);
+    }
+
+    private static void checkCycle(Node a) {
+        assertEquals("a", a.name);
+        Node b = a.next;
+        assertEquals("b", b.name);
+        assertSame(a, b.next);
+        assertEquals(3, a.children.size());
+        assertSame(a, a.children.get(0));
+        assertSame(b, a.children.get(1));
+        assertSame(b, a.children.get(2));
+    }
+
+    /**
+     * 类结构的指纹和本地的类不一致时不能按位置读取字段
+     */
+    @Test(expected = RuntimeException.class)
+    public void fingerprintMismatch() {
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer();
+        buffer.writeInt(ObjectType.FIELD_SERIALIZABLE);
+        buffer.writeInt(0);
+        buffer.writeString(Base.class.getName());
+        buffer.writeInt(FieldSerializer.get(Base.class).getFingerprint() + 1);
+        buffer.writeLong(1);
+        buffer.writeInt(ObjectType.NULL);
+        new ObjectReader(buffer).read();
+    }
+
+}
@@ -0,0 +1,136 @@
+package basic.serialize;
+
+import basic.message.DefaultCodedBuffer;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 延迟解码集合和流式读取的测试
+ */
+public class LazyCollectionTest {
+
+    private static final int[] formats = {ObjectFormat.TAGGED, ObjectFormat.COMPACT};
+
+    private static DefaultCodedBuffer write(Object value, int format, int lazyThreshold) {
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer(1);
+        ObjectWriter writer = new ObjectWriter(buffer);
+        writer.setFormat(format);
+        writer.setLazyThreshold(lazyThreshold);
+        writer.write(value);
+        assertEquals(buffer.readableCount(), writer.computeSize(value));
+        return buffer;
+    }
+
+    private static Object read(DefaultCodedBuffer buffer, int format, boolean lazyEnabled) {
+        ObjectReader reader = new ObjectReader(buffer);
+        reader.setFormat(format);
+        reader.setLazyEnabled(lazyEnabled);
+        Object result = reader.read();
+        assertEquals(0, buffer.readableCount());
+        return result;
+    }
+
+    private static Map<String, Object> newValue() {
+        List<Object> list = new ArrayList<>();
+        Set<Object> set = new HashSet<>();
+        Map<Object, Object> map = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(i % 2 == 0 ? i : "s" + i);
+            set.add((long) i * i);
+            map.put(i, Arrays.asList(i, -i));
+        }
+        Map<String, Object> value = new HashMap<>();
+        value.put("list", list);
+        value.put("set", set);
+        value.put("map", map);
+        value.put("linked", new LinkedList<>(list));
+        value.put("small", new ArrayList<>(Arrays.asList(1, 2)));
+        return value;
+    }
+
+    @Test
+    public void lazyEnabled() {
+        Map<String, Object> value = newValue();
+        for (int format : formats) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> result = (Map<String, Object>) read(write(value, format, 10), format, true);
+            assertTrue(result.get("list") instanceof LazyList);
+            assertTrue(result.get("set") instanceof LazySet);
+            assertTrue(result.get("map") instanceof LazyMap);
+            //LinkedList不会延迟解码
+            assertTrue(result.get("linked") instanceof LinkedList);
+            //元素数量低于阈值
+            assertTrue(result.get("small") instanceof ArrayList);
+
+            assertEquals(value, result);
+            List<?> list = (List<?>) result.get("list");
+            assertEquals(100, list.size());
+            assertEquals("s99", list.get(99));
+            assertEquals(0, list.get(0));
+            assertTrue(((Set<?>) result.get("set")).contains(81L));
+            assertEquals(Arrays.asList(5, -5), ((Map<?, ?>) result.get("map")).get(5));
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readOnly() {
+        List<Object> list = new ArrayList<>(Collections.nCopies(20, "a"));
+        @SuppressWarnings("unchecked")
+        List<Object> result = (List<Object>) read(write(list, ObjectFormat.TAGGED, 10), ObjectFormat.TAGGED, true);
+        result.add("b");
+    }
+
+    /**
+     * 读取方没有启用延迟解码时仍然解码成普通集合
+     */
+    @Test
+    public void lazyDisabled() {
+        Map<String, Object> value = newValue();
+        for (int format : formats) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> result = (Map<String, Object>) read(write(value, format, 10), format, false);
+            assertTrue(result.get("list") instanceof ArrayList);
+            assertTrue(result.get("set") instanceof HashSet);
+            assertTrue(result.get("map") instanceof HashMap);
+            assertEquals(value, result);
+        }
+    }
+
+    @Test
+    public void readElements() {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            list.add("e" + i);
+        }
+        Map<Object, Object> map = new HashMap<>();
+        map.put(1, "a");
+        map.put(2, "b");
+
+        for (int format : formats) {
+            for (int threshold : new int[]{0, 10}) {
+                List<Object> elements = new ArrayList<>();
+                ObjectReader reader = new ObjectReader(write(list, format, threshold));
+                reader.setFormat(format);
+                assertEquals(50, reader.readElements(elements::add));
+                assertEquals(list, elements);
+
+                Map<Object, Object> entries = new HashMap<>();
+                reader = new ObjectReader(write(map, format, threshold));
+                reader.setFormat(format);
+                assertEquals(2, reader.<Map.Entry<Object, Object>>readElements(e -> entries.put(e.getKey(), e.getValue())));
+                assertEquals(map, entries);
+
+                //不是集合时当做一个元素
+                elements.clear();
+                reader = new ObjectReader(write("x", format, threshold));
+                reader.setFormat(format);
+                assertEquals(1, reader.readElements(elements::add));
+                assertEquals(Collections.singletonList("x"), elements);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+package basic.serialize;
+
+import basic.collection.IntArrayList;
+import basic.collection.IntObjectHashMap;
+import basic.collection.LongLongHashMap;
+import basic.serialize.sample.Point;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ObjectCopierTest {
+
+    private final ObjectCopier copier = new ObjectCopier();
+
+    /**
+     * 深度不可变的类
+     */
+    public static final class Position implements Serializable {
+
+        private final int x;
+
+        private final String name;
+
+        public Position(int x, String name) {
+            this.x = x;
+            this.name = name;
+        }
+
+    }
+
+    public static class Bag implements Serializable {
+
+        private final long id;
+
+        private int count;
+
+        private List<Object> items = new ArrayList<>();
+
+        private Position position;
+
+        public Bag(long id) {
+            this.id = id;
+        }
+
+    }
+
+    @Test
+    public void constantsShared() {
+        Object[] constants = {null, "s", 1, 2L, 'c', true, TimeUnit.SECONDS, new BigDecimal("1.5"), new int[0],
+                new Position(1, "p"), Collections.emptyList(), Collections.singletonList("a"), Collections.singletonMap(1, TimeUnit.DAYS)};
+        for (Object constant : constants) {
+            assertSame(constant, copier.copy(constant));
+        }
+    }
+
+    @Test
+    public void collections() {
+        List<Object> inner = new ArrayList<>(Arrays.asList(1, "a"));
+        Map<Object, Object> map = new LinkedHashMap<>();
+        map.put("list", inner);
+        map.put("tree", new TreeMap<>(Collections.singletonMap(2, "b")));
+        map.put("linked", new LinkedList<>(Arrays.asList(3, 4)));
+        map.put("singleton", Collections.singletonList(inner));
+
+        Map<Object, Object> copy = copier.copy(map);
+        assertNotSame(map, copy);
+        assertEquals(map, copy);
+        //拷贝结果的类型和序列化之后再反序列化的结果一致
+        assertEquals(HashMap.class, copy.getClass());
+        assertEquals(TreeMap.class, copy.get("tree").getClass());
+        assertEquals(LinkedList.class, copy.get("linked").getClass());
+
+        assertNotSame(inner, copy.get("list"));
+        inner.add("changed");
+        assertEquals(2, ((List<?>) copy.get("list")).size());
+        //不可变集合中有可变元素时也要拷贝
+        assertNotSame(map.get("singleton"), copy.get("singleton"));
+    }
+
+    @Test
+    public void arrays() {
+        int[] ints = {1, 2, 3};
+        int[] intsCopy = copier.copy(ints);
+        assertNotSame(ints, intsCopy);
+        assertArrayEquals(ints, intsCopy);
+
+        List<Object> element = new ArrayList<>(Collections.singletonList(1));
+        Object[] objects = {element, "s"};
+        Object[] objectsCopy = copier.copy(objects);
+        assertNotSame(element, objectsCopy[0]);
+        assertEquals(element, objectsCopy[0]);
+        assertSame(objects[1], objectsCopy[1]);
+    }
+
+    @Test
+    public void primitiveCollections() {
+        IntArrayList list = new IntArrayList(new int[]{1, 2});
+        IntArrayList listCopy = copier.copy(list);
+        assertNotSame(list, listCopy);
+        assertEquals(list, listCopy);
+        list.add(3);
+        assertEquals(2, listCopy.size());
+
+        IntObjectHashMap<Object> intMap = new IntObjectHashMap<>();
+        intMap.put(1, new ArrayList<>(Collections.singletonList("a")));
+        IntObjectHashMap<Object> intMapCopy = copier.copy(intMap);
+        assertEquals(intMap, intMapCopy);
+        assertNotSame(intMap.get(1), intMapCopy.get(1));
+
+        LongLongHashMap longMap = new LongLongHashMap();
+        longMap.put(1, 2);
+        assertEquals(longMap, copier.copy(longMap));
+        assertNotSame(longMap, copier.copy(longMap));
+    }
+
+    @Test
+    public void fieldSerializable() {
+        Bag bag = new Bag(10);
+        bag.count = 5;
+        bag.items.add(new ArrayList<>(Collections.singletonList("x")));
+        bag.position = new Position(3, "p");
+
+        Bag copy = copier.copy(bag);
+        assertNotSame(bag, copy);
+        assertEquals(10, copy.id);
+        assertEquals(5, copy.count);
+        assertEquals(bag.items, copy.items);
+        assertNotSame(bag.items, copy.items);
+        assertNotSame(bag.items.get(0), copy.items.get(0));
+        assertSame(bag.position, copy.position);
+    }
+
+    @Test
+    public void transferable() {
+        TransferableRegistry registry = new TransferableRegistry();
+        registry.registerGenerated();
+        copier.setTransferableRegistry(registry);
+
+        Point point = new Point();
+        point.x = 1;
+        point.name = "p";
+        point.tags = new ArrayList<>(Collections.singletonList(2));
+        Point copy = copier.copy(point);
+        assertNotSame(point, copy);
+        assertEquals(1, copy.x);
+        assertEquals("p", copy.name);
+        assertEquals(point.tags, copy.tags);
+        assertNotSame(point.tags, copy.tags);
+    }
+
+}
@@ -0,0 +1,104 @@
+package basic.serialize;
+
+import basic.message.CodedBuffer;
+import basic.message.CodedBufferPool;
+import basic.message.DefaultCodedBuffer;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link ObjectFormat#TAGGED}和{@link ObjectFormat#COMPACT}格式的编解码测试
+ */
+public class ObjectFormatTest {
+
+    private static Object roundTrip(Object value, int format, CodedBuffer buffer) {
+        ObjectWriter writer = new ObjectWriter(buffer);
+        writer.setFormat(format);
+        writer.write(value);
+
+        ObjectReader reader = new ObjectReader(buffer);
+        reader.setFormat(format);
+        Object result = reader.read();
+        assertEquals(0, buffer.readableCount());
+        return result;
+    }
+
+    private static Object roundTrip(Object value, int format) {
+        return roundTrip(value, format, new DefaultCodedBuffer(16));
+    }
+
+    /**
+     * 大量单字节的头字节写入容量很小的缓冲区，需要逐个字节扩容
+     */
+    @Test
+    public void compactSingleBytesGrowBuffer() {
+        List<Object> list = new ArrayList<>();
+        Object[] array = new Object[600];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = i % 128;
+            list.add(i % 2 == 0);
+            list.add("s" + i % 10);
+            list.add((long) (i % 12));
+            list.add(-(i % 16) - 1);
+            list.add((byte) i);
+        }
+
+        assertArrayEquals(array, (Object[]) roundTrip(array, ObjectFormat.COMPACT));
+        assertEquals(list, roundTrip(list, ObjectFormat.COMPACT));
+
+        DefaultCodedBuffer pooled = CodedBufferPool.lease();
+        try {
+            assertEquals(list, roundTrip(list, ObjectFormat.COMPACT, pooled));
+        } finally {
+            CodedBufferPool.recycle(pooled);
+        }
+    }
+
+    @Test
+    public void compactInlineBoundaries() {
+        Object[] values = {0, 127, 128, -1, -16, -17, Integer.MIN_VALUE, Integer.MAX_VALUE, 0L, 11L, 12L, -1L, Long.MIN_VALUE,
+                true, false, "", "abcdefghijklmnopqrstuvwxyz01234", "abcdefghijklmnopqrstuvwxyz012345", "中文", null};
+        for (Object value : values) {
+            assertEquals(value, roundTrip(value, ObjectFormat.COMPACT));
+            assertEquals(value, roundTrip(value, ObjectFormat.TAGGED));
+        }
+    }
+
+    @Test
+    public void compactIsSmallerThanTagged() {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+            list.add("k" + i);
+        }
+        ObjectWriter tagged = new ObjectWriter(new DefaultCodedBuffer());
+        ObjectWriter compact = new ObjectWriter(new DefaultCodedBuffer());
+        compact.setFormat(ObjectFormat.COMPACT);
+        assertTrue(compact.computeSize(list) < tagged.computeSize(list));
+    }
+
+    @Test
+    public void nestedContainers() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("ints", new int[]{1, -2, 300});
+        map.put("list", Arrays.asList(1, "a", 2L, false));
+        map.put("set", new HashSet<>(Arrays.asList("x", "y")));
+        map.put("double", 1.5D);
+        map.put("float", 2.5F);
+        map.put("short", (short) -7);
+
+        for (int format : new int[]{ObjectFormat.TAGGED, ObjectFormat.COMPACT}) {
+            Map<?, ?> result = (Map<?, ?>) roundTrip(map, format);
+            assertArrayEquals((int[]) map.get("ints"), (int[]) result.get("ints"));
+            assertEquals(map.get("list"), result.get("list"));
+            assertEquals(map.get("set"), result.get("set"));
+            assertEquals(map.get("double"), result.get("double"));
+            assertEquals(map.get("float"), result.get("float"));
+            assertEquals(map.get("short"), result.get("short"));
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+package basic.serialize;
+
+import basic.collection.IntArrayList;
+import basic.collection.IntObjectHashMap;
+import basic.collection.LongArrayList;
+import basic.collection.LongLongHashMap;
+import basic.message.DefaultCodedBuffer;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * 原生类型集合的编解码测试
+ */
+public class PrimitiveCollectionTest {
+
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(T value, int format) {
+        DefaultCodedBuffer buffer = new DefaultCodedBuffer(1);
+        ObjectWriter writer = new ObjectWriter(buffer);
+        writer.setFormat(format);
+        writer.write(value);
+        assertEquals(buffer.readableCount(), writer.computeSize(value));
+
+        ObjectReader reader = new ObjectReader(buffer);
+        reader.setFormat(format);
+        T result = reader.read();
+        assertEquals(0, buffer.readableCount());
+        assertEquals(value.getClass(), result.getClass());
+        return result;
+    }
+
+    private static final int[] formats = {ObjectFormat.TAGGED, ObjectFormat.COMPACT};
+
+    @Test
+    public void lists() {
+        IntArrayList intList = new IntArrayList();
+        LongArrayList longList = new LongArrayList();
+        for (int i = -500; i < 500; i++) {
+            intList.add(i * 1000);
+            longList.add((long) i << 40);
+        }
+        intList.add(Integer.MIN_VALUE);
+        longList.add(Long.MAX_VALUE);
+
+        for (int format : formats) {
+            assertEquals(intList, roundTrip(intList, format));
+            assertEquals(longList, roundTrip(longList, format));
+            assertEquals(new IntArrayList(), roundTrip(new IntArrayList(), format));
+            assertEquals(new LongArrayList(4), roundTrip(new LongArrayList(4), format));
+        }
+    }
+
+    @Test
+    public void maps() {
+        IntObjectHashMap<Object> intMap = new IntObjectHashMap<>();
+        LongLongHashMap longMap = new LongLongHashMap();
+        for (int i = -300; i < 300; i++) {
+            intMap.put(i * 7, i % 3 == 0 ? null : "v" + i);
+            longMap.put((long) i * 31, -i);
+        }
+        //删除之后的空位不影响编码
+        for (int i = -300; i < 300; i += 5) {
+            intMap.remove(i * 7);
+            longMap.remove((long) i * 31);
+        }
+        intMap.put(0, Arrays.asList(1, 2));
+        longMap.put(0, Long.MIN_VALUE);
+
+        for (int format : formats) {
+            IntObjectHashMap<Object> intResult = roundTrip(intMap, format);
+            assertEquals(intMap.size(), intResult.size());
+            assertEquals(intMap, intResult);
+            assertEquals(Arrays.asList(1, 2), intResult.get(0));
+            assertTrue(intResult.containsKey(7));
+            assertNull(intResult.get(7 * 3));
+            assertTrue(intResult.containsKey(7 * 3));
+
+            LongLongHashMap longResult = roundTrip(longMap, format);
+            assertEquals(longMap, longResult);
+            assertEquals(Long.MIN_VALUE, longResult.get(0));
+            assertFalse(longResult.containsKey(-300 * 31));
+
+            assertTrue(roundTrip(new IntObjectHashMap<>(), format).isEmpty());
+            assertTrue(roundTrip(new LongLongHashMap(), format).isEmpty());
+        }
+    }
+
+    /**
+     * 嵌套在普通集合里面的原生类型集合
+     */
+    @Test
+    public void nested() {
+        IntArrayList intList = new IntArrayList(new int[]{3, 1, 2});
+        LongLongHashMap longMap = new LongLongHashMap();
+        longMap.put(1, 2);
+        Object[] array = {intList, longMap, "x"};
+        for (int format : formats) {
+            Object[] result = roundTrip(array, format);
+            assertEquals(intList, result[0]);
+            assertEquals(longMap, result[1]);
+            assertEquals("x", result[2]);
+        }
+    }
+
+}
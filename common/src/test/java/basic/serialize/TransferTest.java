@@ -0,0 +1,63 @@
+package basic.serialize;
+
+import basic.message.DefaultCodedBuffer;
+import basic.serialize.sample.Point;
+import basic.serialize.sample.PointTransfer;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * 生成的序列化器测试，{@link PointTransfer}通过META-INF/services注册
+ */
+public class TransferTest {
+
+    @Test
+    public void registerGenerated() {
+        TransferableRegistry registry = new TransferableRegistry();
+        registry.registerGenerated();
+        assertEquals(PointTransfer.ID, registry.getId(Point.class));
+        assertTrue(registry.create(PointTransfer.ID) instanceof Point);
+    }
+
+    @Test
+    public void roundTrip() {
+        TransferableRegistry registry = new TransferableRegistry();
+        registry.registerGenerated();
+
+        Point point = new Point();
+        point.x = -3;
+        point.y = Long.MAX_VALUE;
+        point.c = 'x';
+        point.visible = true;
+        point.name = "p";
+        point.tags = Arrays.asList(1, "a", null);
+        point.cache = 1;
+
+        for (int format : new int[]{ObjectFormat.TAGGED, ObjectFormat.COMPACT}) {
+            DefaultCodedBuffer buffer = new DefaultCodedBuffer(1);
+            ObjectWriter writer = new ObjectWriter(buffer);
+            writer.setFormat(format);
+            writer.setTransferableRegistry(registry);
+            writer.write(point);
+            assertEquals(buffer.readableCount(), writer.computeSize(point));
+
+            ObjectReader reader = new ObjectReader(buffer);
+            reader.setFormat(format);
+            reader.setTransferableRegistry(registry);
+            Point result = reader.read();
+            assertEquals(0, buffer.readableCount());
+            assertEquals(point.x, result.x);
+            assertEquals(point.y, result.y);
+            assertEquals(point.c, result.c);
+            assertTrue(result.visible);
+            assertEquals(point.name, result.name);
+            assertEquals(point.tags, result.tags);
+            //transient字段不参与序列化
+            assertEquals(0, result.cache);
+        }
+    }
+
+}
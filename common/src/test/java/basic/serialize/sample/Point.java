@@ -0,0 +1,39 @@
+package basic.serialize.sample;
+
+import basic.serialize.ObjectReader;
+import basic.serialize.ObjectWriter;
+import basic.serialize.Transferable;
+
+import java.util.List;
+
+/**
+ * 测试用的{@link Transferable}，序列化器{@link PointTransfer}按transfer.ftl的格式编写，和注解{@link basic.annotation.Transfer}生成的一致<br/>
+ * 这里不加注解，测试不依赖编译期的注解处理
+ */
+public class Point implements Transferable {
+
+    public int x;
+
+    public long y;
+
+    public char c;
+
+    public boolean visible;
+
+    public String name;
+
+    public List<Object> tags;
+
+    public transient int cache;
+
+    @Override
+    public void transferTo(ObjectWriter writer) {
+        PointTransfer.transferTo(this, writer);
+    }
+
+    @Override
+    public void transferFrom(ObjectReader reader) {
+        PointTransfer.transferFrom(this, reader);
+    }
+
+}
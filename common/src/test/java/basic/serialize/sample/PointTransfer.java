@@ -0,0 +1,42 @@
+package basic.serialize.sample;
+
+import basic.message.CodedBuffer;
+import basic.serialize.ObjectReader;
+import basic.serialize.ObjectWriter;
+import basic.serialize.TransferableRegistry;
+
+/**
+ * Point的序列化器，由basic.gen.Generator生成，不要手动修改
+ *
+ * @see Point
+ */
+public final class PointTransfer implements TransferableRegistry.Registrar {
+
+    public static final int ID = 901;
+
+    public static void transferTo(Point value, ObjectWriter writer) {
+        CodedBuffer buffer = writer.getBuffer();
+        buffer.writeInt(value.x);
+        buffer.writeLong(value.y);
+        buffer.writeInt(value.c);
+        buffer.writeBool(value.visible);
+        writer.write(value.name);
+        writer.write(value.tags);
+    }
+
+    public static void transferFrom(Point value, ObjectReader reader) {
+        CodedBuffer buffer = reader.getBuffer();
+        value.x = buffer.readInt();
+        value.y = buffer.readLong();
+        value.c = (char) buffer.readInt();
+        value.visible = buffer.readBool();
+        value.name = reader.read();
+        value.tags = reader.read();
+    }
+
+    @Override
+    public void register(TransferableRegistry registry) {
+        registry.register(ID, Point.class, Point::new);
+    }
+
+}
@@ -0,0 +1,209 @@
+package util;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ConstantUtilsTest {
+
+    public static final class Immutable {
+
+        private final int id;
+
+        private final String name;
+
+        private final TimeUnit unit;
+
+        private final Nested nested;
+
+        public Immutable(int id, String name, TimeUnit unit, Nested nested) {
+            this.id = id;
+            this.name = name;
+            this.unit = unit;
+            this.nested = nested;
+        }
+
+    }
+
+    public static final class Nested {
+
+        private final long value;
+
+        public Nested(long value) {
+            this.value = value;
+        }
+
+    }
+
+    /**
+     * 父类有可变字段
+     */
+    public static class MutableParent {
+
+        protected int count;
+
+    }
+
+    public static final class MutableChild extends MutableParent {
+
+        private final int id = 1;
+
+    }
+
+    /**
+     * 字段类型不是final的，可能引用可变的子类
+     */
+    public static final class NonFinalFieldType {
+
+        private final MutableParent parent = null;
+
+    }
+
+    public static final class ObjectField {
+
+        private final Object value = null;
+
+    }
+
+    public static final class ArrayField {
+
+        private final int[] values = null;
+
+    }
+
+    public static final class CollectionField {
+
+        private final List<String> values = null;
+
+    }
+
+    /**
+     * 相互引用的类保守地当做可变的
+     */
+    public static final class Cyclic {
+
+        private final Cyclic next = null;
+
+    }
+
+    public static final class StaticMutable {
+
+        private static int counter;
+
+        private final int id = 0;
+
+    }
+
+    public static class NotFinalClass {
+
+        private final int id = 0;
+
+    }
+
+    public static abstract class AbstractClass {
+    }
+
+    @Test
+    public void builtinClasses() {
+        for (Class<?> clazz : new Class<?>[]{int.class, Integer.class, Boolean.class, String.class, Object.class, BigDecimal.class,
+                LocalDate.class, UUID.class, TimeUnit.class}) {
+            assertTrue(clazz.getName(), ConstantUtils.isConstantClass(clazz));
+        }
+        for (Class<?> clazz : new Class<?>[]{int[].class, String[].class, ArrayList.class, List.class, Date.class, StringBuilder.class}) {
+            assertFalse(clazz.getName(), ConstantUtils.isConstantClass(clazz));
+        }
+    }
+
+    @Test
+    public void immutableClasses() {
+        assertTrue(ConstantUtils.isConstantClass(Immutable.class));
+        assertTrue(ConstantUtils.isConstantClass(Nested.class));
+        assertTrue(ConstantUtils.isConstantClass(StaticMutable.class));
+        //类本身的字段都不可变，但是字段声明为该类型时可能引用子类对象
+        assertTrue(ConstantUtils.isConstantClass(NotFinalClass.class));
+
+        assertFalse(ConstantUtils.isConstantClass(MutableParent.class));
+        assertFalse(ConstantUtils.isConstantClass(MutableChild.class));
+        assertFalse(ConstantUtils.isConstantClass(NonFinalFieldType.class));
+        assertFalse(ConstantUtils.isConstantClass(ObjectField.class));
+        assertFalse(ConstantUtils.isConstantClass(ArrayField.class));
+        assertFalse(ConstantUtils.isConstantClass(CollectionField.class));
+        assertFalse(ConstantUtils.isConstantClass(Cyclic.class));
+        assertFalse(ConstantUtils.isConstantClass(AbstractClass.class));
+    }
+
+    @Test
+    public void constants() {
+        assertTrue(ConstantUtils.isConstant(null));
+        assertTrue(ConstantUtils.isConstant(1));
+        assertTrue(ConstantUtils.isConstant("s"));
+        assertTrue(ConstantUtils.isConstant(new int[0]));
+        assertTrue(ConstantUtils.isConstant(new Immutable(1, "a", TimeUnit.DAYS, new Nested(2))));
+        assertFalse(ConstantUtils.isConstant(new int[1]));
+        assertFalse(ConstantUtils.isConstant(new ArrayList<>()));
+
+        //不可变集合的元素都是常量时才是常量
+        assertTrue(ConstantUtils.isConstant(Collections.emptyList()));
+        assertTrue(ConstantUtils.isConstant(Collections.singletonList("a")));
+        assertTrue(ConstantUtils.isConstant(Collections.singletonMap(1, new Nested(1))));
+        assertFalse(ConstantUtils.isConstant(Collections.singletonList(new ArrayList<>())));
+        assertFalse(ConstantUtils.isConstant(Collections.singletonMap(new StringBuilder(), 1)));
+        //只读视图不是不可变集合
+        assertFalse(ConstantUtils.isConstant(Collections.unmodifiableList(new ArrayList<>())));
+    }
+
+    public static final class Registered {
+
+        private int value;
+
+    }
+
+    @Test
+    public void addClasses() {
+        assertFalse(ConstantUtils.isConstantClass(Registered.class));
+        ConstantUtils.addConstantClass(Registered.class);
+        assertTrue(ConstantUtils.isConstantClass(Registered.class));
+
+        assertFalse(ConstantUtils.isConstant(new Pair("a", "b")));
+        ConstantUtils.addImmutableCollectionClass(Pair.class);
+        assertTrue(ConstantUtils.isConstant(new Pair("a", "b")));
+        assertFalse(ConstantUtils.isConstant(new Pair("a", new ArrayList<>())));
+    }
+
+    /**
+     * 自定义的不可变集合
+     */
+    public static final class Pair extends AbstractList<Object> {
+
+        private final Object first;
+
+        private final Object second;
+
+        public Pair(Object first, Object second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public Object get(int index) {
+            return index == 0 ? first : second;
+        }
+
+        @Override
+        public int size() {
+            return 2;
+        }
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addNonCollection() {
+        ConstantUtils.addImmutableCollectionClass(String.class);
+    }
+
+}
@@ -1,5 +1,8 @@
 package rpc;
 
+import basic.message.Message;
+import basic.serialize.EnumRegistry;
+import basic.serialize.TransferableRegistry;
 import basic.service.Service;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
@@ -10,6 +13,7 @@ import java.util.*;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * 本地服务器
@@ -109,6 +113,33 @@ public class LocalServer {
         }
     }
 
+    /**
+     * 设置序列化{@link basic.serialize.Transferable}的注册表，连接器编解码和本地调用拷贝参数、结果都使用这个注册表
+     */
+    public void setTransferableRegistry(TransferableRegistry transferableRegistry) {
+        Objects.requireNonNull(transferableRegistry);
+        connectors.forEach(connector -> connector.setTransferableRegistry(transferableRegistry));
+        protocolHandle.setTransferableRegistry(transferableRegistry);
+    }
+
+    /**
+     * 设置序列化枚举的注册表，和{@link #setTransferableRegistry(TransferableRegistry)}一样同时用于连接器和本地调用
+     */
+    public void setEnumRegistry(EnumRegistry enumRegistry) {
+        Objects.requireNonNull(enumRegistry);
+        connectors.forEach(connector -> connector.setEnumRegistry(enumRegistry));
+        protocolHandle.setEnumRegistry(enumRegistry);
+    }
+
+    /**
+     * 设置反序列化{@link Message}的消息工厂，和{@link #setTransferableRegistry(TransferableRegistry)}一样同时用于连接器和本地调用
+     */
+    public void setMessageFactory(Function<Integer, Message> messageFactory) {
+        Objects.requireNonNull(messageFactory);
+        connectors.forEach(connector -> connector.setMessageFactory(messageFactory));
+        protocolHandle.setMessageFactory(messageFactory);
+    }
+
     // get id
     public int getId() {
         return id;
@@ -1,20 +1,46 @@
 package rpc;
 
+import basic.annotation.Endpoint;
+import basic.message.Message;
+import basic.protocol.ParamSchema;
 import basic.protocol.Protocol;
 import basic.protocol.Request;
 import basic.protocol.Response;
+import basic.serialize.EnumRegistry;
+import basic.serialize.ObjectCopier;
+import basic.serialize.TransferableRegistry;
 import basic.service.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import rpc.connect.Connector;
 
+import java.util.function.Function;
+
 public class ProtocolHandle {
     protected final Logger logger = LoggerFactory.getLogger(getClass());
     LocalServer localServer;
+
+    /**
+     * 本地调用时拷贝不安全的参数和结果，注册表和连接器的编解码器使用的一致，参考{@link LocalServer#setTransferableRegistry(TransferableRegistry)}
+     */
+    protected final ObjectCopier copier = new ObjectCopier();
+
     public ProtocolHandle(LocalServer localServer) {
         this.localServer = localServer;
     }
 
+    public void setTransferableRegistry(TransferableRegistry transferableRegistry) {
+        copier.setTransferableRegistry(transferableRegistry);
+    }
+
+    public void setEnumRegistry(EnumRegistry enumRegistry) {
+        copier.setEnumRegistry(enumRegistry);
+    }
+
+    public void setMessageFactory(Function<Integer, Message> messageFactory) {
+        copier.setMessageFactory(messageFactory);
+    }
+
     /**
      * 发送远端服务器
      * @param targetServerId 目标服务器ID
@@ -31,10 +57,15 @@ public class ProtocolHandle {
 
     /**
      * 发送RPC请求
+     *
+     * @param securityModifier 安全修饰符，参考{@link Endpoint#PARAM_SAFE}和{@link Endpoint#RESULT_SAFE}
      */
     protected void sendRequest(int targetServerId, Request request, int securityModifier) {
         if (targetServerId == localServer.getId() || targetServerId == 0) {
-            //本地服务器直接处理
+            //本地服务器直接处理，不需要序列化，参数不安全时在调用方线程上拷贝，常量参数直接共享
+            if ((securityModifier & Endpoint.PARAM_SAFE) == 0) {
+                request.copyParams(copier);
+            }
             handleRequest(request, securityModifier);
         } else {
             sendProtocol(targetServerId, request);
@@ -50,16 +81,35 @@ public class ProtocolHandle {
             logger.error("处理RPC请求，服务[" + request.getServiceId() + "]不存在");
         } else {
             Worker worker = service.getWorker();
-            worker.execute(() -> worker.handleRequest(request, securityModifier));
+            worker.execute(() -> {
+                try {
+                    //参数在目标工作线程上解码，网络线程只解码路由需要的字段
+                    try {
+                        request.decodeParams(ParamSchema.get(service.getClass(), request.getMethodId()));
+                    } catch (Exception e) {
+                        //数据来自对方，解码出错不能影响工作线程，把异常返回给调用方
+                        logger.error("解码RPC请求参数出错，originServerId:{},callId:{}", request.getServerId(), request.getCallId(), e);
+                        Response response = new Response(localServer.getId(), request.getCallId(), null, e.toString());
+                        sendResponse(request.getServerId(), response, Endpoint.RESULT_SAFE);
+                        return;
+                    }
+                    worker.handleRequest(request, securityModifier);
+                } finally {
+                    request.recycle();
+                }
+            });
         }
     }
 
     /**
      * 发送RPC响应
      */
-    protected void sendResponse(int targetServerId, Response response) {
+    protected void sendResponse(int targetServerId, Response response, int securityModifier) {
         if (targetServerId == localServer.getId()) {
-            //本地服务器直接处理
+            //本地服务器直接处理，不需要序列化，结果不安全时在被调用方线程上拷贝，常量结果直接共享
+            if ((securityModifier & Endpoint.RESULT_SAFE) == 0) {
+                response.copyResult(copier);
+            }
             handleResponse(response);
         } else {
             sendProtocol(targetServerId, response);
@@ -73,7 +123,22 @@ public class ProtocolHandle {
         int workerId = (int) (response.getCallId() >> 32);
         Worker worker = localServer.getWorkerById(workerId);
         if (worker != null) {
-            worker.execute(() -> worker.handleResponse(response));
+            worker.execute(() -> {
+                try {
+                    //结果在发起调用的工作线程上解码
+                    try {
+                        response.decodeResult();
+                    } catch (Exception e) {
+                        //解码出错时把异常当做调用结果，调用方不用等到超时
+                        logger.error("解码RPC响应结果出错，originServerId:{},callId:{}", response.getServerId(), response.getCallId(), e);
+                        worker.handleResponse(new Response(response.getServerId(), response.getCallId(), null, e.toString()));
+                        return;
+                    }
+                    worker.handleResponse(response);
+                } finally {
+                    response.recycle();
+                }
+            });
         } else {
             logger.error("处理RPC响应，worker线程[{}}]不存在, originServerId:{},callId:{}",workerId, response.getServerId(), response.getCallId());
         }
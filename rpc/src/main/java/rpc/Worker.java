@@ -68,7 +68,8 @@ public class Worker implements Executor {
         while (running) {
             try {
                 taskQueue.take().run();
-            } catch (InterruptedException e) {
+            } catch (Exception e) {
+                //任务出错不能结束工作线程，否则这个线程上的所有服务都不能再处理
                 logger.error("执行任务失败", e);
             }
         }
@@ -1,4 +1,91 @@
 package rpc.connect;
 
+import basic.message.Message;
+import basic.protocol.Handshake;
+import basic.protocol.NettyProtocolCodec;
+import basic.protocol.Protocol;
+import basic.protocol.ProtocolCodec;
+import basic.protocol.ProtocolCompressor;
+import basic.serialize.EnumRegistry;
+import basic.serialize.TransferableRegistry;
+
+import java.util.function.Function;
+
+/**
+ * 连接器，管理和远程服务器之间的连接<br/>
+ * 每个连接使用{@link #newProtocolCodec()}创建的编解码器，连接建立之后先互相发送{@link Handshake}，
+ * 编解码器根据双方支持的连接选项自动切换之后的编码格式
+ */
 public abstract class Connector {
+
+    /**
+     * 本地支持的连接选项，由{@link Handshake}中的OPTION_开头的常量组合而成
+     */
+    private int options;
+
+    /**
+     * 本地支持{@link Handshake#OPTION_COMPRESS}时使用的协议压缩器，所有连接共享
+     */
+    private ProtocolCompressor compressor;
+
+    private TransferableRegistry transferableRegistry;
+
+    private EnumRegistry enumRegistry;
+
+    private Function<Integer, Message> messageFactory;
+
+    public int getOptions() {
+        return options;
+    }
+
+    public void setOptions(int options) {
+        this.options = options;
+    }
+
+    public ProtocolCompressor getCompressor() {
+        return compressor;
+    }
+
+    public void setCompressor(ProtocolCompressor compressor) {
+        this.compressor = compressor;
+    }
+
+    public void setTransferableRegistry(TransferableRegistry transferableRegistry) {
+        this.transferableRegistry = transferableRegistry;
+    }
+
+    public void setEnumRegistry(EnumRegistry enumRegistry) {
+        this.enumRegistry = enumRegistry;
+    }
+
+    public void setMessageFactory(Function<Integer, Message> messageFactory) {
+        this.messageFactory = messageFactory;
+    }
+
+    /**
+     * 创建一个连接使用的协议编解码器，序列化需要的注册表一般由{@link rpc.LocalServer}统一设置
+     */
+    protected ProtocolCodec newProtocolCodec() {
+        ProtocolCodec protocolCodec = new ProtocolCodec(options, compressor);
+        if (transferableRegistry != null) {
+            protocolCodec.setTransferableRegistry(transferableRegistry);
+        }
+        if (enumRegistry != null) {
+            protocolCodec.setEnumRegistry(enumRegistry);
+        }
+        if (messageFactory != null) {
+            protocolCodec.setMessageFactory(messageFactory);
+        }
+        return protocolCodec;
+    }
+
+    protected NettyProtocolCodec newNettyProtocolCodec() {
+        return new NettyProtocolCodec(newProtocolCodec());
+    }
+
+    /**
+     * 发送协议到远程服务器
+     */
+    public abstract void sendProtocol(int targetServerId, Protocol protocol);
+
 }